@@ -0,0 +1,116 @@
+package de.ohmesoftware.javadoctoproperties.benchmark;
+
+import com.sun.source.doctree.DocCommentTree;
+import com.sun.source.doctree.DocTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.DocTrees;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TreePathScanner;
+import de.ohmesoftware.javadoctoproperties.CommentNormalizer;
+import de.ohmesoftware.javadoctoproperties.CommentRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders comments with the DocTree based renderer of the Java 9+ doclet and the character based normalizer of the
+ * Java 8 doclet.
+ *
+ * @author Karsten Ohme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentBenchmark {
+
+    private static final int TYPES = 100;
+
+    private static final int FIELDS = 10;
+
+    @Param({"1", "10"})
+    public int paragraphs;
+
+    private final List<String> comments = new ArrayList<>();
+
+    private final List<List<? extends DocTree>> bodies = new ArrayList<>();
+
+    private final CommentNormalizer commentNormalizer = new CommentNormalizer();
+
+    private final CommentRenderer commentRenderer = new CommentRenderer();
+
+    @Setup
+    public void setUp() throws IOException {
+        ModelGenerator modelGenerator = new ModelGenerator(TYPES, FIELDS, paragraphs, 0);
+        for (int type = 0; type < TYPES; type++) {
+            comments.add(modelGenerator.comment(type, -1));
+            for (int field = 0; field < FIELDS; field++) {
+                comments.add(modelGenerator.comment(type, field));
+            }
+        }
+        Path directory = Files.createTempDirectory("javadoctoproperties-benchmark");
+        try {
+            List<Path> sources = modelGenerator.generate(directory);
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+                JavacTask javacTask = (JavacTask) compiler.getTask(null, fileManager, null, List.of("-proc:none"), null,
+                        fileManager.getJavaFileObjectsFromPaths(sources));
+                DocTrees docTrees = DocTrees.instance(javacTask);
+                for (CompilationUnitTree compilationUnit : javacTask.parse()) {
+                    new TreePathScanner<Void, Void>() {
+                        @Override
+                        public Void visitClass(ClassTree node, Void unused) {
+                            addBody();
+                            return super.visitClass(node, unused);
+                        }
+
+                        @Override
+                        public Void visitVariable(VariableTree node, Void unused) {
+                            addBody();
+                            return null;
+                        }
+
+                        private void addBody() {
+                            DocCommentTree docCommentTree = docTrees.getDocCommentTree(getCurrentPath());
+                            if (docCommentTree != null) {
+                                bodies.add(docCommentTree.getFullBody());
+                            }
+                        }
+                    }.scan(compilationUnit, null);
+                }
+            }
+        } finally {
+            ModelGenerator.delete(directory);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TYPES * (FIELDS + 1))
+    public void normalize(Blackhole blackhole) {
+        for (String comment : comments) {
+            blackhole.consume(commentNormalizer.normalize(comment));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TYPES * (FIELDS + 1))
+    public void render(Blackhole blackhole) {
+        for (List<? extends DocTree> body : bodies) {
+            blackhole.consume(commentRenderer.render(body));
+        }
+    }
+}
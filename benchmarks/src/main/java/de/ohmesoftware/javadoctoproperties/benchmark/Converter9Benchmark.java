@@ -0,0 +1,69 @@
+package de.ohmesoftware.javadoctoproperties.benchmark;
+
+import de.ohmesoftware.javadoctoproperties.Converter9;
+import org.openjdk.jmh.annotations.*;
+
+import javax.tools.DocumentationTool;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link Converter9} end-to-end over generated model sources.
+ *
+ * @author Karsten Ohme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class Converter9Benchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int types;
+
+    @Param({"10"})
+    public int fields;
+
+    @Param({"1"})
+    public int paragraphs;
+
+    @Param({"1"})
+    public int threads;
+
+    private Path directory;
+
+    private List<Path> sources;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("javadoctoproperties-benchmark");
+        sources = new ModelGenerator(types, fields, paragraphs, 0).generate(directory.resolve("src"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ModelGenerator.delete(directory);
+    }
+
+    @Benchmark
+    public boolean run() throws IOException {
+        DocumentationTool documentationTool = ToolProvider.getSystemDocumentationTool();
+        try (StandardJavaFileManager fileManager = documentationTool.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            return documentationTool.getTask(Writer.nullWriter(), fileManager, diagnostic -> {
+                    }, Converter9.class,
+                    List.of("-quiet", "-sourcepath", directory.resolve("src").toString(),
+                            "-output", directory.resolve("javadoc.properties").toString(),
+                            "-threads", String.valueOf(threads)),
+                    fileManager.getJavaFileObjectsFromPaths(sources)).call();
+        }
+    }
+}
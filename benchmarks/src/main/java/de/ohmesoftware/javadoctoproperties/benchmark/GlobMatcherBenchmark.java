@@ -0,0 +1,63 @@
+package de.ohmesoftware.javadoctoproperties.benchmark;
+
+import de.ohmesoftware.javadoctoproperties.GlobMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches qualified names against include patterns, compared to the former per check regular expression.
+ *
+ * @author Karsten Ohme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobMatcherBenchmark {
+
+    @Param({"**model.p1*.Type1**:*.p0.Type??:gen.model.p3.*", "*Type4*:*Type5*:*Type6*:*Type7*:*Type8*:*Type9*:**p2.*:**p4.*:**p6.*:**p8.*:*.Type1:*.Type2"})
+    public String patterns;
+
+    private List<String> names;
+
+    private List<String> patternList;
+
+    private GlobMatcher globMatcher;
+
+    @Setup
+    public void setUp() {
+        names = new ModelGenerator(10000, 0, 0, 0).qualifiedNames();
+        patternList = Arrays.asList(patterns.split(":"));
+        globMatcher = GlobMatcher.compile(patternList);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10000)
+    public void globMatcher(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(globMatcher.matches(name));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10000)
+    public void regularExpression(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(patternList.stream().anyMatch(pattern -> name.matches(getRegEx(pattern))));
+        }
+    }
+
+    private static String getRegEx(String pattern) {
+        String _pattern = pattern.replace(".", "\\.");
+        _pattern = _pattern.replace("**", ".*");
+        _pattern = _pattern.replace("*", ".*");
+        _pattern = _pattern.replace("?", ".");
+        return _pattern;
+    }
+}
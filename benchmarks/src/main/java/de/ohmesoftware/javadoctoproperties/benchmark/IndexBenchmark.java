@@ -0,0 +1,109 @@
+package de.ohmesoftware.javadoctoproperties.benchmark;
+
+import de.ohmesoftware.javadoctoproperties.IndexReader;
+import de.ohmesoftware.javadoctoproperties.IndexWriter;
+import de.ohmesoftware.javadoctoproperties.PropertiesWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up keys in the memory mapped index compared to <code>java.util.Properties</code>.
+ *
+ * @author Karsten Ohme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexBenchmark {
+
+    private static final int KEYS = 100000;
+
+    private final List<String> keys = new ArrayList<>(KEYS);
+
+    private final Properties properties = new Properties();
+
+    private Path indexFile;
+
+    private Path propertiesFile;
+
+    private IndexReader indexReader;
+
+    @Setup
+    public void setUp() throws IOException {
+        ModelGenerator modelGenerator = new ModelGenerator(KEYS / 10, 0, 1, 0);
+        indexFile = Files.createTempFile("index", ".idx");
+        propertiesFile = Files.createTempFile("index", ".properties");
+        try (IndexWriter indexWriter = new IndexWriter(indexFile);
+             PropertiesWriter propertiesWriter = new PropertiesWriter(propertiesFile, PropertiesWriter.DEFAULT_ENCODING)) {
+            for (int type = 0; type < KEYS / 10; type++) {
+                for (int field = 0; field < 10; field++) {
+                    String key = "rest.description.type" + type + ".field" + field;
+                    String value = modelGenerator.comment(type, field % 3);
+                    keys.add(key);
+                    properties.setProperty(key, value);
+                    indexWriter.write(key, value);
+                    propertiesWriter.write(key, value);
+                }
+            }
+            indexWriter.commit();
+            propertiesWriter.commit();
+        }
+        indexReader = IndexReader.open(indexFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(indexFile);
+        Files.deleteIfExists(propertiesFile);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void propertiesGet(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(properties.getProperty(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void indexOf(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(indexReader.indexOf(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public void indexGet(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(indexReader.get(key));
+        }
+    }
+
+    @Benchmark
+    public IndexReader open() throws IOException {
+        return IndexReader.open(indexFile);
+    }
+
+    @Benchmark
+    public Properties load() throws IOException {
+        Properties loaded = new Properties();
+        try (InputStream in = Files.newInputStream(propertiesFile)) {
+            loaded.load(in);
+        }
+        return loaded;
+    }
+}
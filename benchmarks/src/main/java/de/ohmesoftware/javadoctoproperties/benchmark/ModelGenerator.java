@@ -0,0 +1,195 @@
+package de.ohmesoftware.javadoctoproperties.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic model sources.
+ * <p>
+ * The generated sources are deterministic: the same parameters always produce the same files, so outputs of the
+ * converters can be compared between runs.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class ModelGenerator {
+
+    /**
+     * The package containing all generated packages.
+     */
+    public static final String BASE_PACKAGE = "gen.model";
+
+    private static final int TYPES_PER_PACKAGE = 500;
+
+    private static final String[] WORDS = {"entity", "identifier", "customer", "order", "amount", "currency",
+            "timestamp", "reference", "status", "description", "address", "account", "invoice", "line", "total",
+            "version", "created", "modified", "owner", "category"};
+
+    private final int types;
+
+    private final int fields;
+
+    private final int paragraphs;
+
+    private final int hierarchyDepth;
+
+    /**
+     * Constructor.
+     *
+     * @param types          The number of types.
+     * @param fields         The number of fields per type.
+     * @param paragraphs     The number of HTML paragraphs per comment. Each paragraph contains markup, inline tags and
+     *                       entities.
+     * @param hierarchyDepth The depth of the class hierarchies. With 0 all types extend <code>Object</code>, otherwise
+     *                       each type extends the previous type of its package until the depth is reached.
+     */
+    public ModelGenerator(int types, int fields, int paragraphs, int hierarchyDepth) {
+        this.types = types;
+        this.fields = fields;
+        this.paragraphs = paragraphs;
+        this.hierarchyDepth = hierarchyDepth;
+    }
+
+    /**
+     * Generates the sources.
+     *
+     * @param sourceRoot The source root directory.
+     * @return the generated source files.
+     * @throws IOException if a file cannot be written.
+     */
+    public List<Path> generate(Path sourceRoot) throws IOException {
+        List<Path> sources = new ArrayList<>(types);
+        for (int type = 0; type < types; type++) {
+            String packageName = packageName(type);
+            Path directory = sourceRoot.resolve(packageName.replace('.', '/'));
+            Files.createDirectories(directory);
+            Path source = directory.resolve(typeName(type) + ".java");
+            try (BufferedWriter writer = Files.newBufferedWriter(source, StandardCharsets.UTF_8)) {
+                writeType(writer, type, packageName);
+            }
+            sources.add(source);
+        }
+        return sources;
+    }
+
+    /**
+     * Gets the qualified names of all types.
+     *
+     * @return the qualified names.
+     */
+    public List<String> qualifiedNames() {
+        List<String> names = new ArrayList<>(types);
+        for (int type = 0; type < types; type++) {
+            names.add(packageName(type) + "." + typeName(type));
+        }
+        return names;
+    }
+
+    /**
+     * Builds a comment text as returned by the Doclet API, i.e. without the leading asterisks.
+     *
+     * @param type  The type number.
+     * @param field The field number or <code>-1</code> for the type comment.
+     * @return the comment text.
+     */
+    public String comment(int type, int field) {
+        StringBuilder comment = new StringBuilder();
+        int seed = type * 31 + field;
+        comment.append("The ").append(word(seed)).append(' ').append(word(seed + 1)).append(" of the ")
+                .append(typeName(type)).append(".\n");
+        for (int paragraph = 0; paragraph < paragraphs; paragraph++) {
+            int s = seed + paragraph * 7;
+            comment.append("<p>\n    Describes the <code>").append(word(s + 2)).append("</code> and the {@link ")
+                    .append(typeName(type)).append("} &amp; {@code ").append(word(s + 3)).append(" < ")
+                    .append(word(s + 4)).append("}.\n    The <b>").append(word(s + 5)).append("</b> is ")
+                    .append("related to the ").append(word(s + 6)).append(" &lt;").append(word(s + 7))
+                    .append("&gt; of    the ").append(word(s + 8)).append(".\n</p>\n");
+        }
+        return comment.toString();
+    }
+
+    /**
+     * Deletes a generated source tree.
+     *
+     * @param directory The directory to delete.
+     * @throws IOException if a file cannot be deleted.
+     */
+    public static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private void writeType(BufferedWriter writer, int type, String packageName) throws IOException {
+        writer.write("package " + packageName + ";\n\n");
+        writeComment(writer, comment(type, -1), "");
+        writer.write("public class " + typeName(type));
+        int indexInPackage = type % TYPES_PER_PACKAGE;
+        if (hierarchyDepth > 0 && indexInPackage % (hierarchyDepth + 1) != 0) {
+            writer.write(" extends " + typeName(type - 1));
+        }
+        writer.write(" {\n\n");
+        for (int field = 0; field < fields; field++) {
+            writeComment(writer, comment(type, field), "    ");
+            writer.write("    private String " + fieldName(type, field) + ";\n\n");
+        }
+        writer.write("}\n");
+    }
+
+    private static void writeComment(BufferedWriter writer, String comment, String indent) throws IOException {
+        writer.write(indent + "/**\n");
+        for (String line : comment.split("\n")) {
+            writer.write(indent + " * " + line + "\n");
+        }
+        writer.write(indent + " */\n");
+    }
+
+    private static String packageName(int type) {
+        return BASE_PACKAGE + ".p" + type / TYPES_PER_PACKAGE;
+    }
+
+    private static String typeName(int type) {
+        return "Type" + type;
+    }
+
+    private static String fieldName(int type, int field) {
+        return word(type + field) + field;
+    }
+
+    private static String word(int seed) {
+        return WORDS[Math.floorMod(seed * 7919, WORDS.length)];
+    }
+
+    /**
+     * Generates the sources from the command line.
+     *
+     * @param args The source root directory, the number of types, the number of fields per type, the number of
+     *             paragraphs per comment and the hierarchy depth. Only the source root is mandatory.
+     * @throws IOException if a file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ModelGenerator <source root> [types] [fields] [paragraphs] [hierarchy depth]");
+            System.exit(1);
+        }
+        int types = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int fields = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int paragraphs = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        int hierarchyDepth = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        List<Path> sources = new ModelGenerator(types, fields, paragraphs, hierarchyDepth).generate(Path.of(args[0]));
+        System.out.println(String.format("Generated %d types in %s", sources.size(), args[0]));
+    }
+}
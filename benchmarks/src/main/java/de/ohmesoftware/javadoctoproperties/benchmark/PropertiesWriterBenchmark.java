@@ -0,0 +1,58 @@
+package de.ohmesoftware.javadoctoproperties.benchmark;
+
+import de.ohmesoftware.javadoctoproperties.PropertiesWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes generated entries to a properties file.
+ *
+ * @author Karsten Ohme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertiesWriterBenchmark {
+
+    private static final int ENTRIES = 100000;
+
+    @Param({"ISO-8859-1", "UTF-8"})
+    public String encoding;
+
+    private final List<String[]> entries = new ArrayList<>(ENTRIES);
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        for (int i = 0; i < ENTRIES; i++) {
+            entries.add(new String[]{"rest.description.type" + i / 10 + ".field" + i % 10,
+                    "Die Größe des Feldes " + i + " mit a=b und c:d, siehe \\Type" + i / 10 + "."});
+        }
+        file = Files.createTempFile("javadoctoproperties-benchmark", ".properties");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        try (PropertiesWriter propertiesWriter = new PropertiesWriter(file, PropertiesWriter.getEncoding(encoding))) {
+            for (String[] entry : entries) {
+                propertiesWriter.write(entry[0], entry[1]);
+            }
+            propertiesWriter.commit();
+        }
+    }
+}
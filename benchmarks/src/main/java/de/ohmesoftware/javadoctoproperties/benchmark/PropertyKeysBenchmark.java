@@ -0,0 +1,45 @@
+package de.ohmesoftware.javadoctoproperties.benchmark;
+
+import de.ohmesoftware.javadoctoproperties.PropertyKeys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the property names of types.
+ *
+ * @author Karsten Ohme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertyKeysBenchmark {
+
+    private final List<String> simpleNames = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (String qualifiedName : new ModelGenerator(10000, 0, 0, 0).qualifiedNames()) {
+            simpleNames.add(qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10000)
+    public void buildPropertyName(Blackhole blackhole) {
+        for (String simpleName : simpleNames) {
+            blackhole.consume(PropertyKeys.buildPropertyName(simpleName));
+        }
+    }
+
+    @Benchmark
+    public String buildPrefix() {
+        return PropertyKeys.buildPrefix("rest.description");
+    }
+}
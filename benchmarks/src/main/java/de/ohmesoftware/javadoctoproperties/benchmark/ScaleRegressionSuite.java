@@ -0,0 +1,333 @@
+package de.ohmesoftware.javadoctoproperties.benchmark;
+
+import de.ohmesoftware.javadoctoproperties.Converter9;
+
+import javax.tools.DocumentationTool;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scale regression suite running both doclets over large generated models under fixed heap and time budgets.
+ * <p>
+ * Each scenario generates a model with the {@link ModelGenerator} and runs the doclet in-process in a forked JVM with
+ * the <code>-Xmx</code> budget of the scenario. A scenario fails if the JVM runs out of memory, exceeds the wall-clock
+ * limit or the SHA-256 hash of the output differs from the golden hash. So a reintroduced buffering of the whole output
+ * or a compilation per element fails the build.
+ * </p>
+ * <p>
+ * The Java 8 doclet <code>Converter</code> needs the <code>com.sun.javadoc</code> API removed in JDK 13, its scenarios
+ * only run on Java 11 and 12 and are skipped on newer runtimes.
+ * </p>
+ * Usage:
+ * <pre>
+ * java -cp target/benchmarks.jar de.ohmesoftware.javadoctoproperties.benchmark.ScaleRegressionSuite
+ *     -golden scale-golden.properties [-scenarios converter9-10k,converter9-200k] [-record]
+ * </pre>
+ * <p>
+ * With <code>-record</code> the hashes of the successful scenarios are written to the golden file instead of being
+ * compared, e.g. after an intended change of the output.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class ScaleRegressionSuite {
+
+    private static final String GOLDEN_OPTION = "-golden";
+    private static final String SCENARIOS_OPTION = "-scenarios";
+    private static final String RECORD_OPTION = "-record";
+    private static final String RUN_OPTION = "-run";
+    private static final String CONVERTER = "Converter";
+    private static final String CONVERTER9 = "Converter9";
+    private static final String LEGACY_JAVADOC = "com.sun.tools.javadoc.Main";
+    private static final String OUTPUT_FILE = "javadoc.properties";
+
+    /**
+     * All scenarios by name. The heap budgets are a bit above the smallest heap running without excessive garbage
+     * collection, the time limits leave room for slower machines.
+     */
+    static final Map<String, Scenario> SCENARIOS = new LinkedHashMap<>();
+
+    static {
+        add(new Scenario("converter9-10k", CONVERTER9, 10_000, 10, 1, 0, 1024, 120));
+        add(new Scenario("converter9-long-comments", CONVERTER9, 2_000, 1, 50, 0, 1280, 120));
+        add(new Scenario("converter9-hierarchy", CONVERTER9, 10_000, 10, 1, 9, 1024, 120));
+        add(new Scenario("converter9-200k", CONVERTER9, 200_000, 1, 1, 0, 3584, 600));
+        add(new Scenario("converter-10k", CONVERTER, 10_000, 10, 1, 0, 1024, 120));
+        add(new Scenario("converter-long-comments", CONVERTER, 2_000, 1, 50, 0, 1280, 120));
+    }
+
+    private static void add(Scenario scenario) {
+        SCENARIOS.put(scenario.name, scenario);
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args The options.
+     * @throws Exception if the suite cannot be run.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 4 && args[0].equals(RUN_OPTION)) {
+            System.exit(runDoclet(SCENARIOS.get(args[1]), Paths.get(args[2]), Paths.get(args[3])) ? 0 : 1);
+        }
+        Path goldenFile = null;
+        List<String> scenarioNames = new ArrayList<>(SCENARIOS.keySet());
+        boolean record = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case GOLDEN_OPTION:
+                    goldenFile = Paths.get(args[++i]);
+                    break;
+                case SCENARIOS_OPTION:
+                    scenarioNames = Arrays.asList(args[++i].split(","));
+                    break;
+                case RECORD_OPTION:
+                    record = true;
+                    break;
+                default:
+                    usage(String.format("Unknown option: %s", args[i]));
+            }
+        }
+        if (goldenFile == null) {
+            usage(String.format("%s option is required.", GOLDEN_OPTION));
+        }
+        for (String scenarioName : scenarioNames) {
+            if (!SCENARIOS.containsKey(scenarioName)) {
+                usage(String.format("Unknown scenario: %s, supported are %s", scenarioName, String.join(",", SCENARIOS.keySet())));
+            }
+        }
+        System.exit(new ScaleRegressionSuite().run(goldenFile, scenarioNames, record) ? 0 : 1);
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: ScaleRegressionSuite -golden <file> [-scenarios <name>,...] [-record]");
+        System.exit(1);
+    }
+
+    /**
+     * Runs the scenarios.
+     *
+     * @param goldenFile    The file with the golden hashes.
+     * @param scenarioNames The names of the scenarios to run.
+     * @param record        <code>true</code> to record the hashes instead of comparing them.
+     * @return <code>true</code> if no scenario failed.
+     * @throws IOException if the model or the golden file cannot be written.
+     * @throws InterruptedException if interrupted while waiting for a forked JVM.
+     */
+    public boolean run(Path goldenFile, List<String> scenarioNames, boolean record) throws IOException, InterruptedException {
+        Map<String, String> goldenHashes = loadGoldenHashes(goldenFile);
+        boolean legacyJavadoc = isLegacyJavadocAvailable();
+        int failures = 0;
+        int skipped = 0;
+        for (String scenarioName : scenarioNames) {
+            Scenario scenario = SCENARIOS.get(scenarioName);
+            if (scenario.doclet.equals(CONVERTER) && !legacyJavadoc) {
+                System.out.println(String.format("SKIPPED %s: the com.sun.javadoc API is not available in Java %s",
+                        scenario.name, System.getProperty("java.specification.version")));
+                skipped++;
+                continue;
+            }
+            Path directory = Files.createTempDirectory("javadoctoproperties-scale");
+            try {
+                String failure = runScenario(scenario, directory, goldenHashes, record);
+                if (failure != null) {
+                    failures++;
+                    System.out.println(String.format("FAILED %s: %s", scenario.name, failure));
+                }
+            } finally {
+                ModelGenerator.delete(directory);
+            }
+        }
+        if (record) {
+            saveGoldenHashes(goldenFile, goldenHashes);
+            System.out.println(String.format("Recorded golden hashes in %s", goldenFile));
+        }
+        System.out.println(String.format("%d of %d scenarios failed, %d skipped", failures, scenarioNames.size(), skipped));
+        return failures == 0;
+    }
+
+    /**
+     * Runs a scenario in a forked JVM.
+     *
+     * @return the failure or <code>null</code> if successful.
+     */
+    private String runScenario(Scenario scenario, Path directory, Map<String, String> goldenHashes, boolean record)
+            throws IOException, InterruptedException {
+        Path sourceRoot = directory.resolve("src");
+        Path output = directory.resolve(OUTPUT_FILE);
+        new ModelGenerator(scenario.types, scenario.fields, scenario.paragraphs, scenario.hierarchyDepth).generate(sourceRoot);
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add(String.format("-Xmx%dm", scenario.maxHeapMegabytes));
+        command.add("-XX:+ExitOnOutOfMemoryError");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ScaleRegressionSuite.class.getName());
+        command.add(RUN_OPTION);
+        command.add(scenario.name);
+        command.add(sourceRoot.toString());
+        command.add(output.toString());
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        if (!process.waitFor(scenario.timeLimitSeconds, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+            return String.format("exceeded the time limit of %d s", scenario.timeLimitSeconds);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (process.exitValue() != 0) {
+            return String.format("exit code %d after %d ms with -Xmx%dm", process.exitValue(), millis, scenario.maxHeapMegabytes);
+        }
+        String hash = hash(output);
+        if (record) {
+            goldenHashes.put(scenario.name, hash);
+        } else if (!goldenHashes.containsKey(scenario.name)) {
+            return String.format("no golden hash, record it with %s", RECORD_OPTION);
+        } else if (!hash.equals(goldenHashes.get(scenario.name))) {
+            return String.format("output hash %s differs from golden hash %s", hash, goldenHashes.get(scenario.name));
+        }
+        System.out.println(String.format("PASSED %s in %d ms with -Xmx%dm", scenario.name, millis, scenario.maxHeapMegabytes));
+        return null;
+    }
+
+    /**
+     * Runs the doclet of a scenario in the current JVM.
+     */
+    private static boolean runDoclet(Scenario scenario, Path sourceRoot, Path output) throws Exception {
+        List<String> options = List.of("-quiet", "-encoding", StandardCharsets.UTF_8.name(), "-sourcepath", sourceRoot.toString(),
+                "-subpackages", ModelGenerator.BASE_PACKAGE, "-output", output.toString());
+        if (scenario.doclet.equals(CONVERTER)) {
+            List<String> args = new ArrayList<>(options);
+            args.add(0, "-doclet");
+            args.add(1, "de.ohmesoftware.javadoctoproperties.Converter");
+            // the removed API is not available at compile time
+            Method execute = Class.forName(LEGACY_JAVADOC).getMethod("execute", String.class, String[].class);
+            return (Integer) execute.invoke(null, "javadoc", args.toArray(new String[0])) == 0;
+        }
+        DocumentationTool documentationTool = ToolProvider.getSystemDocumentationTool();
+        try (StandardJavaFileManager fileManager = documentationTool.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            return documentationTool.getTask(null, fileManager, null, Converter9.class, options, null).call();
+        }
+    }
+
+    private static boolean isLegacyJavadocAvailable() {
+        try {
+            Class.forName(LEGACY_JAVADOC);
+            Class.forName("com.sun.javadoc.Doclet");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Hashes a file ignoring carriage returns, so the line separator of the platform does not matter.
+     */
+    static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[65536];
+        try (InputStream in = Files.newInputStream(file)) {
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                for (int i = 0; i < length; i++) {
+                    if (buffer[i] != '\r') {
+                        digest.update(buffer[i]);
+                    }
+                }
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static Map<String, String> loadGoldenHashes(Path goldenFile) throws IOException {
+        Map<String, String> goldenHashes = new TreeMap<>();
+        if (Files.isRegularFile(goldenFile)) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(goldenFile)) {
+                properties.load(in);
+            }
+            for (String name : properties.stringPropertyNames()) {
+                goldenHashes.put(name, properties.getProperty(name));
+            }
+        }
+        return goldenHashes;
+    }
+
+    private static void saveGoldenHashes(Path goldenFile, Map<String, String> goldenHashes) throws IOException {
+        Path directory = goldenFile.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(goldenFile, StandardCharsets.ISO_8859_1)) {
+            writer.write("# SHA-256 hashes of the outputs of the ScaleRegressionSuite scenarios, carriage returns ignored.");
+            writer.newLine();
+            writer.write("# Recorded with -record, the Converter scenarios need a Java 11 or 12 runtime.");
+            writer.newLine();
+            for (Map.Entry<String, String> goldenHash : goldenHashes.entrySet()) {
+                writer.write(goldenHash.getKey() + "=" + goldenHash.getValue());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * A generated model, the doclet and the budgets.
+     */
+    static class Scenario {
+
+        private final String name;
+
+        private final String doclet;
+
+        private final int types;
+
+        private final int fields;
+
+        private final int paragraphs;
+
+        private final int hierarchyDepth;
+
+        private final int maxHeapMegabytes;
+
+        private final int timeLimitSeconds;
+
+        Scenario(String name, String doclet, int types, int fields, int paragraphs, int hierarchyDepth,
+                 int maxHeapMegabytes, int timeLimitSeconds) {
+            this.name = name;
+            this.doclet = doclet;
+            this.types = types;
+            this.fields = fields;
+            this.paragraphs = paragraphs;
+            this.hierarchyDepth = hierarchyDepth;
+            this.maxHeapMegabytes = maxHeapMegabytes;
+            this.timeLimitSeconds = timeLimitSeconds;
+        }
+    }
+}
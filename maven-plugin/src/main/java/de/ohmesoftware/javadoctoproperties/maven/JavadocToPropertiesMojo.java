@@ -0,0 +1,443 @@
+package de.ohmesoftware.javadoctoproperties.maven;
+
+import de.ohmesoftware.javadoctoproperties.Converter9;
+import de.ohmesoftware.javadoctoproperties.FingerprintCache;
+import de.ohmesoftware.javadoctoproperties.ShardedPropertiesWriter;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticListener;
+import javax.tools.DocumentationTool;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates the properties file from the Javadocs by running the {@link Converter9} doclet in-process.
+ * <p>
+ * The run is skipped if the options and the contents of the source files are the same as for the last run and the
+ * output still exists.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+        requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = true)
+public class JavadocToPropertiesMojo extends AbstractMojo {
+
+    private static final String JAVA_SUFFIX = ".java";
+
+    /**
+     * The source directories. Default: the compile source roots of the project.
+     */
+    @Parameter
+    private List<File> sourceDirectories;
+
+    @Parameter(defaultValue = "${project.compileSourceRoots}", readonly = true, required = true)
+    private List<String> compileSourceRoots;
+
+    @Parameter(defaultValue = "${project.compileClasspathElements}", readonly = true, required = true)
+    private List<String> classpathElements;
+
+    /**
+     * The properties file.
+     */
+    @Parameter(property = "javadoctoproperties.output", defaultValue = "${project.build.outputDirectory}/javadoc.properties")
+    private File output;
+
+    /**
+     * Additionally writes the entries as JSON object to this file.
+     */
+    @Parameter(property = "javadoctoproperties.jsonOutput")
+    private File jsonOutput;
+
+    /**
+     * Additionally writes the entries as YAML mapping to this file.
+     */
+    @Parameter(property = "javadoctoproperties.yamlOutput")
+    private File yamlOutput;
+
+    /**
+     * Additionally writes the entries as binary index to this file.
+     */
+    @Parameter(property = "javadoctoproperties.indexOutput")
+    private File indexOutput;
+
+    /**
+     * Splits the properties file by <code>package</code>, <code>package:&lt;depth&gt;</code> or
+     * <code>hash:&lt;buckets&gt;</code>.
+     */
+    @Parameter(property = "javadoctoproperties.shards")
+    private String shards;
+
+    /**
+     * Additionally generates the source of a <code>ListResourceBundle</code> with this qualified class name.
+     */
+    @Parameter(property = "javadoctoproperties.bundleClass")
+    private String bundleClass;
+
+    /**
+     * The source directory of the generated resource bundle.
+     */
+    @Parameter(property = "javadoctoproperties.bundleDirectory", defaultValue = "${project.build.directory}/generated-sources/javadoctoproperties")
+    private File bundleDirectory;
+
+    /**
+     * Merges the entries into this hand-maintained properties file and writes the result sorted to the output. It may
+     * be the output itself.
+     */
+    @Parameter(property = "javadoctoproperties.merge")
+    private File merge;
+
+    /**
+     * The value kept for keys contained in the merged file, <code>generated</code> or <code>manual</code>.
+     */
+    @Parameter(property = "javadoctoproperties.mergePolicy", defaultValue = "manual")
+    private String mergePolicy;
+
+    /**
+     * Writes the run metrics as JSON to this file.
+     */
+    @Parameter(property = "javadoctoproperties.metrics")
+    private File metrics;
+
+    /**
+     * The amount of output, <code>quiet</code>, <code>normal</code> or <code>verbose</code>.
+     */
+    @Parameter(property = "javadoctoproperties.verbosity", defaultValue = "normal")
+    private String verbosity;
+
+    /**
+     * Writes each included class and missing comment to this file.
+     */
+    @Parameter(property = "javadoctoproperties.diagnostics")
+    private File diagnostics;
+
+    /**
+     * The property prefix used for all keys.
+     */
+    @Parameter(property = "javadoctoproperties.prefix", defaultValue = "")
+    private String prefix;
+
+    /**
+     * The included classes as globs, e.g. <code>*model*</code>. Default: all classes.
+     */
+    @Parameter
+    private List<String> includes;
+
+    /**
+     * The excluded classes as globs.
+     */
+    @Parameter
+    private List<String> excludes;
+
+    /**
+     * The rules selecting the classes by annotations and modifiers, e.g. <code>@Entity|@MappedSuperclass</code>.
+     * Default: all classes.
+     */
+    @Parameter(property = "javadoctoproperties.typeSelection")
+    private String typeSelection;
+
+    /**
+     * The rules selecting the fields and getters by annotations and modifiers, e.g.
+     * <code>!@JsonIgnore:!transient:!static</code>. Default: all members.
+     */
+    @Parameter(property = "javadoctoproperties.memberSelection")
+    private String memberSelection;
+
+    /**
+     * The encoding of the output file, ISO-8859-1 or UTF-8.
+     */
+    @Parameter(property = "javadoctoproperties.outputEncoding", defaultValue = "ISO-8859-1")
+    private String outputEncoding;
+
+    /**
+     * The encoding of the source files.
+     */
+    @Parameter(property = "javadoctoproperties.encoding", defaultValue = "${project.build.sourceEncoding}")
+    private String encoding;
+
+    /**
+     * The number of threads used for rendering the comments. 0 uses all processors.
+     */
+    @Parameter(property = "javadoctoproperties.threads", defaultValue = "1")
+    private int threads;
+
+    /**
+     * The cache file of the doclet's incremental mode. Only the changed types are rendered again.
+     */
+    @Parameter(property = "javadoctoproperties.cache")
+    private File cache;
+
+    /**
+     * The file recording the state of the last run for the up-to-date check.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/javadoctoproperties/${mojoExecution.executionId}.state")
+    private File stateFile;
+
+    /**
+     * Runs the doclet even if the sources have not changed.
+     */
+    @Parameter(property = "javadoctoproperties.force", defaultValue = "false")
+    private boolean force;
+
+    /**
+     * Skips the execution.
+     */
+    @Parameter(property = "javadoctoproperties.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Skipping execution.");
+            return;
+        }
+        List<Path> sourceFiles;
+        try {
+            sourceFiles = findSourceFiles();
+        } catch (IOException e) {
+            throw new MojoExecutionException(String.format("Could not read source directories: %s", e.getMessage()), e);
+        }
+        if (sourceFiles.isEmpty()) {
+            getLog().info("No source files found.");
+            return;
+        }
+        List<String> options = buildOptions();
+        SourceState currentState;
+        try {
+            SourceState previousState = force ? null : SourceState.load(stateFile.toPath());
+            currentState = SourceState.collect(fingerprint(options), getInputFiles(sourceFiles), previousState);
+            if (!force && outputsExist() && currentState.isUpToDate(previousState)) {
+                getLog().info(String.format("%s is up to date.", output));
+                // records new modification times of touched but unchanged files
+                currentState.save(stateFile.toPath());
+                return;
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException(String.format("Could not check source files: %s", e.getMessage()), e);
+        }
+        runDoclet(options, sourceFiles);
+        try {
+            if (merge != null) {
+                // the merged file can be the output
+                currentState = SourceState.collect(fingerprint(options), getInputFiles(sourceFiles), currentState);
+            }
+            currentState.save(stateFile.toPath());
+        } catch (IOException e) {
+            getLog().warn(String.format("Could not write state file: %s", e.getMessage()));
+        }
+        getLog().info(String.format("Generated %s from %d source files.", output, sourceFiles.size()));
+    }
+
+    private void runDoclet(List<String> options, List<Path> sourceFiles) throws MojoExecutionException, MojoFailureException {
+        DocumentationTool documentationTool = ToolProvider.getSystemDocumentationTool();
+        if (documentationTool == null) {
+            throw new MojoExecutionException("No documentation tool available, Maven must be run with a JDK.");
+        }
+        List<File> files = getOutputs();
+        if (metrics != null) {
+            files.add(metrics);
+        }
+        if (diagnostics != null) {
+            files.add(diagnostics);
+        }
+        for (File file : files) {
+            File outputDirectory = file.getAbsoluteFile().getParentFile();
+            if (outputDirectory != null && !outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+                throw new MojoExecutionException(String.format("Could not create directory %s", outputDirectory));
+            }
+        }
+        Charset sourceEncoding = encoding != null ? Charset.forName(encoding) : null;
+        DiagnosticListener<JavaFileObject> diagnosticListener = diagnostic -> {
+            String message = diagnostic.getMessage(null);
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                getLog().error(message);
+            } else if (diagnostic.getKind() == Diagnostic.Kind.WARNING
+                    || diagnostic.getKind() == Diagnostic.Kind.MANDATORY_WARNING) {
+                getLog().warn(message);
+            } else {
+                getLog().debug(message);
+            }
+        };
+        try (StandardJavaFileManager fileManager = documentationTool.getStandardFileManager(diagnosticListener, null, sourceEncoding)) {
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromPaths(sourceFiles);
+            Boolean success = documentationTool.getTask(null, fileManager, diagnosticListener, Converter9.class,
+                    options, compilationUnits).call();
+            if (!Boolean.TRUE.equals(success)) {
+                throw new MojoFailureException("The Javadoc to Properties doclet failed, see the errors above.");
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException(String.format("Could not close file manager: %s", e.getMessage()), e);
+        }
+    }
+
+    private List<String> buildOptions() {
+        List<String> options = new ArrayList<>();
+        options.add("-quiet");
+        if (!classpathElements.isEmpty()) {
+            options.add("-classpath");
+            options.add(String.join(File.pathSeparator, classpathElements));
+        }
+        if (encoding != null) {
+            options.add("-encoding");
+            options.add(encoding);
+        }
+        options.add("-output");
+        options.add(output.getAbsolutePath());
+        if (shards != null) {
+            options.add("-shards");
+            options.add(shards);
+        }
+        if (jsonOutput != null) {
+            options.add("-json");
+            options.add(jsonOutput.getAbsolutePath());
+        }
+        if (yamlOutput != null) {
+            options.add("-yaml");
+            options.add(yamlOutput.getAbsolutePath());
+        }
+        if (indexOutput != null) {
+            options.add("-index");
+            options.add(indexOutput.getAbsolutePath());
+        }
+        if (prefix != null && !prefix.isEmpty()) {
+            options.add("-prefix");
+            options.add(prefix);
+        }
+        if (includes != null && !includes.isEmpty()) {
+            options.add("-includes");
+            options.add(String.join(":", includes));
+        }
+        if (excludes != null && !excludes.isEmpty()) {
+            options.add("-excludes");
+            options.add(String.join(":", excludes));
+        }
+        if (typeSelection != null && !typeSelection.isEmpty()) {
+            options.add("-typeselection");
+            options.add(typeSelection);
+        }
+        if (memberSelection != null && !memberSelection.isEmpty()) {
+            options.add("-memberselection");
+            options.add(memberSelection);
+        }
+        options.add("-outputencoding");
+        options.add(outputEncoding);
+        options.add("-threads");
+        options.add(Integer.toString(threads));
+        if (cache != null) {
+            options.add("-cache");
+            options.add(cache.getAbsolutePath());
+        }
+        if (bundleClass != null && !bundleClass.isEmpty()) {
+            options.add("-bundleclass");
+            options.add(bundleClass);
+            options.add("-bundledir");
+            options.add(bundleDirectory.getAbsolutePath());
+        }
+        if (merge != null) {
+            options.add("-merge");
+            options.add(merge.getAbsolutePath());
+            options.add("-mergepolicy");
+            options.add(mergePolicy);
+        }
+        if (metrics != null) {
+            options.add("-metrics");
+            options.add(metrics.getAbsolutePath());
+        }
+        options.add("-verbosity");
+        options.add(verbosity);
+        if (diagnostics != null) {
+            options.add("-diagnostics");
+            options.add(diagnostics.getAbsolutePath());
+        }
+        return options;
+    }
+
+    /**
+     * Gets the files the output is generated from: the source files and the merged file if it exists.
+     */
+    private List<Path> getInputFiles(List<Path> sourceFiles) {
+        if (merge == null || !merge.isFile()) {
+            return sourceFiles;
+        }
+        List<Path> inputFiles = new ArrayList<>(sourceFiles);
+        inputFiles.add(merge.toPath());
+        return inputFiles;
+    }
+
+    private List<File> getOutputs() {
+        List<File> outputs = new ArrayList<>();
+        outputs.add(shards != null ? ShardedPropertiesWriter.getManifestFile(output.toPath()).toFile() : output);
+        if (jsonOutput != null) {
+            outputs.add(jsonOutput);
+        }
+        if (yamlOutput != null) {
+            outputs.add(yamlOutput);
+        }
+        if (indexOutput != null) {
+            outputs.add(indexOutput);
+        }
+        if (bundleClass != null && !bundleClass.isEmpty()) {
+            outputs.add(new File(bundleDirectory, bundleClass.replace('.', '/') + ".java"));
+        }
+        return outputs;
+    }
+
+    private boolean outputsExist() {
+        return getOutputs().stream().allMatch(File::isFile);
+    }
+
+    private String fingerprint(List<String> options) {
+        FingerprintCache.Fingerprint fingerprint = new FingerprintCache.Fingerprint();
+        // the classpath, the thread count and the reports do not change the output
+        for (int i = 0; i < options.size(); i++) {
+            String option = options.get(i);
+            if (option.equals("-classpath") || option.equals("-threads") || option.equals("-metrics")
+                    || option.equals("-verbosity") || option.equals("-diagnostics")) {
+                i++;
+            } else {
+                fingerprint.add(option);
+            }
+        }
+        return fingerprint.build();
+    }
+
+    private List<Path> findSourceFiles() throws IOException {
+        List<Path> directories = new ArrayList<>();
+        if (sourceDirectories != null && !sourceDirectories.isEmpty()) {
+            sourceDirectories.forEach(directory -> directories.add(directory.toPath()));
+        } else {
+            compileSourceRoots.forEach(directory -> directories.add(new File(directory).toPath()));
+        }
+        List<Path> sourceFiles = new ArrayList<>();
+        for (Path directory : directories) {
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+            try (Stream<Path> paths = Files.walk(directory)) {
+                // skips package-info.java and module-info.java
+                sourceFiles.addAll(paths.filter(p -> p.getFileName().toString().endsWith(JAVA_SUFFIX)
+                        && !p.getFileName().toString().contains("-") && Files.isRegularFile(p))
+                        .sorted()
+                        .collect(Collectors.toList()));
+            }
+        }
+        return sourceFiles;
+    }
+}
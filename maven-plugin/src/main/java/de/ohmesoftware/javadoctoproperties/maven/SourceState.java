@@ -0,0 +1,175 @@
+package de.ohmesoftware.javadoctoproperties.maven;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The state of the input files and options of the last successful run. The input files are the source files and a
+ * merged properties file.
+ * <p>
+ * An input file is only hashed if its modification time or size differs from the recorded state, so an unchanged
+ * tree is checked without reading any file. A touched file with the same content still counts as unchanged.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class SourceState {
+
+    private static final int MAGIC = 0x4A445053;
+
+    private static final int VERSION = 1;
+
+    private static final String DIGEST_ALGORITHM = "MD5";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String optionsFingerprint;
+
+    private final Map<String, SourceFile> sourceFiles = new LinkedHashMap<>();
+
+    private SourceState(String optionsFingerprint) {
+        this.optionsFingerprint = optionsFingerprint;
+    }
+
+    /**
+     * Loads the state.
+     *
+     * @param file The state file.
+     * @return the state or <code>null</code> if the file does not exist or was written by another version.
+     * @throws IOException if the file cannot be read.
+     */
+    public static SourceState load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            SourceState state = new SourceState(in.readUTF());
+            int fileCount = in.readInt();
+            for (int i = 0; i < fileCount; i++) {
+                String path = in.readUTF();
+                state.sourceFiles.put(path, new SourceFile(in.readLong(), in.readLong(), in.readUTF()));
+            }
+            return state;
+        } catch (NoSuchFileException e) {
+            // first run
+            return null;
+        }
+    }
+
+    /**
+     * Collects the current state. Content hashes of files unchanged in modification time and size are taken from the
+     * previous state.
+     *
+     * @param optionsFingerprint The fingerprint of the options influencing the output.
+     * @param files              The input files.
+     * @param previous           The previous state or <code>null</code>.
+     * @return the current state.
+     * @throws IOException if a file cannot be read.
+     */
+    public static SourceState collect(String optionsFingerprint, List<Path> files, SourceState previous) throws IOException {
+        SourceState state = new SourceState(optionsFingerprint);
+        for (Path file : files) {
+            String path = file.toAbsolutePath().toString();
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            long size = attributes.size();
+            SourceFile previousFile = previous != null ? previous.sourceFiles.get(path) : null;
+            String hash = previousFile != null && previousFile.lastModified == lastModified && previousFile.size == size
+                    ? previousFile.hash : hash(file);
+            state.sourceFiles.put(path, new SourceFile(lastModified, size, hash));
+        }
+        return state;
+    }
+
+    /**
+     * Saves the state.
+     *
+     * @param file The state file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(optionsFingerprint);
+            out.writeInt(sourceFiles.size());
+            for (Map.Entry<String, SourceFile> sourceFile : sourceFiles.entrySet()) {
+                out.writeUTF(sourceFile.getKey());
+                out.writeLong(sourceFile.getValue().lastModified);
+                out.writeLong(sourceFile.getValue().size);
+                out.writeUTF(sourceFile.getValue().hash);
+            }
+        }
+    }
+
+    /**
+     * Checks if the output generated from the other state is still valid for this state.
+     *
+     * @param other The other state. Can be <code>null</code>.
+     * @return <code>true</code> if the options and the set of files with their contents are the same.
+     */
+    public boolean isUpToDate(SourceState other) {
+        if (other == null || !optionsFingerprint.equals(other.optionsFingerprint)
+                || sourceFiles.size() != other.sourceFiles.size()) {
+            return false;
+        }
+        for (Map.Entry<String, SourceFile> sourceFile : sourceFiles.entrySet()) {
+            SourceFile otherFile = other.sourceFiles.get(sourceFile.getKey());
+            if (otherFile == null || !Objects.equals(sourceFile.getValue().hash, otherFile.hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static class SourceFile {
+
+        private final long lastModified;
+
+        private final long size;
+
+        private final String hash;
+
+        private SourceFile(long lastModified, long size, String hash) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import com.sun.javadoc.AnnotationDesc;
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.FieldDoc;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.ProgramElementDoc;
+import com.sun.javadoc.Type;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the members of a class stored as properties by the Java 8 doclet {@link Converter}.
+ * <p>
+ * These are the enum constants, the fields and the getters. A getter is only stored if there is no documented field
+ * of the same property. Inherited fields and getters of the superclasses are added if they are documented. A getter
+ * without comment or with <code>{@literal {@inheritDoc}}</code> gets the comment of the overridden method. The members
+ * of the superclasses and the comments of the overridden methods are rendered once and memoized, so the rendering cost
+ * does not grow with the number of subclasses.
+ * </p>
+ * <p>
+ * Members not matching the member selection rules are skipped before their comments are read.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+class ClassMembers {
+
+    private static final String INHERIT_DOC = "{@inheritDoc}";
+    private static final String VOID = "void";
+    private static final String BOOLEAN = "boolean";
+    private static final String EMPTY = "";
+
+    private final CommentNormalizer commentNormalizer;
+
+    private final SelectionRules memberSelection;
+
+    private final Map<String, List<Member>> inheritedMembers = new HashMap<>();
+
+    private final Map<String, String> inheritedComments = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param commentNormalizer The normalizer rendering the comments.
+     * @param memberSelection   The rules selecting the members or <code>null</code> to select all members.
+     */
+    ClassMembers(CommentNormalizer commentNormalizer, SelectionRules memberSelection) {
+        this.commentNormalizer = commentNormalizer;
+        this.memberSelection = memberSelection;
+    }
+
+    /**
+     * Checks the selection rules against the modifiers and annotations of a class or member.
+     *
+     * @param selection The rules or <code>null</code> to select all.
+     * @param doc       The class or member.
+     * @return <code>true</code> if selected.
+     */
+    static boolean selects(SelectionRules selection, ProgramElementDoc doc) {
+        if (selection == null) {
+            return true;
+        }
+        List<String> annotationNames = Collections.emptyList();
+        if (selection.needsAnnotations()) {
+            annotationNames = new ArrayList<>();
+            for (AnnotationDesc annotationDesc : doc.annotations()) {
+                annotationNames.add(annotationDesc.annotationType().qualifiedTypeName());
+            }
+        }
+        return selection.matches(doc.modifierSpecifier(), annotationNames);
+    }
+
+    /**
+     * Collects the declared and the inherited members of a class.
+     *
+     * @param classDoc The class.
+     * @return the members, the declared members first.
+     */
+    List<Member> collect(ClassDoc classDoc) {
+        List<Member> declaredMembers = inheritedMembers.get(classDoc.qualifiedTypeName());
+        List<Member> members = new ArrayList<>(declaredMembers != null ? declaredMembers : renderMembers(classDoc));
+        Set<String> names = new HashSet<>();
+        for (Member member : members) {
+            names.add(member.getName());
+        }
+        for (ClassDoc superclass = classDoc.superclass(); superclass != null; superclass = superclass.superclass()) {
+            for (Member member : getInheritedMembers(superclass)) {
+                // hidden and overridden members are stored from the subclass
+                if (member.isDocumented() && member.inheritable && names.add(member.getName())) {
+                    members.add(member);
+                }
+            }
+        }
+        return members;
+    }
+
+    private List<Member> getInheritedMembers(ClassDoc superclass) {
+        return inheritedMembers.computeIfAbsent(superclass.qualifiedTypeName(), name -> renderMembers(superclass));
+    }
+
+    private List<Member> renderMembers(ClassDoc classDoc) {
+        Map<String, Member> members = new LinkedHashMap<>();
+        for (FieldDoc enumConstant : classDoc.enumConstants()) {
+            if (!selects(memberSelection, enumConstant)) {
+                continue;
+            }
+            members.putIfAbsent(enumConstant.name(), new Member(enumConstant.name(), render(enumConstant.commentText()), false));
+        }
+        for (FieldDoc fieldDoc : classDoc.fields()) {
+            if (!selects(memberSelection, fieldDoc)) {
+                continue;
+            }
+            members.putIfAbsent(fieldDoc.name(), new Member(fieldDoc.name(), render(fieldDoc.commentText()), !fieldDoc.isStatic()));
+        }
+        for (MethodDoc methodDoc : classDoc.methods()) {
+            String name = getGetterPropertyName(methodDoc);
+            if (name == null || !selects(memberSelection, methodDoc)) {
+                continue;
+            }
+            Member field = members.get(name);
+            if (field == null || !field.isDocumented()) {
+                String comment = render(getComment(methodDoc));
+                if (field == null || comment != null) {
+                    members.put(name, new Member(name, comment, true));
+                }
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(members.values()));
+    }
+
+    private static String getGetterPropertyName(MethodDoc methodDoc) {
+        Type returnType = methodDoc.returnType();
+        if (methodDoc.isStatic() || methodDoc.parameters().length > 0 || (returnType.isPrimitive() && VOID.equals(returnType.typeName()))) {
+            return null;
+        }
+        return PropertyKeys.getGetterPropertyName(methodDoc.name(), returnType.isPrimitive() && BOOLEAN.equals(returnType.typeName())
+                && returnType.dimension().isEmpty());
+    }
+
+    /**
+     * Gets the raw comment of a method. A missing comment and <code>{@literal {@inheritDoc}}</code> are replaced by the
+     * comment of the overridden method.
+     */
+    private String getComment(MethodDoc methodDoc) {
+        String comment = methodDoc.commentText();
+        if (!comment.isEmpty() && !comment.contains(INHERIT_DOC)) {
+            return comment;
+        }
+        MethodDoc overridden = findOverriddenMethod(methodDoc);
+        String inheritedComment = overridden != null ? getInheritedComment(overridden) : EMPTY;
+        return comment.isEmpty() ? inheritedComment : comment.replace(INHERIT_DOC, inheritedComment);
+    }
+
+    private String getInheritedComment(MethodDoc methodDoc) {
+        String key = methodDoc.qualifiedName();
+        String comment = inheritedComments.get(key);
+        if (comment == null) {
+            comment = getComment(methodDoc);
+            inheritedComments.put(key, comment);
+        }
+        return comment;
+    }
+
+    /**
+     * Finds the method of the nearest superclass or interface with the same name. Getters have no parameters.
+     */
+    private static MethodDoc findOverriddenMethod(MethodDoc methodDoc) {
+        Set<ClassDoc> supertypes = new LinkedHashSet<>();
+        Deque<ClassDoc> pending = new ArrayDeque<>();
+        pending.add(methodDoc.containingClass());
+        while (!pending.isEmpty()) {
+            ClassDoc type = pending.poll();
+            if (!supertypes.add(type)) {
+                continue;
+            }
+            if (type != methodDoc.containingClass()) {
+                for (MethodDoc candidate : type.methods(false)) {
+                    if (candidate.name().equals(methodDoc.name()) && candidate.parameters().length == 0) {
+                        return candidate;
+                    }
+                }
+            }
+            if (type.superclass() != null) {
+                pending.add(type.superclass());
+            }
+            Collections.addAll(pending, type.interfaces());
+        }
+        return null;
+    }
+
+    private String render(String comment) {
+        return comment.isEmpty() ? null : commentNormalizer.normalize(comment);
+    }
+
+    /**
+     * A rendered member.
+     */
+    static class Member {
+
+        private final String name;
+
+        private final String comment;
+
+        private final boolean inheritable;
+
+        private Member(String name, String comment, boolean inheritable) {
+            this.name = name;
+            this.comment = comment;
+            this.inheritable = inheritable;
+        }
+
+        /**
+         * Gets the name of the member or property.
+         *
+         * @return the name.
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the rendered comment.
+         *
+         * @return the comment, empty if the member is not documented.
+         */
+        String getComment() {
+            return comment != null ? comment : EMPTY;
+        }
+
+        /**
+         * Checks if the member has a comment.
+         *
+         * @return <code>true</code> if documented.
+         */
+        boolean isDocumented() {
+            return comment != null;
+        }
+    }
+}
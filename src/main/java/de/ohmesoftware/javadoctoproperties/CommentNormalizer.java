@@ -0,0 +1,284 @@
+package de.ohmesoftware.javadoctoproperties;
+
+/**
+ * Renders a raw comment text into plain text in a single pass over its characters.
+ * <p>
+ * Whitespace is collapsed, HTML elements are removed with block elements like <code>&lt;p&gt;</code> rendered as
+ * whitespace, entities are decoded and inline tags are replaced by their text, e.g. the label or the reference of
+ * <code>{&#64;link}</code> and the content of <code>{&#64;code}</code>.
+ * </p>
+ * The builder is reused between invocations, so instances must not be shared between threads.
+ *
+ * @author Karsten Ohme
+ */
+public class CommentNormalizer {
+
+    private static final String[] BLOCK_ELEMENTS = {"p", "br", "div", "pre", "blockquote", "ul", "ol", "li", "dl", "dt",
+            "dd", "table", "thead", "tbody", "tfoot", "tr", "td", "th", "caption", "h1", "h2", "h3", "h4", "h5", "h6", "hr"};
+
+    private final StringBuilder builder = new StringBuilder();
+
+    private boolean pendingSpace;
+
+    /**
+     * Normalizes a comment text.
+     *
+     * @param comment The raw comment text as returned by the Doclet API.
+     * @return the plain text.
+     */
+    public String normalize(String comment) {
+        reset();
+        appendComment(comment, 0, comment.length());
+        return result();
+    }
+
+    void reset() {
+        builder.setLength(0);
+        pendingSpace = false;
+    }
+
+    String result() {
+        return builder.toString();
+    }
+
+    /**
+     * Appends text, collapsing whitespace. Leading and trailing whitespace of the result is dropped.
+     */
+    void appendText(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            appendChar(text.charAt(i));
+        }
+    }
+
+    void appendChar(char c) {
+        if (Character.isWhitespace(c) || c == '\u00A0') {
+            appendSpace();
+            return;
+        }
+        if (pendingSpace) {
+            builder.append(' ');
+            pendingSpace = false;
+        }
+        builder.append(c);
+    }
+
+    void appendSpace() {
+        pendingSpace = builder.length() > 0;
+    }
+
+    /**
+     * Appends a reference of a <code>{&#64;link}</code> or <code>{&#64;value}</code> tag, <code>Foo#bar</code> is
+     * rendered as <code>Foo.bar</code> and <code>#bar</code> as <code>bar</code>.
+     */
+    void appendReference(CharSequence reference, int start, int end) {
+        if (start < end && reference.charAt(start) == '#') {
+            start++;
+        }
+        for (int i = start; i < end; i++) {
+            char c = reference.charAt(i);
+            appendChar(c == '#' ? '.' : c);
+        }
+    }
+
+    /**
+     * Checks if an HTML element is rendered as whitespace.
+     *
+     * @param name The element name.
+     * @return <code>true</code> for block elements.
+     */
+    static boolean isBlockElement(CharSequence name) {
+        return isBlockElement(name, 0, name.length());
+    }
+
+    private static boolean isBlockElement(CharSequence text, int start, int end) {
+        for (String element : BLOCK_ELEMENTS) {
+            if (element.length() == end - start && regionMatchesIgnoreCase(text, start, element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes an entity.
+     *
+     * @param text  The text containing the entity name without <code>&amp;</code> and <code>;</code>.
+     * @param start The start of the name.
+     * @param end   The end of the name.
+     * @return the character or <code>-1</code> if the entity is unknown.
+     */
+    static int decodeEntity(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length > 1 && text.charAt(start) == '#') {
+            int radix = 10;
+            int i = start + 1;
+            if (text.charAt(i) == 'x' || text.charAt(i) == 'X') {
+                radix = 16;
+                i++;
+            }
+            if (i == end || end - i > 6) {
+                return -1;
+            }
+            int value = 0;
+            for (; i < end; i++) {
+                int digit = Character.digit(text.charAt(i), radix);
+                if (digit < 0) {
+                    return -1;
+                }
+                value = value * radix + digit;
+            }
+            return value <= Character.MAX_VALUE ? value : -1;
+        }
+        if (length == 2 && regionMatchesIgnoreCase(text, start, "lt")) {
+            return '<';
+        }
+        if (length == 2 && regionMatchesIgnoreCase(text, start, "gt")) {
+            return '>';
+        }
+        if (length == 3 && regionMatchesIgnoreCase(text, start, "amp")) {
+            return '&';
+        }
+        if (length == 4 && regionMatchesIgnoreCase(text, start, "quot")) {
+            return '"';
+        }
+        if (length == 4 && regionMatchesIgnoreCase(text, start, "apos")) {
+            return '\'';
+        }
+        if (length == 4 && regionMatchesIgnoreCase(text, start, "nbsp")) {
+            return ' ';
+        }
+        return -1;
+    }
+
+    private static boolean regionMatchesIgnoreCase(CharSequence text, int start, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendComment(String comment, int start, int end) {
+        int i = start;
+        while (i < end) {
+            char c = comment.charAt(i);
+            if (c == '<') {
+                if (comment.startsWith("<!--", i)) {
+                    int commentEnd = comment.indexOf("-->", i);
+                    i = commentEnd < 0 || commentEnd + 3 > end ? end : commentEnd + 3;
+                    continue;
+                }
+                int close = comment.indexOf('>', i);
+                if (close > i && close < end) {
+                    int nameStart = i + 1;
+                    if (nameStart < close && comment.charAt(nameStart) == '/') {
+                        nameStart++;
+                    }
+                    int nameEnd = nameStart;
+                    while (nameEnd < close && Character.isLetterOrDigit(comment.charAt(nameEnd))) {
+                        nameEnd++;
+                    }
+                    if (nameEnd > nameStart) {
+                        if (isBlockElement(comment, nameStart, nameEnd)) {
+                            appendSpace();
+                        }
+                        i = close + 1;
+                        continue;
+                    }
+                }
+            }
+            else if (c == '&') {
+                int semicolon = comment.indexOf(';', i);
+                if (semicolon > i + 1 && semicolon < end && semicolon - i <= 10) {
+                    int decoded = decodeEntity(comment, i + 1, semicolon);
+                    if (decoded >= 0) {
+                        appendChar((char) decoded);
+                        i = semicolon + 1;
+                        continue;
+                    }
+                }
+            }
+            else if (c == '{' && i + 1 < end && comment.charAt(i + 1) == '@') {
+                int close = findClosingBrace(comment, i, end);
+                if (close > 0) {
+                    appendInlineTag(comment, i + 2, close);
+                    i = close + 1;
+                    continue;
+                }
+            }
+            appendChar(c);
+            i++;
+        }
+    }
+
+    private void appendInlineTag(String comment, int start, int end) {
+        int nameEnd = start;
+        while (nameEnd < end && !Character.isWhitespace(comment.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        int contentStart = nameEnd;
+        while (contentStart < end && Character.isWhitespace(comment.charAt(contentStart))) {
+            contentStart++;
+        }
+        String name = comment.substring(start, nameEnd);
+        switch (name) {
+            case "link":
+            case "linkplain": {
+                // the reference can contain whitespace inside the parameter list
+                int referenceEnd = contentStart;
+                int depth = 0;
+                while (referenceEnd < end) {
+                    char c = comment.charAt(referenceEnd);
+                    if (c == '(') {
+                        depth++;
+                    }
+                    else if (c == ')') {
+                        depth--;
+                    }
+                    else if (depth <= 0 && Character.isWhitespace(c)) {
+                        break;
+                    }
+                    referenceEnd++;
+                }
+                int labelStart = referenceEnd;
+                while (labelStart < end && Character.isWhitespace(comment.charAt(labelStart))) {
+                    labelStart++;
+                }
+                if (labelStart < end) {
+                    appendComment(comment, labelStart, end);
+                }
+                else {
+                    appendReference(comment, contentStart, referenceEnd);
+                }
+                break;
+            }
+            case "code":
+            case "literal":
+                appendText(comment, contentStart, end);
+                break;
+            case "value":
+                appendReference(comment, contentStart, end);
+                break;
+            case "inheritDoc":
+            case "docRoot":
+                break;
+            default:
+                appendComment(comment, contentStart, end);
+        }
+    }
+
+    private static int findClosingBrace(String comment, int start, int end) {
+        int depth = 0;
+        for (int i = start; i < end; i++) {
+            char c = comment.charAt(i);
+            if (c == '{') {
+                depth++;
+            }
+            else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,213 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Decouples the traversal from writing and fans out the entries to several sinks.
+ * <p>
+ * The entries are collected in batches. Each sink escapes and writes the batches in its own thread, so the formats are
+ * written concurrently from the same rendered strings while the traversal renders the next types. The batches are
+ * queued per sink in order, the entries are written in the same order as passed. At most {@value #MAX_PENDING_BATCHES}
+ * batches are queued, if the sinks fall behind the traversal waits for the oldest batch. So the memory used is bounded
+ * independently of the number of entries.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class ConcurrentSinks implements PropertySink {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final int MAX_PENDING_BATCHES = 4;
+
+    private final List<PropertySink> sinks;
+
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    /**
+     * The futures of the queued batches, the oldest first.
+     */
+    private final Deque<List<Future<?>>> pending = new ArrayDeque<>();
+
+    /**
+     * Entries and the package names of started types.
+     */
+    private List<Object> batch = new ArrayList<>(BATCH_SIZE);
+
+    /**
+     * Constructor.
+     *
+     * @param sinks The sinks. They are committed and closed together with this sink.
+     */
+    public ConcurrentSinks(List<PropertySink> sinks) {
+        this.sinks = sinks;
+        for (int i = 0; i < sinks.size(); i++) {
+            executors.add(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "javadoctoproperties-sink");
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+    }
+
+    /**
+     * Combines the sinks.
+     *
+     * @param sinks The opened sinks.
+     * @return a sink writing to all sinks concurrently to the caller.
+     */
+    public static PropertySink of(List<PropertySink> sinks) {
+        return new ConcurrentSinks(sinks);
+    }
+
+    /**
+     * Closes all sinks, e.g. if opening a further sink has failed.
+     *
+     * @param sinks     The sinks.
+     * @param exception The exception to add the failures of the sinks to.
+     */
+    public static void closeAll(List<PropertySink> sinks, Exception exception) {
+        for (PropertySink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                exception.addSuppressed(e);
+            }
+        }
+    }
+
+    @Override
+    public void startType(String packageName) {
+        batch.add(packageName);
+    }
+
+    @Override
+    public void write(String key, String value) throws IOException {
+        batch.add(new PropertyEntry(key, value));
+        if (batch.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        // back pressure
+        while (pending.size() >= MAX_PENDING_BATCHES) {
+            await(pending.poll());
+        }
+        List<Object> items = batch;
+        batch = new ArrayList<>(BATCH_SIZE);
+        List<Future<?>> futures = new ArrayList<>(sinks.size());
+        for (int i = 0; i < sinks.size(); i++) {
+            PropertySink sink = sinks.get(i);
+            futures.add(executors.get(i).submit(() -> {
+                for (Object item : items) {
+                    if (item instanceof PropertyEntry) {
+                        PropertyEntry entry = (PropertyEntry) item;
+                        sink.write(entry.getKey(), entry.getValue());
+                    } else {
+                        sink.startType((String) item);
+                    }
+                }
+                return null;
+            }));
+        }
+        pending.add(futures);
+    }
+
+    private void awaitPending() throws IOException {
+        IOException failure = null;
+        while (!pending.isEmpty()) {
+            try {
+                await(pending.poll());
+            } catch (IOException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void await(List<Future<?>> futures) throws IOException {
+        IOException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = addFailure(failure, new IOException("Interrupted while writing.", e));
+            } catch (ExecutionException e) {
+                failure = addFailure(failure, e.getCause() instanceof IOException ? (IOException) e.getCause()
+                        : new IOException(e.getCause()));
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static IOException addFailure(IOException failure, IOException e) {
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    /**
+     * Writes the remaining entries and commits the sinks concurrently.
+     *
+     * @throws IOException if a sink has failed.
+     */
+    @Override
+    public void commit() throws IOException {
+        if (!batch.isEmpty()) {
+            flush();
+        }
+        awaitPending();
+        List<Future<?>> futures = new ArrayList<>(sinks.size());
+        for (int i = 0; i < sinks.size(); i++) {
+            PropertySink sink = sinks.get(i);
+            futures.add(executors.get(i).submit(() -> {
+                sink.commit();
+                return null;
+            }));
+        }
+        await(futures);
+    }
+
+    /**
+     * Closes the sinks. Entries not yet committed are discarded.
+     *
+     * @throws IOException if a sink has failed.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        try {
+            // the sinks must not be closed while they are written
+            awaitPending();
+        } catch (IOException e) {
+            failure = e;
+        }
+        executors.forEach(ExecutorService::shutdownNow);
+        for (PropertySink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -4,7 +4,14 @@ import com.sun.javadoc.*;
 
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
 
 /**
  * Converts the passes source path and sub directories and stores the Javadocs as properties.
@@ -13,8 +20,6 @@ import java.io.*;
  */
 public class Converter {
 
-    private static final String EQUALS = "=";
-    private static final String SPACE = " ";
     private static final String PROPERTY_SEPARATOR = ".";
 
     /**
@@ -68,60 +73,147 @@ public class Converter {
         if (!optionsLoaded) {
             return false;
         }
-        StringWriter stringWriter = new StringWriter();
-        PrintWriter printWriter = new PrintWriter(stringWriter);
+        try (Diagnostics diagnostics = new Diagnostics(printer(root), options.getVerbosity(),
+                options.getDiagnosticsFile() != null ? Paths.get(options.getDiagnosticsFile()) : null)) {
+            boolean successful = convert(root, options, diagnostics);
+            diagnostics.summarize();
+            return successful;
+        } catch (IOException e) {
+            root.printError(String.format("Could not write diagnostics file: %s", e.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * Maps the diagnostic kinds to the print methods of the doclet API.
+     */
+    private static BiConsumer<Diagnostic.Kind, String> printer(DocErrorReporter reporter) {
+        return (kind, message) -> {
+            switch (kind) {
+                case ERROR:
+                    reporter.printError(message);
+                    break;
+                case WARNING:
+                case MANDATORY_WARNING:
+                    reporter.printWarning(message);
+                    break;
+                default:
+                    reporter.printNotice(message);
+            }
+        };
+    }
+
+    private static boolean convert(RootDoc root, Options options, Diagnostics diagnostics) {
+        RunMetrics metrics = new RunMetrics(Converter.class.getSimpleName());
+        metrics.startPhase("open");
         String propertyPrefix = buildPrefix(options.getPropertiesPrefix());
-        for (ClassDoc classDoc : root.classes()) {
-            if (matchFilter(root, classDoc, options)) {
-                printProperty(printWriter, propertyPrefix, classDoc);
-                for (FieldDoc fieldDoc : classDoc.fields()) {
-                    printProperty(printWriter, propertyPrefix + buildPropertyName(classDoc), fieldDoc);
+        CommentNormalizer commentNormalizer = new CommentNormalizer();
+        ClassMembers classMembers = new ClassMembers(commentNormalizer, options.getMemberSelection());
+        try (PropertySink propertySink = openSinks(diagnostics, options, metrics)) {
+            metrics.startPhase("render");
+            ClassDoc[] classDocs = root.classes();
+            // the order of the classes is not stable
+            Arrays.sort(classDocs, Comparator.comparing(ClassDoc::qualifiedName));
+            for (ClassDoc classDoc : classDocs) {
+                if (matchFilter(diagnostics, classDoc, options)) {
+                    long typeStart = System.nanoTime();
+                    metrics.addType();
+                    propertySink.startType(classDoc.containingPackage().name());
+                    printProperty(propertySink, commentNormalizer, propertyPrefix, classDoc, metrics);
+                    String memberPrefix = buildPrefix(propertyPrefix + buildPropertyName(classDoc));
+                    for (ClassMembers.Member member : classMembers.collect(classDoc)) {
+                        if (!member.isDocumented()) {
+                            diagnostics.report(Diagnostic.Kind.WARNING, Diagnostics.MISSING_COMMENT,
+                                    classDoc.name() + PROPERTY_SEPARATOR + member.getName());
+                        }
+                        metrics.addEntry(member.getComment());
+                        propertySink.write(memberPrefix + PropertyKeys.buildPropertyName(member.getName()), member.getComment());
+                    }
+                    metrics.addRenderedType(classDoc.qualifiedTypeName(), System.nanoTime() - typeStart);
                 }
             }
-        }
-        try (OutputStreamWriter outputStreamWriter = new OutputStreamWriter(new FileOutputStream(options.getOutput()))) {
-            root.printNotice(String.format("Writing to %s", new File(options.getOutput()).getAbsolutePath()));
-            outputStreamWriter.write(stringWriter.toString());
+            metrics.startPhase("close");
+            propertySink.commit();
         } catch (IOException e) {
-           root.printError(String.format("Could not write to properties file: %s", e.getMessage()));
+           diagnostics.print(Diagnostic.Kind.ERROR, String.format("Could not write to properties file: %s", e.getMessage()));
            return false;
         }
+        metrics.endPhase();
+        diagnostics.print(Diagnostic.Kind.NOTE, metrics.getSummary());
+        if (options.getMetricsOutput() != null) {
+            try {
+                metrics.writeJson(Paths.get(options.getMetricsOutput()));
+            } catch (IOException e) {
+                diagnostics.print(Diagnostic.Kind.ERROR, String.format("Could not write metrics file: %s", e.getMessage()));
+                return false;
+            }
+        }
         return true;
     }
 
-    private static String getRegEx(String pattern) {
-        String _pattern = pattern.replace(".", "\\.");
-        _pattern = _pattern.replace("**", ".*");
-        _pattern = _pattern.replace("*", ".*");
-        _pattern = _pattern.replace("?", ".");
-        return _pattern;
+    private static PropertySink openSinks(Diagnostics diagnostics, Options options, RunMetrics metrics) throws IOException {
+        List<PropertySink> sinks = new ArrayList<>();
+        try {
+            if (options.getSharding() != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing shards of %s", new File(options.getOutput()).getAbsolutePath()));
+                ShardedPropertiesWriter shardedWriter = new ShardedPropertiesWriter(Paths.get(options.getOutput()), options.getOutputEncoding(), options.getSharding());
+                sinks.add(shardedWriter);
+                metrics.addOutputFiles(shardedWriter::getFiles);
+            } else if (options.getMergeFile() != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Merging %s into %s", options.getMergeFile(), new File(options.getOutput()).getAbsolutePath()));
+                sinks.add(new MergingPropertiesWriter(Paths.get(options.getOutput()), options.getOutputEncoding(),
+                        Paths.get(options.getMergeFile()), options.getMergePolicy()));
+                metrics.addOutputFile(Paths.get(options.getOutput()));
+            } else {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(options.getOutput()).getAbsolutePath()));
+                sinks.add(new PropertiesWriter(Paths.get(options.getOutput()), options.getOutputEncoding()));
+                metrics.addOutputFile(Paths.get(options.getOutput()));
+            }
+            if (options.getJsonOutput() != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(options.getJsonOutput()).getAbsolutePath()));
+                sinks.add(new JsonWriter(Paths.get(options.getJsonOutput())));
+                metrics.addOutputFile(Paths.get(options.getJsonOutput()));
+            }
+            if (options.getYamlOutput() != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(options.getYamlOutput()).getAbsolutePath()));
+                sinks.add(new YamlWriter(Paths.get(options.getYamlOutput())));
+                metrics.addOutputFile(Paths.get(options.getYamlOutput()));
+            }
+            if (options.getIndexOutput() != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(options.getIndexOutput()).getAbsolutePath()));
+                sinks.add(new IndexWriter(Paths.get(options.getIndexOutput())));
+                metrics.addOutputFile(Paths.get(options.getIndexOutput()));
+            }
+            if (options.getBundleClass() != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Generating %s in %s", options.getBundleClass(), new File(options.getBundleDirectory()).getAbsolutePath()));
+                sinks.add(new ResourceBundleWriter(Paths.get(options.getBundleDirectory()), options.getBundleClass()));
+                metrics.addOutputFile(Paths.get(options.getBundleDirectory()).resolve(options.getBundleClass().replace('.', '/') + ".java"));
+            }
+        } catch (IOException e) {
+            ConcurrentSinks.closeAll(sinks, e);
+            throw e;
+        }
+        return ConcurrentSinks.of(sinks);
     }
 
-    private static boolean matchFilter(RootDoc root, ClassDoc classDoc, Options options) {
-        return (options.getIncludes() == null || options.getIncludes().stream().anyMatch(
-                include -> {
-                    boolean matches = classDoc.qualifiedTypeName().matches(getRegEx(include));
-                    if (matches) {
-                        root.printNotice(String.format("Including class: '%s'", classDoc.qualifiedTypeName()));
-                    }
-                    return matches;
-                }
-        )
-        )
-                && (options.getExcludes() == null ||
-                options.getExcludes().stream().noneMatch(
-                        exclude -> {
-                            boolean matches = classDoc.qualifiedTypeName().matches(getRegEx(exclude));
-                            if (matches) {
-                                root.printNotice(String.format("Excluding class: '%s'", classDoc.qualifiedTypeName()));
-                            }
-                            return matches;
-                        })
-        );
+    private static boolean matchFilter(Diagnostics diagnostics, ClassDoc classDoc, Options options) {
+        String qualifiedName = classDoc.qualifiedTypeName();
+        if (options.getIncludeMatcher() != null) {
+            if (!options.getIncludeMatcher().matches(qualifiedName)) {
+                return false;
+            }
+            diagnostics.report(Diagnostic.Kind.NOTE, Diagnostics.INCLUDED, qualifiedName);
+        }
+        if ((options.getExcludeMatcher() != null && options.getExcludeMatcher().matches(qualifiedName))
+                || !ClassMembers.selects(options.getTypeSelection(), classDoc)) {
+            diagnostics.report(Diagnostic.Kind.NOTE, Diagnostics.EXCLUDED, qualifiedName);
+            return false;
+        }
+        return true;
     }
 
     private static String buildPropertyName(ProgramElementDoc memberDoc) {
-        return memberDoc.name().substring(0,1).toLowerCase()+memberDoc.name().substring(1);
+        return PropertyKeys.buildPropertyName(memberDoc.name());
     }
 
     private static String buildPrefix(String propertiesPrefix) {
@@ -131,15 +223,11 @@ public class Converter {
         return propertiesPrefix;
     }
 
-    private static void printProperty(PrintWriter printWriter, String propertiesPrefix, ProgramElementDoc memberDoc) {
-        printWriter.print(buildPrefix(propertiesPrefix));
-        printWriter.print(buildPropertyName(memberDoc));
-        printWriter.print(EQUALS);
-        printWriter.println(cleanComment(memberDoc.commentText()));
-    }
-
-    private static String cleanComment(String comment) {
-        return comment.replaceAll("\\n", SPACE).replaceAll("\\s+", SPACE);
+    private static void printProperty(PropertySink propertySink, CommentNormalizer commentNormalizer, String propertiesPrefix, ProgramElementDoc memberDoc,
+                                      RunMetrics metrics) throws IOException {
+        String comment = commentNormalizer.normalize(memberDoc.commentText());
+        metrics.addEntry(comment);
+        propertySink.write(buildPrefix(propertiesPrefix) + buildPropertyName(memberDoc), comment);
     }
 
 }
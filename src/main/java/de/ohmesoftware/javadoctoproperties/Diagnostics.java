@@ -0,0 +1,234 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import javax.tools.Diagnostic;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Aggregates the per element diagnostics, e.g. the included classes and the missing comments.
+ * <p>
+ * Each category is counted and the first {@value #SAMPLES} elements are kept as samples. The categories are reported
+ * once by {@link #summarize()}, so the console output does not grow with the number of elements. Only with the
+ * {@link Verbosity#VERBOSE} level each element is printed. All elements can be written to a separate detail file, one
+ * line per element with the kind, the category and the element separated by tabs.
+ * </p>
+ * <p>
+ * All methods can be called concurrently.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class Diagnostics implements Closeable {
+
+    /**
+     * The category of classes matching the includes.
+     */
+    public static final String INCLUDED = "Including class";
+
+    /**
+     * The category of classes matching the excludes.
+     */
+    public static final String EXCLUDED = "Excluding class";
+
+    /**
+     * The category of members without doc comment.
+     */
+    public static final String MISSING_COMMENT = "Missing comment on property";
+
+    /**
+     * The number of elements kept per category.
+     */
+    public static final int SAMPLES = 5;
+
+    /**
+     * The amount of output.
+     */
+    public enum Verbosity {
+
+        /**
+         * Only warnings and errors, the warning categories are summarized without samples.
+         */
+        QUIET,
+
+        /**
+         * Notes, warnings and errors, the categories are summarized with samples.
+         */
+        NORMAL,
+
+        /**
+         * Additionally each element is printed.
+         */
+        VERBOSE;
+
+        /**
+         * Parses a verbosity.
+         *
+         * @param name The verbosity name, <code>quiet</code>, <code>normal</code> or <code>verbose</code>.
+         * @return the verbosity or <code>null</code> if the name is not supported.
+         */
+        public static Verbosity parse(String name) {
+            for (Verbosity verbosity : values()) {
+                if (verbosity.name().equalsIgnoreCase(name)) {
+                    return verbosity;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final BiConsumer<Diagnostic.Kind, String> reporter;
+
+    private final Verbosity verbosity;
+
+    private final Map<String, Category> categories = new LinkedHashMap<>();
+
+    private final BufferedWriter detailWriter;
+
+    private IOException detailFailure;
+
+    /**
+     * Constructor.
+     *
+     * @param reporter   The reporter printing the messages.
+     * @param verbosity  The verbosity.
+     * @param detailFile The file receiving each element or <code>null</code>.
+     * @throws IOException if the detail file cannot be created.
+     */
+    public Diagnostics(BiConsumer<Diagnostic.Kind, String> reporter, Verbosity verbosity, Path detailFile) throws IOException {
+        this.reporter = reporter;
+        this.verbosity = verbosity;
+        this.detailWriter = detailFile != null ? Files.newBufferedWriter(detailFile, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Constructor without detail file.
+     *
+     * @param reporter  The reporter printing the messages.
+     * @param verbosity The verbosity.
+     */
+    public Diagnostics(BiConsumer<Diagnostic.Kind, String> reporter, Verbosity verbosity) {
+        this.reporter = reporter;
+        this.verbosity = verbosity;
+        this.detailWriter = null;
+    }
+
+    /**
+     * Prints a message directly. Notes are suppressed by the {@link Verbosity#QUIET} level.
+     *
+     * @param kind    The kind.
+     * @param message The message.
+     */
+    public synchronized void print(Diagnostic.Kind kind, String message) {
+        if (kind != Diagnostic.Kind.NOTE || verbosity != Verbosity.QUIET) {
+            reporter.accept(kind, message);
+        }
+    }
+
+    /**
+     * Counts an element of a category.
+     *
+     * @param kind     The kind of the category.
+     * @param category The category, e.g. {@link #MISSING_COMMENT}.
+     * @param element  The name of the element.
+     */
+    public synchronized void report(Diagnostic.Kind kind, String category, String element) {
+        Category counter = categories.computeIfAbsent(category, name -> new Category(kind));
+        counter.count++;
+        if (counter.samples.size() < SAMPLES) {
+            counter.samples.add(element);
+        }
+        if (verbosity == Verbosity.VERBOSE) {
+            reporter.accept(kind, String.format("%s: '%s'", category, element));
+        }
+        if (detailWriter != null && detailFailure == null) {
+            try {
+                detailWriter.write(kind.name());
+                detailWriter.write('\t');
+                detailWriter.write(category);
+                detailWriter.write('\t');
+                detailWriter.write(element);
+                detailWriter.newLine();
+            } catch (IOException e) {
+                detailFailure = e;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of elements of a category since the last summary.
+     *
+     * @param category The category.
+     * @return the count.
+     */
+    public synchronized long getCount(String category) {
+        Category counter = categories.get(category);
+        return counter != null ? counter.count : 0;
+    }
+
+    /**
+     * Prints one line per category and resets the counters.
+     */
+    public synchronized void summarize() {
+        for (Map.Entry<String, Category> entry : categories.entrySet()) {
+            Category counter = entry.getValue();
+            if (verbosity == Verbosity.QUIET) {
+                if (counter.kind != Diagnostic.Kind.NOTE) {
+                    reporter.accept(counter.kind, String.format("%s: %d times", entry.getKey(), counter.count));
+                }
+                continue;
+            }
+            StringBuilder samples = new StringBuilder();
+            for (String sample : counter.samples) {
+                if (samples.length() > 0) {
+                    samples.append(", ");
+                }
+                samples.append('\'').append(sample).append('\'');
+            }
+            if (counter.count > counter.samples.size()) {
+                samples.append(String.format(" and %d more", counter.count - counter.samples.size()));
+            }
+            reporter.accept(counter.kind, String.format("%s: %d times, e.g. %s", entry.getKey(), counter.count, samples));
+        }
+        categories.clear();
+        if (detailWriter != null) {
+            try {
+                detailWriter.flush();
+            } catch (IOException e) {
+                detailFailure = e;
+            }
+        }
+        if (detailFailure != null) {
+            reporter.accept(Diagnostic.Kind.WARNING, String.format("Could not write diagnostics file: %s", detailFailure.getMessage()));
+            detailFailure = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (detailWriter != null) {
+            detailWriter.close();
+        }
+    }
+
+    private static class Category {
+
+        private final Diagnostic.Kind kind;
+
+        private final List<String> samples = new ArrayList<>(SAMPLES);
+
+        private long count;
+
+        private Category(Diagnostic.Kind kind) {
+            this.kind = kind;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent cache of the generated entries per type for the incremental mode.
+ * <p>
+ * Each type is stored with a fingerprint of its doc comments, the entries generated from them and the elements
+ * reported without comment. Types with an unchanged fingerprint can reuse the cached entries instead of rendering the
+ * comments again, the missing comments are reported again from the cache.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class FingerprintCache {
+
+    private static final int MAGIC = 0x4A445043;
+
+    /**
+     * Must be increased if the generated entries change for the same source, e.g. when the comment rendering changes.
+     */
+    private static final int VERSION = 5;
+
+    private static final String DIGEST_ALGORITHM = "MD5";
+
+    private final Map<String, CachedType> types = new LinkedHashMap<>();
+
+    /**
+     * Loads the cache. All counts and lengths are checked against the file size, so a damaged file cannot cause
+     * excessive allocations.
+     *
+     * @param file The cache file.
+     * @return the cache. If the file does not exist or was written by another version an empty cache is returned.
+     * @throws IOException if the file cannot be read or is damaged. The caller should continue with an empty cache.
+     */
+    public static FingerprintCache load(Path file) throws IOException {
+        FingerprintCache cache = new FingerprintCache();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long size = Files.size(file);
+            if (size < 8 || in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return cache;
+            }
+            // a type needs at least 12 bytes, an entry 8 bytes
+            int typeCount = readCount(in, size / 12);
+            for (int i = 0; i < typeCount; i++) {
+                String qualifiedName = readString(in, size);
+                String fingerprint = readString(in, size);
+                int entryCount = readCount(in, size / 8);
+                List<PropertyEntry> entries = new ArrayList<>(entryCount);
+                for (int j = 0; j < entryCount; j++) {
+                    entries.add(new PropertyEntry(readString(in, size), readString(in, size)));
+                }
+                // a name needs at least 4 bytes
+                int missingCommentCount = readCount(in, size / 4);
+                List<String> missingComments = new ArrayList<>(missingCommentCount);
+                for (int j = 0; j < missingCommentCount; j++) {
+                    missingComments.add(readString(in, size));
+                }
+                cache.put(qualifiedName, fingerprint, entries, missingComments);
+            }
+        } catch (NoSuchFileException e) {
+            // first run
+        } catch (EOFException e) {
+            throw new IOException("Truncated cache file.", e);
+        }
+        return cache;
+    }
+
+    /**
+     * Saves the cache.
+     *
+     * @param file The cache file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        // an interrupted save keeps the previous file
+        try (OutputFiles.ReplacingOutputStream outputStream = OutputFiles.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(types.size());
+            for (Map.Entry<String, CachedType> type : types.entrySet()) {
+                writeString(out, type.getKey());
+                writeString(out, type.getValue().fingerprint);
+                out.writeInt(type.getValue().entries.size());
+                for (PropertyEntry entry : type.getValue().entries) {
+                    writeString(out, entry.getKey());
+                    writeString(out, entry.getValue());
+                }
+                out.writeInt(type.getValue().missingComments.size());
+                for (String missingComment : type.getValue().missingComments) {
+                    writeString(out, missingComment);
+                }
+            }
+            out.flush();
+            outputStream.commit();
+        }
+    }
+
+    /**
+     * Gets the cached entries of a type.
+     *
+     * @param qualifiedName The qualified type name.
+     * @param fingerprint   The current fingerprint of the type.
+     * @return the entries or <code>null</code> if the type is not cached or the fingerprint has changed.
+     */
+    public List<PropertyEntry> get(String qualifiedName, String fingerprint) {
+        CachedType cachedType = types.get(qualifiedName);
+        if (cachedType == null || !cachedType.fingerprint.equals(fingerprint)) {
+            return null;
+        }
+        return cachedType.entries;
+    }
+
+    /**
+     * Gets the elements of a type reported without comment when it was rendered.
+     *
+     * @param qualifiedName The qualified type name.
+     * @return the element names, empty if the type is not cached.
+     */
+    public List<String> getMissingComments(String qualifiedName) {
+        CachedType cachedType = types.get(qualifiedName);
+        return cachedType != null ? cachedType.missingComments : Collections.<String>emptyList();
+    }
+
+    /**
+     * Puts the entries of a type.
+     *
+     * @param qualifiedName   The qualified type name.
+     * @param fingerprint     The fingerprint of the type.
+     * @param entries         The generated entries.
+     * @param missingComments The elements reported without comment.
+     */
+    public void put(String qualifiedName, String fingerprint, List<PropertyEntry> entries, List<String> missingComments) {
+        types.put(qualifiedName, new CachedType(fingerprint, entries, missingComments));
+    }
+
+    private static int readCount(DataInputStream in, long maximum) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > maximum) {
+            throw new IOException(String.format("Damaged cache file, invalid count %d.", count));
+        }
+        return count;
+    }
+
+    private static String readString(DataInputStream in, long maximum) throws IOException {
+        byte[] bytes = new byte[readCount(in, maximum)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static class CachedType {
+
+        private final String fingerprint;
+
+        private final List<PropertyEntry> entries;
+
+        private final List<String> missingComments;
+
+        private CachedType(String fingerprint, List<PropertyEntry> entries, List<String> missingComments) {
+            this.fingerprint = fingerprint;
+            this.entries = entries;
+            this.missingComments = missingComments;
+        }
+    }
+
+    /**
+     * Builds the fingerprint of a type from its names and raw doc comments.
+     */
+    public static class Fingerprint {
+
+        private final MessageDigest digest;
+
+        /**
+         * Constructor.
+         */
+        public Fingerprint() {
+            try {
+                digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Adds a value.
+         *
+         * @param value The value. Can be <code>null</code>.
+         * @return this fingerprint.
+         */
+        public Fingerprint add(CharSequence value) {
+            if (value == null) {
+                digest.update((byte) 0);
+                return this;
+            }
+            digest.update((byte) 1);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                digest.update((byte) (c >> 8));
+                digest.update((byte) c);
+            }
+            // separator to distinguish "ab" + "c" from "a" + "bc"
+            digest.update((byte) 0xFF);
+            digest.update((byte) 0xFF);
+            return this;
+        }
+
+        /**
+         * Finishes the fingerprint.
+         *
+         * @return the fingerprint as hex string.
+         */
+        public String build() {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        }
+    }
+}
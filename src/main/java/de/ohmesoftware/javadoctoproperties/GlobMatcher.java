@@ -0,0 +1,154 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Matches qualified class names against a set of glob patterns.
+ * <p>
+ * All patterns are compiled once into a single combined automaton which is simulated in one pass over the name.
+ * The semantics are the ones of the former regular expression translation:
+ * </p>
+ * <ul>
+ * <li><code>**</code> matches one or more characters,</li>
+ * <li><code>*</code> matches zero or more characters,</li>
+ * <li><code>?</code> matches exactly one character.</li>
+ * </ul>
+ * All other characters are matched literally and the pattern must match the complete name.
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author Karsten Ohme
+ */
+public final class GlobMatcher {
+
+    private static final byte LITERAL = 0;
+    private static final byte ANY = 1;
+    private static final byte STAR = 2;
+    private static final byte ACCEPT = 3;
+
+    private final byte[] kinds;
+    private final char[] literals;
+    private final int[] starts;
+
+    private GlobMatcher(byte[] kinds, char[] literals, int[] starts) {
+        this.kinds = kinds;
+        this.literals = literals;
+        this.starts = starts;
+    }
+
+    /**
+     * Compiles the given patterns.
+     *
+     * @param patterns The glob patterns.
+     * @return the matcher or <code>null</code> if <code>patterns</code> is <code>null</code>.
+     */
+    public static GlobMatcher compile(Collection<String> patterns) {
+        if (patterns == null) {
+            return null;
+        }
+        int size = 0;
+        for (String pattern : patterns) {
+            size += pattern.length() + 1;
+        }
+        byte[] kinds = new byte[size];
+        char[] literals = new char[size];
+        int[] starts = new int[patterns.size()];
+        int pos = 0;
+        int patternIndex = 0;
+        for (String pattern : patterns) {
+            starts[patternIndex++] = pos;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                switch (c) {
+                    case '*':
+                        if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '*') {
+                            kinds[pos++] = ANY;
+                            i++;
+                        }
+                        kinds[pos++] = STAR;
+                        break;
+                    case '?':
+                        kinds[pos++] = ANY;
+                        break;
+                    default:
+                        kinds[pos] = LITERAL;
+                        literals[pos++] = c;
+                }
+            }
+            kinds[pos++] = ACCEPT;
+        }
+        return new GlobMatcher(Arrays.copyOf(kinds, pos), Arrays.copyOf(literals, pos), starts);
+    }
+
+    /**
+     * Checks if any of the patterns matches the complete name.
+     *
+     * @param name The name to match.
+     * @return <code>true</code> if at least one pattern matches.
+     */
+    public boolean matches(CharSequence name) {
+        int words = (kinds.length + 63) >>> 6;
+        long[] current = new long[words];
+        long[] next = new long[words];
+        for (int start : starts) {
+            addState(current, start);
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean active = false;
+            for (int w = 0; w < words; w++) {
+                long bits = current[w];
+                while (bits != 0) {
+                    int state = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    switch (kinds[state]) {
+                        case LITERAL:
+                            if (literals[state] == c) {
+                                addState(next, state + 1);
+                                active = true;
+                            }
+                            break;
+                        case ANY:
+                            addState(next, state + 1);
+                            active = true;
+                            break;
+                        case STAR:
+                            addState(next, state);
+                            active = true;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            if (!active) {
+                return false;
+            }
+            long[] tmp = current;
+            current = next;
+            next = tmp;
+            Arrays.fill(next, 0L);
+        }
+        for (int w = 0; w < words; w++) {
+            long bits = current[w];
+            while (bits != 0) {
+                int state = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (kinds[state] == ACCEPT) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addState(long[] states, int state) {
+        states[state >>> 6] |= 1L << state;
+        // a star can also match the empty string
+        while (kinds[state] == STAR) {
+            state++;
+            states[state >>> 6] |= 1L << state;
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the dictionary written by {@link IndexWriter} from a memory mapped file.
+ * <p>
+ * The entries stay off-heap. {@link #indexOf(CharSequence)} does not allocate: the key is hashed and compared with the
+ * UTF-8 bytes in the file character by character. Only {@link #get(CharSequence)} and {@link #getValue(int)} create
+ * the value string. The reader is immutable and can be used by several threads.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public final class IndexReader {
+
+    private final ByteBuffer buffer;
+
+    private final int size;
+
+    private final int displacementsOffset;
+
+    private final int keyOffsetsOffset;
+
+    private final int valueIdsOffset;
+
+    private final int valueOffsetsOffset;
+
+    private final int keyDataOffset;
+
+    private final int valueDataOffset;
+
+    private IndexReader(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < IndexWriter.HEADER_SIZE || buffer.getInt(0) != IndexWriter.MAGIC) {
+            throw new IOException("Not an index file.");
+        }
+        if (buffer.getInt(4) != IndexWriter.VERSION) {
+            throw new IOException(String.format("Unsupported index version %d.", buffer.getInt(4)));
+        }
+        size = buffer.getInt(8);
+        int valueCount = buffer.getInt(12);
+        displacementsOffset = IndexWriter.HEADER_SIZE;
+        keyOffsetsOffset = displacementsOffset + size * 4;
+        valueIdsOffset = keyOffsetsOffset + (size + 1) * 4;
+        valueOffsetsOffset = valueIdsOffset + size * 4;
+        keyDataOffset = valueOffsetsOffset + (valueCount + 1) * 4;
+        valueDataOffset = keyDataOffset + buffer.getInt(keyOffsetsOffset + size * 4);
+        if (valueDataOffset + buffer.getInt(valueOffsetsOffset + valueCount * 4) != buffer.capacity()) {
+            throw new IOException("Truncated index file.");
+        }
+    }
+
+    /**
+     * Maps an index file.
+     *
+     * @param file The index file.
+     * @return the reader.
+     * @throws IOException if the file cannot be read or is not an index.
+     */
+    public static IndexReader open(Path file) throws IOException {
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new IndexReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Wraps an index already in memory, e.g. loaded from the classpath.
+     *
+     * @param buffer The index content from position 0 to the capacity.
+     * @return the reader.
+     * @throws IOException if the content is not an index.
+     */
+    public static IndexReader wrap(ByteBuffer buffer) throws IOException {
+        return new IndexReader(buffer);
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up a key without allocations.
+     *
+     * @param key The key.
+     * @return the entry index or <code>-1</code> if the key is not contained.
+     */
+    public int indexOf(CharSequence key) {
+        if (size == 0) {
+            return -1;
+        }
+        int displacement = buffer.getInt(displacementsOffset + (IndexWriter.hash(0, key) % size) * 4);
+        int slot = displacement < 0 ? -displacement - 1 : IndexWriter.hash(displacement, key) % size;
+        int start = keyDataOffset + buffer.getInt(keyOffsetsOffset + slot * 4);
+        int end = keyDataOffset + buffer.getInt(keyOffsetsOffset + slot * 4 + 4);
+        return matches(key, start, end) ? slot : -1;
+    }
+
+    /**
+     * Checks if a key is contained.
+     *
+     * @param key The key.
+     * @return <code>true</code> if the key is contained.
+     */
+    public boolean containsKey(CharSequence key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key The key.
+     * @return the value or <code>null</code> if the key is not contained.
+     */
+    public String get(CharSequence key) {
+        int index = indexOf(key);
+        return index < 0 ? null : getValue(index);
+    }
+
+    /**
+     * Gets the value of an entry.
+     *
+     * @param index The entry index as returned by {@link #indexOf(CharSequence)}.
+     * @return the value.
+     */
+    public String getValue(int index) {
+        int valueId = buffer.getInt(valueIdsOffset + index * 4);
+        int start = valueDataOffset + buffer.getInt(valueOffsetsOffset + valueId * 4);
+        int end = valueDataOffset + buffer.getInt(valueOffsetsOffset + valueId * 4 + 4);
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares the key with the UTF-8 bytes at the given position, encoding the key on the fly.
+     */
+    private boolean matches(CharSequence key, int start, int end) {
+        int position = start;
+        int length = key.length();
+        for (int i = 0; i < length; i++) {
+            int c = key.charAt(i);
+            if (Character.isHighSurrogate((char) c) && i + 1 < length && Character.isLowSurrogate(key.charAt(i + 1))) {
+                c = Character.toCodePoint((char) c, key.charAt(++i));
+            } else if (Character.isSurrogate((char) c)) {
+                // unpaired surrogates are written as '?' by the encoder
+                c = '?';
+            }
+            if (c < 0x80) {
+                if (position >= end || buffer.get(position++) != (byte) c) {
+                    return false;
+                }
+            } else if (c < 0x800) {
+                if (position + 2 > end
+                        || buffer.get(position++) != (byte) (0xC0 | (c >> 6))
+                        || buffer.get(position++) != (byte) (0x80 | (c & 0x3F))) {
+                    return false;
+                }
+            } else if (c < 0x10000) {
+                if (position + 3 > end
+                        || buffer.get(position++) != (byte) (0xE0 | (c >> 12))
+                        || buffer.get(position++) != (byte) (0x80 | ((c >> 6) & 0x3F))
+                        || buffer.get(position++) != (byte) (0x80 | (c & 0x3F))) {
+                    return false;
+                }
+            } else if (position + 4 > end
+                    || buffer.get(position++) != (byte) (0xF0 | (c >> 18))
+                    || buffer.get(position++) != (byte) (0x80 | ((c >> 12) & 0x3F))
+                    || buffer.get(position++) != (byte) (0x80 | ((c >> 6) & 0x3F))
+                    || buffer.get(position++) != (byte) (0x80 | (c & 0x3F))) {
+                return false;
+            }
+        }
+        return position == end;
+    }
+}
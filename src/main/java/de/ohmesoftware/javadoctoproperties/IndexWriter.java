@@ -0,0 +1,252 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the entries to a compact dictionary read by {@link IndexReader}.
+ * <p>
+ * The keys are placed by a minimal perfect hash (hash and displace), so a lookup needs a single probe and one key
+ * comparison. Equal values are stored once. As for properties files the last entry of a duplicate key wins.
+ * </p>
+ * Layout, all numbers are big endian <code>int</code>s:
+ * <pre>
+ * magic version key count value count
+ * displacements:  key count entries, per bucket of the first level hash
+ * key offsets:    key count + 1 entries, relative to the key data, in slot order
+ * value ids:      key count entries, in slot order
+ * value offsets:  value count + 1 entries, relative to the value data
+ * key data:       UTF-8 keys in slot order
+ * value data:     UTF-8 values
+ * </pre>
+ * <p>
+ * A displacement <code>d &gt;= 0</code> places the keys of a bucket at <code>hash(d, key) % key count</code>, a
+ * negative displacement places the single key of a bucket directly at slot <code>-d - 1</code>.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class IndexWriter implements PropertySink {
+
+    /**
+     * The magic number at the start of the file.
+     */
+    public static final int MAGIC = 0x4A445049;
+
+    /**
+     * The format version.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The size of the header in bytes.
+     */
+    static final int HEADER_SIZE = 16;
+
+    private static final int MAX_DISPLACEMENT = 1 << 24;
+
+    private final OutputFiles.ReplacingOutputStream outputStream;
+
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+
+    private final Map<String, Integer> valueIds = new HashMap<>();
+
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param file The file to write to.
+     * @throws IOException if the file cannot be opened.
+     */
+    public IndexWriter(Path file) throws IOException {
+        this.outputStream = OutputFiles.newOutputStream(file);
+    }
+
+    @Override
+    public void write(String key, String value) {
+        Integer valueId = valueIds.get(value);
+        if (valueId == null) {
+            valueId = values.size();
+            valueIds.put(value, valueId);
+            values.add(value);
+        }
+        keys.put(key, valueId);
+    }
+
+    /**
+     * Hashes a key without allocations. Used by the writer and the reader.
+     *
+     * @param seed The seed, the displacement of the bucket or <code>0</code> for the first level.
+     * @param key  The key.
+     * @return the non negative hash.
+     */
+    static int hash(int seed, CharSequence key) {
+        int h = 0x811C9DC5 ^ (seed * 0x9E3779B9);
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x01000193;
+        }
+        // final avalanche of MurmurHash3
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & 0x7FFFFFFF;
+    }
+
+    @Override
+    public void commit() throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        String[] keyArray = keys.keySet().toArray(new String[0]);
+        int n = keyArray.length;
+        int[] slotKeys = new int[n];
+        int[] displacements = build(keyArray, slotKeys);
+        byte[][] keyBytes = new byte[n][];
+        for (int slot = 0; slot < n; slot++) {
+            keyBytes[slot] = keyArray[slotKeys[slot]].getBytes(StandardCharsets.UTF_8);
+        }
+        byte[][] valueBytes = new byte[values.size()][];
+        for (int i = 0; i < valueBytes.length; i++) {
+            valueBytes[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(n);
+        out.writeInt(valueBytes.length);
+        for (int displacement : displacements) {
+            out.writeInt(displacement);
+        }
+        writeOffsets(out, keyBytes);
+        for (int slot = 0; slot < n; slot++) {
+            out.writeInt(keys.get(keyArray[slotKeys[slot]]));
+        }
+        writeOffsets(out, valueBytes);
+        for (byte[] bytes : keyBytes) {
+            out.write(bytes);
+        }
+        for (byte[] bytes : valueBytes) {
+            out.write(bytes);
+        }
+        // the counter of DataOutputStream sticks at Integer.MAX_VALUE on overflow
+        if (out.size() == Integer.MAX_VALUE) {
+            throw new IOException("Index exceeds 2 GB.");
+        }
+        out.flush();
+        outputStream.commit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        outputStream.close();
+    }
+
+    private static void writeOffsets(DataOutputStream out, byte[][] data) throws IOException {
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] bytes : data) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+    }
+
+    /**
+     * Builds the minimal perfect hash.
+     *
+     * @param keys     The distinct keys.
+     * @param slotKeys Receives the index of the key placed at each slot.
+     * @return the displacements per bucket.
+     * @throws IOException if no placement is found.
+     */
+    private static int[] build(String[] keys, int[] slotKeys) throws IOException {
+        int n = keys.length;
+        int[] displacements = new int[n];
+        if (n == 0) {
+            return displacements;
+        }
+        // group the keys by bucket with a counting sort
+        int[] bucketStarts = new int[n + 1];
+        int[] keyBuckets = new int[n];
+        for (int i = 0; i < n; i++) {
+            keyBuckets[i] = hash(0, keys[i]) % n;
+            bucketStarts[keyBuckets[i] + 1]++;
+        }
+        int maxBucketSize = 0;
+        for (int b = 0; b < n; b++) {
+            maxBucketSize = Math.max(maxBucketSize, bucketStarts[b + 1]);
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+        int[] bucketKeys = new int[n];
+        int[] fill = Arrays.copyOf(bucketStarts, n);
+        for (int i = 0; i < n; i++) {
+            bucketKeys[fill[keyBuckets[i]]++] = i;
+        }
+        // place the largest buckets first, they are the hardest to place
+        int[] sizeStarts = new int[maxBucketSize + 2];
+        for (int b = 0; b < n; b++) {
+            sizeStarts[maxBucketSize - (bucketStarts[b + 1] - bucketStarts[b]) + 1]++;
+        }
+        for (int s = 0; s <= maxBucketSize; s++) {
+            sizeStarts[s + 1] += sizeStarts[s];
+        }
+        int[] orderedBuckets = new int[n];
+        for (int b = 0; b < n; b++) {
+            orderedBuckets[sizeStarts[maxBucketSize - (bucketStarts[b + 1] - bucketStarts[b])]++] = b;
+        }
+        Arrays.fill(slotKeys, -1);
+        int[] candidateSlots = new int[maxBucketSize];
+        int nextFreeSlot = 0;
+        for (int bucket : orderedBuckets) {
+            int start = bucketStarts[bucket];
+            int size = bucketStarts[bucket + 1] - start;
+            if (size == 0) {
+                break;
+            }
+            if (size == 1) {
+                while (slotKeys[nextFreeSlot] >= 0) {
+                    nextFreeSlot++;
+                }
+                slotKeys[nextFreeSlot] = bucketKeys[start];
+                displacements[bucket] = -nextFreeSlot - 1;
+                continue;
+            }
+            int displacement = 1;
+            while (!tryPlace(keys, bucketKeys, start, size, displacement, slotKeys, candidateSlots)) {
+                if (++displacement == MAX_DISPLACEMENT) {
+                    throw new IOException("Could not build the perfect hash of the index.");
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                slotKeys[candidateSlots[i]] = bucketKeys[start + i];
+            }
+            displacements[bucket] = displacement;
+        }
+        return displacements;
+    }
+
+    private static boolean tryPlace(String[] keys, int[] bucketKeys, int start, int size, int displacement,
+                                    int[] slotKeys, int[] candidateSlots) {
+        for (int i = 0; i < size; i++) {
+            int slot = hash(displacement, keys[bucketKeys[start + i]]) % slotKeys.length;
+            if (slotKeys[slot] >= 0) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (candidateSlots[j] == slot) {
+                    return false;
+                }
+            }
+            candidateSlots[i] = slot;
+        }
+        return true;
+    }
+}
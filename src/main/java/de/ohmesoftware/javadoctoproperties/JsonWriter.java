@@ -0,0 +1,116 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Streams the entries as a flat JSON object to a UTF-8 file.
+ * <p>
+ * The keys are the same as in the properties file, e.g. <code>{"rest.description.foo": "..."}</code>.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class JsonWriter implements PropertySink {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final OutputFiles.ReplacingOutputStream outputStream;
+
+    private final BufferedWriter writer;
+
+    private boolean first = true;
+
+    /**
+     * Constructor.
+     *
+     * @param file The file to write to.
+     * @throws IOException if the file cannot be opened.
+     */
+    public JsonWriter(Path file) throws IOException {
+        this.outputStream = OutputFiles.newOutputStream(file);
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write('{');
+    }
+
+    @Override
+    public void write(String key, String value) throws IOException {
+        if (!first) {
+            writer.write(',');
+        }
+        first = false;
+        writer.write("\n  ");
+        writeString(writer, key);
+        writer.write(": ");
+        writeString(writer, value);
+    }
+
+    /**
+     * Writes a double quoted string with the JSON escapes. The escapes are also valid in double quoted YAML scalars.
+     *
+     * @param writer The writer.
+     * @param text   The text.
+     * @throws IOException if the text cannot be written.
+     */
+    static void writeString(Writer writer, String text) throws IOException {
+        writer.write('"');
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            writer.write(text, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\f':
+                    writer.write("\\f");
+                    break;
+                case '\b':
+                    writer.write("\\b");
+                    break;
+                default:
+                    // other control characters and the line separators not allowed in JavaScript strings
+                    writer.write("\\u");
+                    writer.write(HEX[(c >> 12) & 0xF]);
+                    writer.write(HEX[(c >> 8) & 0xF]);
+                    writer.write(HEX[(c >> 4) & 0xF]);
+                    writer.write(HEX[c & 0xF]);
+            }
+        }
+        writer.write(text, start, length - start);
+        writer.write('"');
+    }
+
+    @Override
+    public void commit() throws IOException {
+        writer.write(first ? "}\n" : "\n}\n");
+        writer.flush();
+        outputStream.commit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
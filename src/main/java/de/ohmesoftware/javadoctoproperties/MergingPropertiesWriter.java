@@ -0,0 +1,449 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Merges the entries into a hand-maintained properties file.
+ * <p>
+ * The entries are sorted in runs of {@value #RUN_SIZE} entries, each full run is spilled to a temporary file. On commit
+ * the runs and the manual file are merged in a single streaming pass and the output is replaced atomically. So only one
+ * run is held in memory, independently of the number of entries. The output is sorted by key.
+ * </p>
+ * <p>
+ * The manual file keeps its comments and all of its keys. For keys contained in both the {@link Policy} decides which
+ * value is written, the comments of the manual entry are kept in both cases. The manual file must be sorted by key to
+ * be streamed, e.g. a previous output of the merge. Otherwise it is loaded into memory and sorted. It must have the
+ * output encoding. As for properties files the last of several generated entries with the same key wins.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class MergingPropertiesWriter implements PropertySink {
+
+    private static final int RUN_SIZE = 100_000;
+
+    private static final String RUN_SUFFIX = ".run";
+
+    /**
+     * Decides the value of keys contained in the manual file and in the generated entries.
+     */
+    public enum Policy {
+
+        /**
+         * The generated value replaces the manual value.
+         */
+        GENERATED,
+
+        /**
+         * The manual value is kept.
+         */
+        MANUAL;
+
+        /**
+         * Parses a policy.
+         *
+         * @param name The policy name, <code>generated</code> or <code>manual</code>.
+         * @return the policy or <code>null</code> if the name is not supported.
+         */
+        public static Policy parse(String name) {
+            for (Policy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name)) {
+                    return policy;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Path output;
+
+    private final Charset encoding;
+
+    private final Path manualFile;
+
+    private final Policy policy;
+
+    private final List<Path> runs = new ArrayList<>();
+
+    private TreeMap<String, String> run = new TreeMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param output     The output file.
+     * @param encoding   The encoding of the output and the manual file. See {@link PropertiesWriter#getEncoding(String)}
+     *                   for the supported encodings.
+     * @param manualFile The hand-maintained file or <code>null</code>. It may be the output file itself. A missing file
+     *                   is treated as empty.
+     * @param policy     The policy for keys contained in both.
+     */
+    public MergingPropertiesWriter(Path output, Charset encoding, Path manualFile, Policy policy) {
+        this.output = output;
+        this.encoding = encoding;
+        this.manualFile = manualFile;
+        this.policy = policy;
+    }
+
+    @Override
+    public void write(String key, String value) throws IOException {
+        run.put(key, value);
+        if (run.size() >= RUN_SIZE) {
+            spill();
+        }
+    }
+
+    /**
+     * Writes the current run sorted to a temporary file.
+     */
+    private void spill() throws IOException {
+        Path directory = output.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path runFile = Files.createTempFile(directory, output.getFileName().toString(), RUN_SUFFIX);
+        runs.add(runFile);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(runFile)))) {
+            for (Map.Entry<String, String> entry : run.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+        run = new TreeMap<>();
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void commit() throws IOException {
+        List<Cursor> cursors = new ArrayList<>();
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                cursors.add(new RunCursor(runs.get(i), i + 1));
+            }
+            cursors.add(new MemoryCursor(run, runs.size() + 1));
+            RecordCursor manualCursor = manualFile != null && Files.isRegularFile(manualFile)
+                    ? RecordCursor.open(manualFile, encoding) : null;
+            if (manualCursor != null) {
+                cursors.add(manualCursor);
+            }
+            try (OutputFiles.ReplacingOutputStream outputStream = OutputFiles.newOutputStream(output);
+                 BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, encoding))) {
+                merge(cursors, manualCursor, writer);
+                // the manual file may be the output, it must not be open when the output is replaced on close
+                closeCursors(cursors);
+                outputStream.commit();
+            }
+        } finally {
+            closeCursors(cursors);
+        }
+    }
+
+    /**
+     * Closes and removes all cursors.
+     */
+    private static void closeCursors(List<Cursor> cursors) throws IOException {
+        IOException failure = null;
+        for (Cursor cursor : cursors) {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        cursors.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Deletes the spilled runs. The output is only written by {@link #commit()}.
+     *
+     * @throws IOException if a run file cannot be deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Path runFile : runs) {
+            Files.deleteIfExists(runFile);
+        }
+        runs.clear();
+    }
+
+    /**
+     * Merges the sorted cursors. Of several generated entries with the same key the one of the newest run wins.
+     */
+    private void merge(List<Cursor> cursors, RecordCursor manualCursor, BufferedWriter writer) throws IOException {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator.<Cursor, String>comparing(cursor -> cursor.key)
+                .thenComparing(Comparator.<Cursor>comparingInt(cursor -> cursor.priority).reversed()));
+        for (Cursor cursor : cursors) {
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        if (manualCursor != null && manualCursor.header != null) {
+            writer.write(manualCursor.header);
+        }
+        PropertiesWriter propertiesWriter = new PropertiesWriter(writer, encoding);
+        while (!queue.isEmpty()) {
+            String key = queue.peek().key;
+            String generatedValue = null;
+            boolean generated = false;
+            StringBuilder manualText = null;
+            while (!queue.isEmpty() && queue.peek().key.equals(key)) {
+                Cursor cursor = queue.poll();
+                if (cursor == manualCursor) {
+                    // duplicate manual keys are kept
+                    if (manualText == null) {
+                        manualText = new StringBuilder();
+                    }
+                    writer.write(manualCursor.record.getComments());
+                    String text = manualCursor.record.getText();
+                    manualText.append(text);
+                    // the last line of the manual file may have no terminator
+                    char last = text.charAt(text.length() - 1);
+                    if (last != '\n' && last != '\r') {
+                        manualText.append(System.lineSeparator());
+                    }
+                } else if (!generated) {
+                    // the newest run is polled first
+                    generated = true;
+                    generatedValue = cursor.value;
+                }
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            if (manualText != null && (!generated || policy == Policy.MANUAL)) {
+                writer.write(manualText.toString());
+            } else {
+                propertiesWriter.write(key, generatedValue);
+            }
+        }
+        if (manualCursor != null && manualCursor.trailingComments != null) {
+            writer.write(manualCursor.trailingComments);
+        }
+        writer.flush();
+    }
+
+    /**
+     * A sorted source of entries.
+     */
+    private abstract static class Cursor implements Closeable {
+
+        private final int priority;
+
+        String key;
+
+        String value;
+
+        Cursor(int priority) {
+            this.priority = priority;
+        }
+
+        /**
+         * Moves to the next entry.
+         *
+         * @return <code>false</code> if there is no further entry.
+         */
+        abstract boolean advance() throws IOException;
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+
+    private static class MemoryCursor extends Cursor {
+
+        private final Iterator<Map.Entry<String, String>> iterator;
+
+        MemoryCursor(TreeMap<String, String> run, int priority) {
+            super(priority);
+            this.iterator = run.entrySet().iterator();
+        }
+
+        @Override
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            Map.Entry<String, String> entry = iterator.next();
+            key = entry.getKey();
+            value = entry.getValue();
+            return true;
+        }
+    }
+
+    private static class RunCursor extends Cursor {
+
+        private final DataInputStream in;
+
+        RunCursor(Path runFile, int priority) throws IOException {
+            super(priority);
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile)));
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            key = readString(length);
+            value = readString(in.readInt());
+            return true;
+        }
+
+        private String readString(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Streams the records of the manual file, or of a sorted copy in memory if the file is not sorted.
+     */
+    private static class RecordCursor extends Cursor {
+
+        private final PropertiesReader reader;
+
+        private final Iterator<PropertiesReader.Record> sortedRecords;
+
+        PropertiesReader.Record record;
+
+        String header;
+
+        String trailingComments;
+
+        private RecordCursor(PropertiesReader reader, List<PropertiesReader.Record> sortedRecords) {
+            // the manual entries are compared last
+            super(0);
+            this.reader = reader;
+            this.sortedRecords = sortedRecords != null ? sortedRecords.iterator() : null;
+        }
+
+        static RecordCursor open(Path file, Charset encoding) throws IOException {
+            if (isSorted(file, encoding)) {
+                return new RecordCursor(new PropertiesReader(file, encoding), null);
+            }
+            List<PropertiesReader.Record> records = new ArrayList<>();
+            try (PropertiesReader reader = new PropertiesReader(file, encoding)) {
+                PropertiesReader.Record record;
+                while ((record = reader.read()) != null) {
+                    records.add(record);
+                }
+            }
+            // the header stays at the start of the file
+            String header = null;
+            if (!records.isEmpty() && records.get(0).getKey() != null) {
+                header = getHeader(records.get(0));
+                records.set(0, removeHeader(records.get(0), header));
+            }
+            // keeps the trailing comments at the end and duplicate keys in their order
+            records.sort(Comparator.comparing(PropertiesReader.Record::getKey,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+            RecordCursor recordCursor = new RecordCursor(null, records);
+            recordCursor.header = header;
+            return recordCursor;
+        }
+
+        private static boolean isSorted(Path file, Charset encoding) throws IOException {
+            try (PropertiesReader reader = new PropertiesReader(file, encoding)) {
+                String previousKey = null;
+                PropertiesReader.Record record;
+                while ((record = reader.read()) != null) {
+                    if (record.getKey() != null) {
+                        if (previousKey != null && previousKey.compareTo(record.getKey()) > 0) {
+                            return false;
+                        }
+                        previousKey = record.getKey();
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            record = reader != null ? reader.read() : sortedRecords.hasNext() ? sortedRecords.next() : null;
+            if (record == null) {
+                return false;
+            }
+            if (record.getKey() == null) {
+                trailingComments = record.getComments();
+                return false;
+            }
+            if (key == null && reader != null) {
+                header = getHeader(record);
+                record = removeHeader(record, header);
+            }
+            key = record.getKey();
+            value = record.getValue();
+            return true;
+        }
+
+        /**
+         * Gets the comments at the start of the file up to the last blank line before the first entry.
+         *
+         * @return the header or <code>null</code> if there is no blank line.
+         */
+        private static String getHeader(PropertiesReader.Record record) {
+            String comments = record.getComments();
+            int end = 0;
+            int lineStart = 0;
+            for (int i = 0; i < comments.length(); i++) {
+                char c = comments.charAt(i);
+                if (c == '\n' || c == '\r' && (i + 1 == comments.length() || comments.charAt(i + 1) != '\n')) {
+                    if (comments.substring(lineStart, i + 1).trim().isEmpty()) {
+                        end = i + 1;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            return end > 0 ? comments.substring(0, end) : null;
+        }
+
+        private static PropertiesReader.Record removeHeader(PropertiesReader.Record record, String header) {
+            if (header == null) {
+                return record;
+            }
+            return new PropertiesReader.Record(record.getComments().substring(header.length()), record.getText(),
+                    record.getKey(), record.getValue());
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+}
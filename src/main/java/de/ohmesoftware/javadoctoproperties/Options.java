@@ -3,6 +3,8 @@ package de.ohmesoftware.javadoctoproperties;
 import com.sun.javadoc.DocErrorReporter;
 import com.sun.tools.doclets.standard.Standard;
 
+import javax.lang.model.SourceVersion;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -18,6 +20,20 @@ public class Options {
     public static final String OUTPUT_OPTION = "-output";
     public static final String INCLUDE_OPTION = "-includes";
     public static final String EXCLUDE_OPTION = "-excludes";
+    public static final String OUTPUT_ENCODING_OPTION = "-outputencoding";
+    public static final String JSON_OPTION = "-json";
+    public static final String YAML_OPTION = "-yaml";
+    public static final String INDEX_OPTION = "-index";
+    public static final String SHARDS_OPTION = "-shards";
+    public static final String BUNDLE_CLASS_OPTION = "-bundleclass";
+    public static final String BUNDLE_DIRECTORY_OPTION = "-bundledir";
+    public static final String METRICS_OPTION = "-metrics";
+    public static final String MERGE_OPTION = "-merge";
+    public static final String MERGE_POLICY_OPTION = "-mergepolicy";
+    public static final String VERBOSITY_OPTION = "-verbosity";
+    public static final String DIAGNOSTICS_OPTION = "-diagnostics";
+    public static final String TYPE_SELECTION_OPTION = "-typeselection";
+    public static final String MEMBER_SELECTION_OPTION = "-memberselection";
 
     private static final String EMPTY = "";
 
@@ -25,16 +41,62 @@ public class Options {
 
     private String output = "javadoc.properties";
 
+    private Charset outputEncoding = PropertiesWriter.DEFAULT_ENCODING;
+
+    private String jsonOutput;
+
+    private String yamlOutput;
+
+    private String indexOutput;
+
+    private Sharding sharding;
+
+    private String bundleClass;
+
+    private String bundleDirectory = ".";
+
+    private String metricsOutput;
+
+    private String mergeFile;
+
+    private MergingPropertiesWriter.Policy mergePolicy = MergingPropertiesWriter.Policy.MANUAL;
+
+    private Diagnostics.Verbosity verbosity = Diagnostics.Verbosity.NORMAL;
+
+    private String diagnosticsFile;
+
     private List<String> includes;
 
     private List<String> excludes;
 
+    private GlobMatcher includeMatcher;
+
+    private GlobMatcher excludeMatcher;
+
+    private SelectionRules typeSelection;
+
+    private SelectionRules memberSelection;
+
     public static int optionLength(String option) {
         switch ( option ) {
             case PREFIX_OPTION:
             case OUTPUT_OPTION:
             case INCLUDE_OPTION:
             case EXCLUDE_OPTION:
+            case OUTPUT_ENCODING_OPTION:
+            case JSON_OPTION:
+            case YAML_OPTION:
+            case INDEX_OPTION:
+            case SHARDS_OPTION:
+            case BUNDLE_CLASS_OPTION:
+            case BUNDLE_DIRECTORY_OPTION:
+            case METRICS_OPTION:
+            case MERGE_OPTION:
+            case MERGE_POLICY_OPTION:
+            case VERBOSITY_OPTION:
+            case DIAGNOSTICS_OPTION:
+            case TYPE_SELECTION_OPTION:
+            case MEMBER_SELECTION_OPTION:
                 return 2;
         }
 
@@ -75,6 +137,7 @@ public class Options {
                     return false;
                 }
                 includes = Arrays.asList(includeOption[1].split(":"));
+                includeMatcher = GlobMatcher.compile(includes);
             }
             String[] excludeOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(EXCLUDE_OPTION)).findFirst().orElse(null);
             if (excludeOption != null) {
@@ -83,6 +146,151 @@ public class Options {
                     return false;
                 }
                 excludes = Arrays.asList(excludeOption[1].split(":"));
+                excludeMatcher = GlobMatcher.compile(excludes);
+            }
+            String[] outputEncodingOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(OUTPUT_ENCODING_OPTION)).findFirst().orElse(null);
+            if (outputEncodingOption != null) {
+                if (outputEncodingOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as output encoding.", OUTPUT_ENCODING_OPTION));
+                    return false;
+                }
+                outputEncoding = PropertiesWriter.getEncoding(outputEncodingOption[1]);
+                if (outputEncoding == null) {
+                    errorReporter.printError(String.format("%s option only supports ISO-8859-1 and UTF-8.", OUTPUT_ENCODING_OPTION));
+                    return false;
+                }
+            }
+            String[] jsonOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(JSON_OPTION)).findFirst().orElse(null);
+            if (jsonOption != null) {
+                if (jsonOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as JSON output file.", JSON_OPTION));
+                    return false;
+                }
+                jsonOutput = jsonOption[1];
+            }
+            String[] yamlOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(YAML_OPTION)).findFirst().orElse(null);
+            if (yamlOption != null) {
+                if (yamlOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as YAML output file.", YAML_OPTION));
+                    return false;
+                }
+                yamlOutput = yamlOption[1];
+            }
+            String[] indexOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(INDEX_OPTION)).findFirst().orElse(null);
+            if (indexOption != null) {
+                if (indexOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as index output file.", INDEX_OPTION));
+                    return false;
+                }
+                indexOutput = indexOption[1];
+            }
+            String[] shardsOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(SHARDS_OPTION)).findFirst().orElse(null);
+            if (shardsOption != null) {
+                if (shardsOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as sharding.", SHARDS_OPTION));
+                    return false;
+                }
+                sharding = Sharding.parse(shardsOption[1]);
+                if (sharding == null) {
+                    errorReporter.printError(String.format("%s option only supports package, package:<depth> and hash:<buckets>.", SHARDS_OPTION));
+                    return false;
+                }
+            }
+            String[] bundleClassOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(BUNDLE_CLASS_OPTION)).findFirst().orElse(null);
+            if (bundleClassOption != null) {
+                if (bundleClassOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as class name.", BUNDLE_CLASS_OPTION));
+                    return false;
+                }
+                if (!SourceVersion.isName(bundleClassOption[1])) {
+                    errorReporter.printError(String.format("%s option must be a qualified class name.", BUNDLE_CLASS_OPTION));
+                    return false;
+                }
+                bundleClass = bundleClassOption[1];
+            }
+            String[] bundleDirectoryOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(BUNDLE_DIRECTORY_OPTION)).findFirst().orElse(null);
+            if (bundleDirectoryOption != null) {
+                if (bundleDirectoryOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as source directory.", BUNDLE_DIRECTORY_OPTION));
+                    return false;
+                }
+                bundleDirectory = bundleDirectoryOption[1];
+            }
+            String[] metricsOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(METRICS_OPTION)).findFirst().orElse(null);
+            if (metricsOption != null) {
+                if (metricsOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as file name.", METRICS_OPTION));
+                    return false;
+                }
+                metricsOutput = metricsOption[1];
+            }
+            String[] mergeOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(MERGE_OPTION)).findFirst().orElse(null);
+            if (mergeOption != null) {
+                if (mergeOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as file name.", MERGE_OPTION));
+                    return false;
+                }
+                if (sharding != null) {
+                    errorReporter.printError(String.format("%s option cannot be combined with %s.", MERGE_OPTION, SHARDS_OPTION));
+                    return false;
+                }
+                mergeFile = mergeOption[1];
+            }
+            String[] mergePolicyOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(MERGE_POLICY_OPTION)).findFirst().orElse(null);
+            if (mergePolicyOption != null) {
+                if (mergePolicyOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as policy.", MERGE_POLICY_OPTION));
+                    return false;
+                }
+                mergePolicy = MergingPropertiesWriter.Policy.parse(mergePolicyOption[1]);
+                if (mergePolicy == null) {
+                    errorReporter.printError(String.format("%s option only supports generated and manual.", MERGE_POLICY_OPTION));
+                    return false;
+                }
+            }
+            String[] verbosityOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(VERBOSITY_OPTION)).findFirst().orElse(null);
+            if (verbosityOption != null) {
+                if (verbosityOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as verbosity.", VERBOSITY_OPTION));
+                    return false;
+                }
+                verbosity = Diagnostics.Verbosity.parse(verbosityOption[1]);
+                if (verbosity == null) {
+                    errorReporter.printError(String.format("%s option only supports quiet, normal and verbose.", VERBOSITY_OPTION));
+                    return false;
+                }
+            }
+            String[] diagnosticsOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(DIAGNOSTICS_OPTION)).findFirst().orElse(null);
+            if (diagnosticsOption != null) {
+                if (diagnosticsOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as file name.", DIAGNOSTICS_OPTION));
+                    return false;
+                }
+                diagnosticsFile = diagnosticsOption[1];
+            }
+            String[] typeSelectionOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(TYPE_SELECTION_OPTION)).findFirst().orElse(null);
+            if (typeSelectionOption != null) {
+                if (typeSelectionOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as selection rules.", TYPE_SELECTION_OPTION));
+                    return false;
+                }
+                typeSelection = SelectionRules.parse(typeSelectionOption[1]);
+                if (typeSelection == null) {
+                    errorReporter.printError(String.format("%s option only supports annotations and modifiers, e.g. @Entity:public.", TYPE_SELECTION_OPTION));
+                    return false;
+                }
+            }
+            String[] memberSelectionOption = Arrays.stream(options).filter(s -> s.length > 0 && s[0].equals(MEMBER_SELECTION_OPTION)).findFirst().orElse(null);
+            if (memberSelectionOption != null) {
+                if (memberSelectionOption.length != 2) {
+                    errorReporter.printError(String.format("%s option can only take one argument as selection rules.", MEMBER_SELECTION_OPTION));
+                    return false;
+                }
+                memberSelection = SelectionRules.parse(memberSelectionOption[1]);
+                if (memberSelection == null) {
+                    errorReporter.printError(String.format("%s option only supports annotations and modifiers, e.g. !@JsonIgnore:!transient.", MEMBER_SELECTION_OPTION));
+                    return false;
+                }
             }
         }
         return true;
@@ -97,6 +305,114 @@ public class Options {
         return output;
     }
 
+    /**
+     * Gets the encoding of the output file.
+     *
+     * @return the output encoding.
+     */
+    public Charset getOutputEncoding() {
+        return outputEncoding;
+    }
+
+    /**
+     * Gets the JSON output file.
+     *
+     * @return the JSON output file or <code>null</code> if no JSON is written.
+     */
+    public String getJsonOutput() {
+        return jsonOutput;
+    }
+
+    /**
+     * Gets the YAML output file.
+     *
+     * @return the YAML output file or <code>null</code> if no YAML is written.
+     */
+    public String getYamlOutput() {
+        return yamlOutput;
+    }
+
+    /**
+     * Gets the binary index output file.
+     *
+     * @return the index output file or <code>null</code> if no index is written.
+     */
+    public String getIndexOutput() {
+        return indexOutput;
+    }
+
+    /**
+     * Gets the sharding of the properties file.
+     *
+     * @return the sharding or <code>null</code> if a single properties file is written.
+     */
+    public Sharding getSharding() {
+        return sharding;
+    }
+
+    /**
+     * Gets the class name of the generated resource bundle.
+     *
+     * @return the qualified class name or <code>null</code> if no resource bundle is generated.
+     */
+    public String getBundleClass() {
+        return bundleClass;
+    }
+
+    /**
+     * Gets the source directory of the generated resource bundle.
+     *
+     * @return the source directory.
+     */
+    public String getBundleDirectory() {
+        return bundleDirectory;
+    }
+
+    /**
+     * Gets the metrics file.
+     *
+     * @return the metrics file or <code>null</code> if no metrics file is written.
+     */
+    public String getMetricsOutput() {
+        return metricsOutput;
+    }
+
+    /**
+     * Gets the hand-maintained file the entries are merged into.
+     *
+     * @return the file or <code>null</code> if the output is overwritten.
+     */
+    public String getMergeFile() {
+        return mergeFile;
+    }
+
+    /**
+     * Gets the policy for keys contained in the merged file and in the generated entries.
+     *
+     * @return the policy.
+     */
+    public MergingPropertiesWriter.Policy getMergePolicy() {
+        return mergePolicy;
+    }
+
+    /**
+     * Gets the amount of output.
+     *
+     * @return the verbosity.
+     */
+    public Diagnostics.Verbosity getVerbosity() {
+        return verbosity;
+    }
+
+    /**
+     * Gets the file receiving each included and excluded class.
+     *
+     * @return the file or <code>null</code> if no diagnostics file is written.
+     */
+    public String getDiagnosticsFile() {
+        return diagnosticsFile;
+    }
+
     /**
      * Gets the includes.
      * @return the includes.
@@ -112,4 +428,36 @@ public class Options {
     public List<String> getExcludes() {
         return excludes;
     }
+
+    /**
+     * Gets the compiled includes.
+     * @return the includes matcher or <code>null</code> if no includes are set.
+     */
+    public GlobMatcher getIncludeMatcher() {
+        return includeMatcher;
+    }
+
+    /**
+     * Gets the compiled excludes.
+     * @return the excludes matcher or <code>null</code> if no excludes are set.
+     */
+    public GlobMatcher getExcludeMatcher() {
+        return excludeMatcher;
+    }
+
+    /**
+     * Gets the rules selecting the types by annotations and modifiers.
+     * @return the rules or <code>null</code> if all types are selected.
+     */
+    public SelectionRules getTypeSelection() {
+        return typeSelection;
+    }
+
+    /**
+     * Gets the rules selecting the fields and getters by annotations and modifiers.
+     * @return the rules or <code>null</code> if all members are selected.
+     */
+    public SelectionRules getMemberSelection() {
+        return memberSelection;
+    }
 }
@@ -0,0 +1,206 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces output files atomically and only if their content has changed.
+ * <p>
+ * The content is written to a temporary file in the directory of the output, which is then moved over the output.
+ * Readers never see a partially written file. If the output already has the same content, the temporary file is
+ * discarded and the output is not touched, so its modification time stays the same and downstream builds are not
+ * triggered.
+ * </p>
+ * <p>
+ * A stream only replaces the output if it has been committed, e.g. after all entries have been written successfully.
+ * Closing an uncommitted stream deletes the temporary file and keeps the existing output.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public final class OutputFiles {
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final String DIGEST_ALGORITHM = "MD5";
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private OutputFiles() {
+    }
+
+    /**
+     * Creates a temporary file next to the output. The parent directories are created. Unlike
+     * <code>Files.createTempFile</code> the file gets the default permissions of a new file, e.g. derived from the
+     * umask.
+     *
+     * @param output The output file.
+     * @return the temporary file.
+     * @throws IOException if the file cannot be created.
+     */
+    public static Path createTemporaryFile(Path output) throws IOException {
+        Path parent = output.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        String prefix = output.getFileName().toString();
+        while (true) {
+            Path temporaryFile = parent.resolve(prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + TEMPORARY_SUFFIX);
+            try {
+                return Files.createFile(temporaryFile);
+            } catch (FileAlreadyExistsException e) {
+                // try the next name
+            }
+        }
+    }
+
+    /**
+     * Moves a temporary file over the output. The permissions of an existing output are kept. If the file system does
+     * not support atomic moves the output is replaced non-atomically.
+     *
+     * @param temporaryFile The temporary file created by {@link #createTemporaryFile(Path)}.
+     * @param output        The output file.
+     * @throws IOException if the file cannot be moved.
+     */
+    public static void replace(Path temporaryFile, Path output) throws IOException {
+        if (Files.isRegularFile(output) && Files.getFileStore(output).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.setPosixFilePermissions(temporaryFile, Files.getPosixFilePermissions(output));
+        }
+        try {
+            Files.move(temporaryFile, output, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile, output, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes the content atomically if it has changed.
+     *
+     * @param output  The output file.
+     * @param content The content.
+     * @return <code>true</code> if the file has been written.
+     * @throws IOException if the file cannot be written.
+     */
+    public static boolean writeIfChanged(Path output, byte[] content) throws IOException {
+        if (Files.isRegularFile(output) && Files.size(output) == content.length
+                && Arrays.equals(Files.readAllBytes(output), content)) {
+            return false;
+        }
+        Path temporaryFile = createTemporaryFile(output);
+        try {
+            Files.write(temporaryFile, content);
+            replace(temporaryFile, output);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        return true;
+    }
+
+    /**
+     * Opens a stream writing to a temporary file. If the stream has been committed, the output is replaced on close if
+     * the content hash differs.
+     *
+     * @param output The output file.
+     * @return the stream.
+     * @throws IOException if the temporary file cannot be created.
+     */
+    public static ReplacingOutputStream newOutputStream(Path output) throws IOException {
+        return new ReplacingOutputStream(output, createTemporaryFile(output));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] hash(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Stream writing to a temporary file and replacing the output on close if committed. The content is hashed while
+     * it is written.
+     */
+    public static final class ReplacingOutputStream extends FilterOutputStream {
+
+        private final Path output;
+
+        private final Path temporaryFile;
+
+        private final MessageDigest digest = newDigest();
+
+        private long size;
+
+        private boolean committed;
+
+        private boolean closed;
+
+        private ReplacingOutputStream(Path output, Path temporaryFile) throws IOException {
+            super(new BufferedOutputStream(Files.newOutputStream(temporaryFile), BUFFER_SIZE));
+            this.output = output;
+            this.temporaryFile = temporaryFile;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            digest.update((byte) b);
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            digest.update(b, off, len);
+            size += len;
+        }
+
+        /**
+         * Marks the content as complete. Buffered bytes are flushed, so a failure is reported here and not on close.
+         *
+         * @throws IOException if the content cannot be flushed.
+         */
+        public void commit() throws IOException {
+            out.flush();
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                out.close();
+                if (committed && (!Files.isRegularFile(output) || Files.size(output) != size
+                        || !MessageDigest.isEqual(hash(output), digest.digest()))) {
+                    replace(temporaryFile, output);
+                }
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+    }
+}
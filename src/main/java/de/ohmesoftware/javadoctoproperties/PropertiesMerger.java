@@ -0,0 +1,132 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import javax.tools.Diagnostic;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line tool merging the generated properties files of several modules into one bundle.
+ * <p>
+ * The input files are streamed into a {@link MergingPropertiesWriter}, so they are never loaded into memory at once.
+ * Of several inputs containing the same key the last input wins. Optionally the result is merged into a
+ * hand-maintained file. All files must have the output encoding.
+ * </p>
+ * Usage:
+ * <pre>
+ * java -cp javadoctoproperties.jar de.ohmesoftware.javadoctoproperties.PropertiesMerger -output all.properties
+ *     [-merge manual.properties] [-mergepolicy manual] [-outputencoding ISO-8859-1]
+ *     module1/target/classes/javadoc.properties module2/target/classes/javadoc.properties
+ * </pre>
+ *
+ * @author Karsten Ohme
+ */
+public class PropertiesMerger {
+
+    private static final String OUTPUT_OPTION = "-output";
+    private static final String MERGE_OPTION = "-merge";
+    private static final String MERGE_POLICY_OPTION = "-mergepolicy";
+    private static final String OUTPUT_ENCODING_OPTION = "-outputencoding";
+
+    private String output;
+
+    private Path mergeFile;
+
+    private MergingPropertiesWriter.Policy mergePolicy = MergingPropertiesWriter.Policy.MANUAL;
+
+    private Charset outputEncoding = PropertiesWriter.DEFAULT_ENCODING;
+
+    private final List<Path> inputs = new ArrayList<>();
+
+    /**
+     * Command line entry point.
+     *
+     * @param args The options followed by the input files.
+     */
+    public static void main(String[] args) {
+        System.exit(new PropertiesMerger().run(args) ? 0 : 1);
+    }
+
+    /**
+     * Runs the merge.
+     *
+     * @param args The options followed by the input files.
+     * @return <code>true</code> if the execution was successful.
+     */
+    public boolean run(String... args) {
+        if (!load(args)) {
+            return false;
+        }
+        report(Diagnostic.Kind.NOTE, String.format("Merging %d files into %s", inputs.size(), new File(output).getAbsolutePath()));
+        try (MergingPropertiesWriter writer = new MergingPropertiesWriter(Paths.get(output), outputEncoding, mergeFile, mergePolicy)) {
+            for (Path input : inputs) {
+                try (PropertiesReader reader = new PropertiesReader(input, outputEncoding)) {
+                    PropertiesReader.Record record;
+                    while ((record = reader.read()) != null) {
+                        if (record.getKey() != null) {
+                            writer.write(record.getKey(), record.getValue());
+                        }
+                    }
+                }
+            }
+            writer.commit();
+        } catch (IOException e) {
+            report(Diagnostic.Kind.ERROR, String.format("Could not merge properties files: %s", e.getMessage()));
+            return false;
+        }
+        return true;
+    }
+
+    private boolean load(String[] args) {
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("-"); i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                report(Diagnostic.Kind.ERROR, String.format("%s option needs an argument.", option));
+                return false;
+            }
+            String value = args[++i];
+            switch (option) {
+                case OUTPUT_OPTION:
+                    output = value;
+                    break;
+                case MERGE_OPTION:
+                    mergeFile = Paths.get(value);
+                    break;
+                case MERGE_POLICY_OPTION:
+                    mergePolicy = MergingPropertiesWriter.Policy.parse(value);
+                    if (mergePolicy == null) {
+                        report(Diagnostic.Kind.ERROR, String.format("%s option only supports generated and manual.", MERGE_POLICY_OPTION));
+                        return false;
+                    }
+                    break;
+                case OUTPUT_ENCODING_OPTION:
+                    outputEncoding = PropertiesWriter.getEncoding(value);
+                    if (outputEncoding == null) {
+                        report(Diagnostic.Kind.ERROR, String.format("%s option only supports ISO-8859-1 and UTF-8.", OUTPUT_ENCODING_OPTION));
+                        return false;
+                    }
+                    break;
+                default:
+                    report(Diagnostic.Kind.ERROR, String.format("Unknown option: %s", option));
+                    return false;
+            }
+        }
+        for (; i < args.length; i++) {
+            inputs.add(Paths.get(args[i]));
+        }
+        if (output == null) {
+            report(Diagnostic.Kind.ERROR, String.format("%s option is required.", OUTPUT_OPTION));
+            return false;
+        }
+        return true;
+    }
+
+    private static void report(Diagnostic.Kind kind, String message) {
+        System.err.println(kind.name().toLowerCase() + ": " + message);
+    }
+}
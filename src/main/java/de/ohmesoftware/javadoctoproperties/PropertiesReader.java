@@ -0,0 +1,287 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams the entries of a properties file together with their original text.
+ * <p>
+ * The file is parsed as by <code>java.util.Properties.load</code>, but entry by entry and without loading the whole
+ * file. Each entry keeps the comment and blank lines preceding it and its own lines unchanged, so a file can be
+ * rewritten with its layout preserved.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class PropertiesReader implements Closeable {
+
+    private final Reader reader;
+
+    private int next = -2;
+
+    /**
+     * Constructor.
+     *
+     * @param file     The file.
+     * @param encoding The encoding. See {@link PropertiesWriter#getEncoding(String)} for the supported encodings.
+     * @throws IOException if the file cannot be opened.
+     */
+    public PropertiesReader(Path file, Charset encoding) throws IOException {
+        this.reader = Files.newBufferedReader(file, encoding);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param reader The reader. It is closed together with this reader.
+     */
+    public PropertiesReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * An entry and the lines preceding it.
+     */
+    public static class Record {
+
+        private final String comments;
+
+        private final String text;
+
+        private final String key;
+
+        private final String value;
+
+        Record(String comments, String text, String key, String value) {
+            this.comments = comments;
+            this.text = text;
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Gets the comment and blank lines preceding the entry.
+         *
+         * @return the lines including their line terminators, empty if there are none.
+         */
+        public String getComments() {
+            return comments;
+        }
+
+        /**
+         * Gets the original lines of the entry.
+         *
+         * @return the lines including their line terminators or <code>null</code> for the trailing comments of a file.
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Gets the unescaped key.
+         *
+         * @return the key or <code>null</code> for the trailing comments of a file.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the unescaped value.
+         *
+         * @return the value or <code>null</code> for the trailing comments of a file.
+         */
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Reads the next entry. Comment lines at the end of the file are returned as a record without key.
+     *
+     * @return the record or <code>null</code> at the end of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public Record read() throws IOException {
+        StringBuilder comments = new StringBuilder();
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            int lineStart = comments.length();
+            if (!readLine(comments)) {
+                return comments.length() > 0 ? new Record(comments.toString(), null, null, null) : null;
+            }
+            if (isComment(comments, lineStart)) {
+                continue;
+            }
+            // the line belongs to the entry
+            StringBuilder text = new StringBuilder(comments.substring(lineStart));
+            comments.setLength(lineStart);
+            appendLogical(line, text, 0);
+            while (endsWithContinuation(text)) {
+                int continuationStart = text.length();
+                if (!readLine(text)) {
+                    break;
+                }
+                appendLogical(line, text, continuationStart);
+            }
+            return parse(comments.toString(), text.toString(), line);
+        }
+    }
+
+    /**
+     * Reads a natural line including its terminator.
+     */
+    private boolean readLine(StringBuilder target) throws IOException {
+        int c = next != -2 ? next : reader.read();
+        next = -2;
+        if (c < 0) {
+            return false;
+        }
+        while (c >= 0) {
+            target.append((char) c);
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                next = reader.read();
+                if (next == '\n') {
+                    target.append('\n');
+                    next = -2;
+                }
+                break;
+            }
+            c = reader.read();
+        }
+        return true;
+    }
+
+    private static boolean isComment(CharSequence text, int start) {
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\f') {
+                continue;
+            }
+            return c == '#' || c == '!' || c == '\r' || c == '\n';
+        }
+        // blank last line
+        return true;
+    }
+
+    /**
+     * Appends a natural line without leading white space and line terminator to the logical line.
+     */
+    private static void appendLogical(StringBuilder line, CharSequence text, int start) {
+        int end = text.length();
+        while (end > start && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        while (start < end && (text.charAt(start) == ' ' || text.charAt(start) == '\t' || text.charAt(start) == '\f')) {
+            start++;
+        }
+        if (line.length() > 0 && line.charAt(line.length() - 1) == '\\') {
+            // remove the continuation backslash
+            line.setLength(line.length() - 1);
+        }
+        line.append(text, start, end);
+    }
+
+    private static boolean endsWithContinuation(CharSequence text) {
+        int end = text.length();
+        // only the terminator of the last line, an empty continuation line ends the entry
+        if (end > 0 && text.charAt(end - 1) == '\n') {
+            end--;
+        }
+        if (end > 0 && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        int backslashes = 0;
+        while (end - backslashes > 0 && text.charAt(end - backslashes - 1) == '\\') {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    private static Record parse(String comments, String text, StringBuilder line) throws IOException {
+        if (line.length() > 0 && line.charAt(line.length() - 1) == '\\' && endsWithContinuation(line)) {
+            // continuation at the end of the file
+            line.setLength(line.length() - 1);
+        }
+        int length = line.length();
+        int keyEnd = 0;
+        boolean escaped = false;
+        while (keyEnd < length) {
+            char c = line.charAt(keyEnd);
+            if (!escaped && (c == '=' || c == ':' || c == ' ' || c == '\t' || c == '\f')) {
+                break;
+            }
+            escaped = !escaped && c == '\\';
+            keyEnd++;
+        }
+        int valueStart = keyEnd;
+        while (valueStart < length && (line.charAt(valueStart) == ' ' || line.charAt(valueStart) == '\t'
+                || line.charAt(valueStart) == '\f')) {
+            valueStart++;
+        }
+        if (valueStart < length && (line.charAt(valueStart) == '=' || line.charAt(valueStart) == ':')) {
+            valueStart++;
+            while (valueStart < length && (line.charAt(valueStart) == ' ' || line.charAt(valueStart) == '\t'
+                    || line.charAt(valueStart) == '\f')) {
+                valueStart++;
+            }
+        }
+        String key = unescape(line, 0, keyEnd);
+        String value = unescape(line, valueStart, length);
+        line.setLength(0);
+        return new Record(comments, text, key, value);
+    }
+
+    private static String unescape(CharSequence text, int start, int end) throws IOException {
+        StringBuilder result = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != '\\' || i + 1 >= end) {
+                result.append(c);
+                continue;
+            }
+            c = text.charAt(++i);
+            switch (c) {
+                case 't':
+                    result.append('\t');
+                    break;
+                case 'n':
+                    result.append('\n');
+                    break;
+                case 'r':
+                    result.append('\r');
+                    break;
+                case 'f':
+                    result.append('\f');
+                    break;
+                case 'u':
+                    try {
+                        if (i + 4 >= end) {
+                            throw new NumberFormatException();
+                        }
+                        result.append((char) Integer.parseInt(text.subSequence(i + 1, i + 5).toString(), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IOException(String.format("Malformed unicode escape in '%s'.", text));
+                    }
+                    i += 4;
+                    break;
+                default:
+                    result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
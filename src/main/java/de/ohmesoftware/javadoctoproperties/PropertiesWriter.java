@@ -0,0 +1,167 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Streams properties entries to a file.
+ * <p>
+ * Each entry is escaped according to the <code>.properties</code> format in a single pass while it is written.
+ * With ISO-8859-1 all characters outside of printable ASCII are written as <code>&#92;uXXXX</code> escapes, with UTF-8
+ * they are written unescaped, e.g. for <code>PropertyResourceBundle</code> of Java 9+. Unpaired surrogates are always
+ * escaped.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class PropertiesWriter implements PropertySink {
+
+    /**
+     * The default encoding of properties files.
+     */
+    public static final Charset DEFAULT_ENCODING = StandardCharsets.ISO_8859_1;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final BufferedWriter writer;
+
+    private final boolean escapeUnicode;
+
+    private final OutputFiles.ReplacingOutputStream replacingOutputStream;
+
+    /**
+     * Constructor.
+     *
+     * @param file     The file to write to.
+     * @param encoding The encoding. See {@link #getEncoding(String)} for the supported encodings.
+     * @throws IOException if the file cannot be opened.
+     */
+    public PropertiesWriter(Path file, Charset encoding) throws IOException {
+        this(OutputFiles.newOutputStream(file), encoding);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param outputStream The stream to write to. It is closed together with this writer. A stream opened by
+     *                     {@link OutputFiles#newOutputStream(Path)} is also committed together with this writer.
+     * @param encoding     The encoding. See {@link #getEncoding(String)} for the supported encodings.
+     */
+    public PropertiesWriter(OutputStream outputStream, Charset encoding) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, encoding));
+        this.escapeUnicode = !StandardCharsets.UTF_8.equals(encoding);
+        this.replacingOutputStream = outputStream instanceof OutputFiles.ReplacingOutputStream
+                ? (OutputFiles.ReplacingOutputStream) outputStream : null;
+    }
+
+    /**
+     * Constructor writing between other content.
+     *
+     * @param writer   The writer. It is closed together with this writer.
+     * @param encoding The encoding of the writer. See {@link #getEncoding(String)} for the supported encodings.
+     */
+    public PropertiesWriter(BufferedWriter writer, Charset encoding) {
+        this.writer = writer;
+        this.escapeUnicode = !StandardCharsets.UTF_8.equals(encoding);
+        this.replacingOutputStream = null;
+    }
+
+    /**
+     * Gets the supported encoding for the given name.
+     *
+     * @param name The encoding name.
+     * @return the encoding or <code>null</code> if the encoding is not supported.
+     */
+    public static Charset getEncoding(String name) {
+        if (StandardCharsets.ISO_8859_1.name().equalsIgnoreCase(name)) {
+            return StandardCharsets.ISO_8859_1;
+        }
+        if (StandardCharsets.UTF_8.name().equalsIgnoreCase(name)) {
+            return StandardCharsets.UTF_8;
+        }
+        return null;
+    }
+
+    @Override
+    public void write(String key, String value) throws IOException {
+        escape(key, true);
+        writer.write('=');
+        escape(value, false);
+        // platform line separator as used by java.util.Properties
+        writer.newLine();
+    }
+
+    private void escape(String text, boolean key) throws IOException {
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c > 0x20 && c < 0x7f && c != '\\' && !(key && (c == '=' || c == ':' || c == '#' || c == '!'))) {
+                continue;
+            }
+            if (c > 0x7e && !escapeUnicode) {
+                if (!Character.isSurrogate(c)) {
+                    continue;
+                }
+                // an unpaired surrogate cannot be encoded
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    i++;
+                    continue;
+                }
+            }
+            if (c == ' ' && !key && i > 0) {
+                continue;
+            }
+            writer.write(text, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\f':
+                    writer.write("\\f");
+                    break;
+                case ' ':
+                case '\\':
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    writer.write('\\');
+                    writer.write(c);
+                    break;
+                default:
+                    writer.write("\\u");
+                    writer.write(HEX[(c >> 12) & 0xF]);
+                    writer.write(HEX[(c >> 8) & 0xF]);
+                    writer.write(HEX[(c >> 4) & 0xF]);
+                    writer.write(HEX[c & 0xF]);
+            }
+        }
+        writer.write(text, start, length - start);
+    }
+
+    @Override
+    public void commit() throws IOException {
+        writer.flush();
+        if (replacingOutputStream != null) {
+            replacingOutputStream.commit();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,42 @@
+package de.ohmesoftware.javadoctoproperties;
+
+/**
+ * A generated property.
+ *
+ * @author Karsten Ohme
+ */
+public class PropertyEntry {
+
+    private final String key;
+
+    private final String value;
+
+    /**
+     * Constructor.
+     *
+     * @param key   The property key.
+     * @param value The property value.
+     */
+    public PropertyEntry(String key, String value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Gets the property key.
+     *
+     * @return the key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the property value.
+     *
+     * @return the value.
+     */
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,79 @@
+package de.ohmesoftware.javadoctoproperties;
+
+/**
+ * Builds the property keys.
+ * <p>
+ * A type is stored under <code>prefix.type</code> and a member under <code>prefix.type.member</code> where the
+ * simple names start with a lower case character. A getter is stored under the name of its property.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public final class PropertyKeys {
+
+    /**
+     * The separator of the key parts.
+     */
+    public static final String PROPERTY_SEPARATOR = ".";
+
+    private static final String EMPTY = "";
+    private static final String GETTER_PREFIX = "get";
+    private static final String BOOLEAN_GETTER_PREFIX = "is";
+
+    private PropertyKeys() {
+    }
+
+    /**
+     * Builds the property name of a type or member.
+     *
+     * @param simpleName The simple name.
+     * @return the simple name starting with a lower case character.
+     */
+    public static String buildPropertyName(CharSequence simpleName) {
+        StringBuilder propertyName = new StringBuilder(simpleName.length());
+        propertyName.append(Character.toLowerCase(simpleName.charAt(0)));
+        propertyName.append(simpleName, 1, simpleName.length());
+        return propertyName.toString();
+    }
+
+    /**
+     * Gets the property name of a getter. Getters start with <code>get</code> or for boolean results with
+     * <code>is</code> followed by the capitalized property name.
+     *
+     * @param methodName    The method name.
+     * @param booleanResult <code>true</code> if the method returns a primitive boolean.
+     * @return the property name or <code>null</code> if the name is not the name of a getter.
+     */
+    public static String getGetterPropertyName(CharSequence methodName, boolean booleanResult) {
+        String name = methodName.toString();
+        int start;
+        if (name.startsWith(GETTER_PREFIX)) {
+            start = GETTER_PREFIX.length();
+        } else if (booleanResult && name.startsWith(BOOLEAN_GETTER_PREFIX)) {
+            start = BOOLEAN_GETTER_PREFIX.length();
+        } else {
+            return null;
+        }
+        if (name.length() == start || !Character.isUpperCase(name.charAt(start))) {
+            return null;
+        }
+        // as java.beans.Introspector.decapitalize: URL stays URL
+        if (name.length() > start + 1 && Character.isUpperCase(name.charAt(start + 1))) {
+            return name.substring(start);
+        }
+        return Character.toLowerCase(name.charAt(start)) + name.substring(start + 1);
+    }
+
+    /**
+     * Builds the prefix of the keys.
+     *
+     * @param propertiesPrefix The configured prefix.
+     * @return the prefix ending with a separator or an empty prefix.
+     */
+    public static String buildPrefix(String propertiesPrefix) {
+        if (!propertiesPrefix.endsWith(PROPERTY_SEPARATOR) && !propertiesPrefix.equals(EMPTY)) {
+            propertiesPrefix += PROPERTY_SEPARATOR;
+        }
+        return propertiesPrefix;
+    }
+}
@@ -0,0 +1,38 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Output receiving the generated entries in the order of the traversal.
+ *
+ * @author Karsten Ohme
+ */
+public interface PropertySink extends Closeable {
+
+    /**
+     * Starts the entries of a type. The first entry written afterwards is the entry of the type itself.
+     *
+     * @param packageName The package name of the type.
+     * @throws IOException if the sink cannot be written.
+     */
+    default void startType(String packageName) throws IOException {
+    }
+
+    /**
+     * Writes an entry.
+     *
+     * @param key   The key.
+     * @param value The rendered comment.
+     * @throws IOException if the entry cannot be written.
+     */
+    void write(String key, String value) throws IOException;
+
+    /**
+     * Completes the outputs after all entries have been written. Only a committed sink replaces its outputs on close,
+     * closing an uncommitted sink, e.g. after a failure, discards the entries and keeps the existing outputs.
+     *
+     * @throws IOException if the outputs cannot be written.
+     */
+    void commit() throws IOException;
+}
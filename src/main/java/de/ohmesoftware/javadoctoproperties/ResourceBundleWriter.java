@@ -0,0 +1,171 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Generates the source of a <code>ListResourceBundle</code> containing the entries.
+ * <p>
+ * Loading the compiled class avoids parsing and unescaping a properties file at startup. The bundle is loaded like a
+ * properties bundle, e.g. <code>ResourceBundle.getBundle("com.example.Docs")</code>.
+ * </p>
+ * <p>
+ * The entries are streamed into nested classes. Each method fills at most {@value #METHOD_ENTRIES} entries to stay
+ * below the 64 KB byte code limit of a method, each nested class holds at most {@value #CLASS_ENTRIES} entries to stay
+ * below the constant pool limit of a class. The source is written in ASCII with unicode escapes.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class ResourceBundleWriter implements PropertySink {
+
+    private static final int METHOD_ENTRIES = 256;
+
+    private static final int CLASS_ENTRIES = 4096;
+
+    /**
+     * Longer strings are split and joined at runtime, constant strings are limited to 65535 UTF-8 bytes.
+     */
+    private static final int MAX_LITERAL_LENGTH = 16384;
+
+    private static final String CHUNK_CLASS = "Entries";
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final OutputFiles.ReplacingOutputStream outputStream;
+
+    private final BufferedWriter writer;
+
+    private int count;
+
+    private int chunkClasses;
+
+    /**
+     * Constructor.
+     *
+     * @param sourceDirectory The source root directory.
+     * @param className       The qualified name of the generated class.
+     * @throws IOException if the file cannot be opened.
+     */
+    public ResourceBundleWriter(Path sourceDirectory, String className) throws IOException {
+        int lastDot = className.lastIndexOf('.');
+        String simpleName = className.substring(lastDot + 1);
+        Path sourceFile = sourceDirectory.resolve(className.replace('.', '/') + ".java");
+        this.outputStream = OutputFiles.newOutputStream(sourceFile);
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.US_ASCII));
+        if (lastDot > 0) {
+            writer.write("package " + className.substring(0, lastDot) + ";\n\n");
+        }
+        writer.write("/**\n * Generated by javadoctoproperties from the Javadocs. Do not edit.\n */\n");
+        writer.write("public class " + simpleName + " extends java.util.ListResourceBundle {\n");
+    }
+
+    @Override
+    public void write(String key, String value) throws IOException {
+        if (count % CLASS_ENTRIES == 0) {
+            if (count > 0) {
+                writer.write("        }\n    }\n");
+            }
+            writer.write("\n    private static final class " + CHUNK_CLASS + chunkClasses + " {\n");
+            chunkClasses++;
+        }
+        if (count % METHOD_ENTRIES == 0) {
+            if (count % CLASS_ENTRIES > 0) {
+                writer.write("        }\n");
+            }
+            writer.write("\n        static void fill" + (count % CLASS_ENTRIES) / METHOD_ENTRIES
+                    + "(Object[][] contents) {\n");
+        }
+        writer.write("            contents[" + count + "] = new Object[]{");
+        writeString(key);
+        writer.write(", ");
+        writeString(value);
+        writer.write("};\n");
+        count++;
+    }
+
+    private void writeString(String text) throws IOException {
+        if (text.length() <= MAX_LITERAL_LENGTH) {
+            writeLiteral(text, 0, text.length());
+            return;
+        }
+        writer.write("String.join(\"\"");
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(start + MAX_LITERAL_LENGTH, text.length());
+            // keep surrogate pairs together
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+                end--;
+            }
+            writer.write(", ");
+            writeLiteral(text, start, end);
+            start = end;
+        }
+        writer.write(')');
+    }
+
+    private void writeLiteral(String text, int start, int end) throws IOException {
+        writer.write('"');
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        // unicode escapes of line terminators would end the literal, octal escapes are safe
+                        // with three digits a following digit cannot become part of the escape
+                        writer.write(String.format("\\%03o", (int) c));
+                    } else if (c > 0x7e) {
+                        writer.write("\\u");
+                        writer.write(HEX[(c >> 12) & 0xF]);
+                        writer.write(HEX[(c >> 8) & 0xF]);
+                        writer.write(HEX[(c >> 4) & 0xF]);
+                        writer.write(HEX[c & 0xF]);
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public void commit() throws IOException {
+        if (count > 0) {
+            writer.write("        }\n    }\n");
+        }
+        writer.write("\n    @Override\n    protected Object[][] getContents() {\n");
+        writer.write("        Object[][] contents = new Object[" + count + "][];\n");
+        for (int chunk = 0; chunk < chunkClasses; chunk++) {
+            int entries = Math.min(CLASS_ENTRIES, count - chunk * CLASS_ENTRIES);
+            for (int method = 0; method * METHOD_ENTRIES < entries; method++) {
+                writer.write("        " + CHUNK_CLASS + chunk + ".fill" + method + "(contents);\n");
+            }
+        }
+        writer.write("        return contents;\n    }\n}\n");
+        writer.flush();
+        outputStream.commit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,297 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collects the metrics of a run: the wall time per phase, the number of types, fields and missing comments, the bytes
+ * written, the slowest types and the heap usage.
+ * <p>
+ * The type timings can be recorded concurrently. The metrics are reported as one line summary and optionally as JSON
+ * file.
+ * </p>
+ * <p>
+ * The heap usage of the run is sampled at each phase change and each rendered type, the maximum is reported. The peak
+ * usage of the heap memory pools is reported as well, it belongs to the whole JVM and can stem from earlier runs or other
+ * work in the same JVM, e.g. a Maven build. It is not reset, the pools are shared with all other users.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class RunMetrics {
+
+    /**
+     * The number of slowest types reported.
+     */
+    public static final int SLOWEST_TYPES = 10;
+
+    private static final Comparator<TypeTiming> BY_NANOS = Comparator.comparingLong(typeTiming -> typeTiming.nanos);
+
+    private final String doclet;
+
+    private final long startNanos = System.nanoTime();
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    private final AtomicLong types = new AtomicLong();
+
+    private final AtomicLong entries = new AtomicLong();
+
+    private final AtomicLong missingComments = new AtomicLong();
+
+    private final AtomicLong renderedTypes = new AtomicLong();
+
+    private final AtomicLong sampledHeap = new AtomicLong();
+
+    private final List<Supplier<List<Path>>> outputFiles = new ArrayList<>();
+
+    private final PriorityQueue<TypeTiming> slowestTypes = new PriorityQueue<>(BY_NANOS);
+
+    private String currentPhase;
+
+    private long currentPhaseStart;
+
+    /**
+     * Constructor.
+     *
+     * @param doclet The name of the doclet.
+     */
+    public RunMetrics(String doclet) {
+        this.doclet = doclet;
+        sampleHeap();
+    }
+
+    /**
+     * Records a phase that has passed before the metrics were created, e.g. the javadoc setup.
+     *
+     * @param phase  The phase name.
+     * @param millis The wall time in milliseconds.
+     */
+    public void addPhase(String phase, long millis) {
+        phases.merge(phase, TimeUnit.MILLISECONDS.toNanos(millis), Long::sum);
+    }
+
+    /**
+     * Starts a phase and ends the current phase. Phases can be entered several times, the times are summed up.
+     *
+     * @param phase The phase name.
+     */
+    public void startPhase(String phase) {
+        long now = System.nanoTime();
+        endPhase(now);
+        currentPhase = phase;
+        currentPhaseStart = now;
+    }
+
+    /**
+     * Ends the current phase.
+     */
+    public void endPhase() {
+        endPhase(System.nanoTime());
+    }
+
+    private void endPhase(long now) {
+        sampleHeap();
+        if (currentPhase != null) {
+            phases.merge(currentPhase, now - currentPhaseStart, Long::sum);
+            currentPhase = null;
+        }
+    }
+
+    /**
+     * Records the rendering time of a type. Can be called concurrently.
+     *
+     * @param typeName The type name.
+     * @param nanos    The rendering time in nanoseconds.
+     */
+    public void addRenderedType(String typeName, long nanos) {
+        renderedTypes.incrementAndGet();
+        sampleHeap();
+        synchronized (slowestTypes) {
+            if (slowestTypes.size() < SLOWEST_TYPES) {
+                slowestTypes.add(new TypeTiming(typeName, nanos));
+            } else if (slowestTypes.peek().nanos < nanos) {
+                slowestTypes.poll();
+                slowestTypes.add(new TypeTiming(typeName, nanos));
+            }
+        }
+    }
+
+    /**
+     * Counts a written type.
+     */
+    public void addType() {
+        types.incrementAndGet();
+    }
+
+    /**
+     * Counts a written entry.
+     *
+     * @param value The value. An empty value is counted as missing comment.
+     */
+    public void addEntry(String value) {
+        entries.incrementAndGet();
+        if (value.isEmpty()) {
+            missingComments.incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds a written file. The bytes written are the sizes of the files after the run.
+     *
+     * @param file The file.
+     */
+    public void addOutputFile(Path file) {
+        outputFiles.add(() -> Collections.singletonList(file));
+    }
+
+    /**
+     * Adds written files only known after the run, e.g. the shards.
+     *
+     * @param files Supplies the files after the run.
+     */
+    public void addOutputFiles(Supplier<List<Path>> files) {
+        outputFiles.add(files);
+    }
+
+    /**
+     * Builds the one line summary.
+     *
+     * @return the summary.
+     */
+    public String getSummary() {
+        return String.format(Locale.ROOT, "%d types, %d fields, %d missing comments, %d bytes written in %.1f ms (%s), "
+                        + "heap %.1f MB sampled, %.1f MB JVM peak",
+                types.get(), entries.get() - types.get(), missingComments.get(), getBytesWritten(),
+                toMillis(System.nanoTime() - startNanos), getPhaseSummary(), sampledHeap.get() / (1024.0 * 1024.0),
+                getJvmPeakHeap() / (1024.0 * 1024.0));
+    }
+
+    private String getPhaseSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            if (summary.length() > 0) {
+                summary.append(", ");
+            }
+            summary.append(phase.getKey()).append(' ').append(String.format(Locale.ROOT, "%.1f ms", toMillis(phase.getValue())));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Writes the metrics as JSON.
+     *
+     * @param file The report file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeJson(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\n  \"doclet\": ");
+            JsonWriter.writeString(writer, doclet);
+            writer.write(",\n  \"totalMillis\": " + formatMillis(System.nanoTime() - startNanos));
+            writer.write(",\n  \"phases\": {");
+            String separator = "\n";
+            for (Map.Entry<String, Long> phase : phases.entrySet()) {
+                writer.write(separator + "    ");
+                JsonWriter.writeString(writer, phase.getKey());
+                writer.write(": " + formatMillis(phase.getValue()));
+                separator = ",\n";
+            }
+            writer.write("\n  },\n  \"types\": " + types.get());
+            writer.write(",\n  \"renderedTypes\": " + renderedTypes.get());
+            writer.write(",\n  \"fields\": " + (entries.get() - types.get()));
+            writer.write(",\n  \"entries\": " + entries.get());
+            writer.write(",\n  \"missingComments\": " + missingComments.get());
+            writer.write(",\n  \"bytesWritten\": " + getBytesWritten());
+            writer.write(",\n  \"sampledHeapBytes\": " + sampledHeap.get());
+            writer.write(",\n  \"jvmPeakHeapBytes\": " + getJvmPeakHeap());
+            writer.write(",\n  \"slowestTypes\": [");
+            separator = "\n";
+            for (TypeTiming typeTiming : getSlowestTypes()) {
+                writer.write(separator + "    {\"type\": ");
+                JsonWriter.writeString(writer, typeTiming.typeName);
+                writer.write(", \"millis\": " + formatMillis(typeTiming.nanos) + "}");
+                separator = ",\n";
+            }
+            writer.write("\n  ]\n}\n");
+        }
+    }
+
+    private List<TypeTiming> getSlowestTypes() {
+        List<TypeTiming> typeTimings;
+        synchronized (slowestTypes) {
+            typeTimings = new ArrayList<>(slowestTypes);
+        }
+        typeTimings.sort(BY_NANOS.reversed());
+        return typeTimings;
+    }
+
+    private long getBytesWritten() {
+        long bytes = 0;
+        for (Supplier<List<Path>> files : outputFiles) {
+            for (Path file : files.get()) {
+                try {
+                    bytes += Files.size(file);
+                } catch (IOException e) {
+                    // not written
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private void sampleHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        sampledHeap.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+    }
+
+    /**
+     * Gets the peak usage of the heap memory pools since the start of the JVM.
+     */
+    private static long getJvmPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP && memoryPool.getPeakUsage() != null) {
+                peak += memoryPool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", toMillis(nanos));
+    }
+
+    private static class TypeTiming {
+
+        private final String typeName;
+
+        private final long nanos;
+
+        private TypeTiming(String typeName, long nanos) {
+            this.typeName = typeName;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selects types or members by their annotations, modifiers and visibility.
+ * <p>
+ * The rules are separated by <code>:</code> and must all hold. A rule consists of alternatives separated by
+ * <code>|</code>, at least one of them must hold. An alternative is
+ * </p>
+ * <ul>
+ * <li><code>@&lt;glob&gt;</code>: an annotation is present. A glob containing a <code>.</code> is matched against
+ * the qualified annotation name, otherwise against the simple name, see {@link GlobMatcher},</li>
+ * <li>a modifier: <code>public</code>, <code>protected</code>, <code>private</code>, <code>static</code>,
+ * <code>final</code>, <code>abstract</code>, <code>transient</code> or <code>volatile</code>,</li>
+ * <li><code>package</code>: no access modifier is present.</li>
+ * </ul>
+ * An alternative prefixed with <code>!</code> holds if the annotation or modifier is absent. E.g.
+ * <code>@Entity|@MappedSuperclass</code> selects JPA types and <code>!@JsonIgnore:!transient:!static</code>
+ * skips ignored, transient and static fields.
+ * <p>
+ * The rules are compiled once. The modifiers are checked before the annotations, callers only need to collect the
+ * annotation names if {@link #needsAnnotations()} is set. Instances are immutable and can be shared between threads.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public final class SelectionRules {
+
+    private static final String RULE_SEPARATOR = ":";
+    private static final String ALTERNATIVE_SEPARATOR = "\\|";
+    private static final char NEGATION = '!';
+    private static final char ANNOTATION = '@';
+    private static final char PACKAGE_SEPARATOR = '.';
+    private static final String PACKAGE = "package";
+    private static final int ACCESS_MODIFIERS = Modifier.PUBLIC | Modifier.PROTECTED | Modifier.PRIVATE;
+
+    private final String rules;
+
+    /**
+     * The alternatives of each rule, the rules only testing modifiers first.
+     */
+    private final Alternative[][] alternatives;
+
+    private final boolean needsAnnotations;
+
+    private SelectionRules(String rules, Alternative[][] alternatives, boolean needsAnnotations) {
+        this.rules = rules;
+        this.alternatives = alternatives;
+        this.needsAnnotations = needsAnnotations;
+    }
+
+    /**
+     * Parses the rules.
+     *
+     * @param rules The rules.
+     * @return the compiled rules or <code>null</code> if the rules are not supported.
+     */
+    public static SelectionRules parse(String rules) {
+        List<Alternative[]> modifierRules = new ArrayList<>();
+        List<Alternative[]> annotationRules = new ArrayList<>();
+        for (String rule : rules.split(RULE_SEPARATOR)) {
+            String[] alternatives = rule.split(ALTERNATIVE_SEPARATOR);
+            Alternative[] compiledAlternatives = new Alternative[alternatives.length];
+            boolean annotationRule = false;
+            for (int i = 0; i < alternatives.length; i++) {
+                String alternative = alternatives[i].trim();
+                boolean negated = !alternative.isEmpty() && alternative.charAt(0) == NEGATION;
+                String name = negated ? alternative.substring(1) : alternative;
+                if (!name.isEmpty() && name.charAt(0) == ANNOTATION) {
+                    String pattern = name.substring(1);
+                    if (pattern.isEmpty()) {
+                        return null;
+                    }
+                    compiledAlternatives[i] = new Alternative(negated, 0,
+                            GlobMatcher.compile(Collections.singletonList(pattern)), pattern.indexOf(PACKAGE_SEPARATOR) < 0);
+                    annotationRule = true;
+                } else {
+                    int modifier = parseModifier(name);
+                    if (modifier < 0) {
+                        return null;
+                    }
+                    compiledAlternatives[i] = new Alternative(negated, modifier, null, false);
+                }
+            }
+            (annotationRule ? annotationRules : modifierRules).add(compiledAlternatives);
+        }
+        boolean needsAnnotations = !annotationRules.isEmpty();
+        // the cheap modifier rules are checked first
+        modifierRules.addAll(annotationRules);
+        return new SelectionRules(rules, modifierRules.toArray(new Alternative[0][]), needsAnnotations);
+    }
+
+    /**
+     * Parses a modifier.
+     *
+     * @return the modifier bit, <code>0</code> for <code>package</code> or <code>-1</code> if not supported.
+     */
+    private static int parseModifier(String name) {
+        switch (name) {
+            case PACKAGE:
+                return 0;
+            case "public":
+                return Modifier.PUBLIC;
+            case "protected":
+                return Modifier.PROTECTED;
+            case "private":
+                return Modifier.PRIVATE;
+            case "static":
+                return Modifier.STATIC;
+            case "final":
+                return Modifier.FINAL;
+            case "abstract":
+                return Modifier.ABSTRACT;
+            case "transient":
+                return Modifier.TRANSIENT;
+            case "volatile":
+                return Modifier.VOLATILE;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Checks if any rule tests an annotation.
+     *
+     * @return <code>true</code> if the annotation names must be passed to {@link #matches(int, List)}.
+     */
+    public boolean needsAnnotations() {
+        return needsAnnotations;
+    }
+
+    /**
+     * Checks the rules.
+     *
+     * @param modifiers       The modifiers as bits of {@link Modifier}.
+     * @param annotationNames The qualified names of the annotations, only needed if {@link #needsAnnotations()}.
+     * @return <code>true</code> if all rules hold.
+     */
+    public boolean matches(int modifiers, List<String> annotationNames) {
+        for (Alternative[] rule : alternatives) {
+            boolean holds = false;
+            for (Alternative alternative : rule) {
+                if (alternative.matches(modifiers, annotationNames)) {
+                    holds = true;
+                    break;
+                }
+            }
+            if (!holds) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the rules against an element of the language model. The annotations are only read if needed.
+     *
+     * @param element The element.
+     * @return <code>true</code> if all rules hold.
+     */
+    public boolean matches(Element element) {
+        List<String> annotationNames = Collections.emptyList();
+        if (needsAnnotations) {
+            annotationNames = new ArrayList<>();
+            for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+                annotationNames.add(((TypeElement) annotationMirror.getAnnotationType().asElement()).getQualifiedName().toString());
+            }
+        }
+        return matches(toModifiers(element.getModifiers()), annotationNames);
+    }
+
+    /**
+     * Converts the modifiers of the language model.
+     *
+     * @param modifiers The modifiers.
+     * @return the modifiers as bits of {@link Modifier}.
+     */
+    public static int toModifiers(Set<javax.lang.model.element.Modifier> modifiers) {
+        int bits = 0;
+        for (javax.lang.model.element.Modifier modifier : modifiers) {
+            switch (modifier) {
+                case PUBLIC:
+                    bits |= Modifier.PUBLIC;
+                    break;
+                case PROTECTED:
+                    bits |= Modifier.PROTECTED;
+                    break;
+                case PRIVATE:
+                    bits |= Modifier.PRIVATE;
+                    break;
+                case STATIC:
+                    bits |= Modifier.STATIC;
+                    break;
+                case FINAL:
+                    bits |= Modifier.FINAL;
+                    break;
+                case ABSTRACT:
+                    bits |= Modifier.ABSTRACT;
+                    break;
+                case TRANSIENT:
+                    bits |= Modifier.TRANSIENT;
+                    break;
+                case VOLATILE:
+                    bits |= Modifier.VOLATILE;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the rules as passed to {@link #parse(String)}.
+     *
+     * @return the rules.
+     */
+    @Override
+    public String toString() {
+        return rules;
+    }
+
+    private static class Alternative {
+
+        private final boolean negated;
+
+        /**
+         * The modifier bit, <code>0</code> for package visibility.
+         */
+        private final int modifier;
+
+        private final GlobMatcher annotationMatcher;
+
+        private final boolean simpleName;
+
+        private Alternative(boolean negated, int modifier, GlobMatcher annotationMatcher, boolean simpleName) {
+            this.negated = negated;
+            this.modifier = modifier;
+            this.annotationMatcher = annotationMatcher;
+            this.simpleName = simpleName;
+        }
+
+        private boolean matches(int modifiers, List<String> annotationNames) {
+            boolean present;
+            if (annotationMatcher == null) {
+                present = modifier == 0 ? (modifiers & ACCESS_MODIFIERS) == 0 : (modifiers & modifier) != 0;
+            } else {
+                present = false;
+                for (String annotationName : annotationNames) {
+                    String name = simpleName ? annotationName.substring(annotationName.lastIndexOf(PACKAGE_SEPARATOR) + 1) : annotationName;
+                    if (annotationMatcher.matches(name)) {
+                        present = true;
+                        break;
+                    }
+                }
+            }
+            return present != negated;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Splits the entries into several properties files.
+ * <p>
+ * For the output <code>mydocs.properties</code> the shards are written to <code>mydocs-&lt;shard&gt;.properties</code>
+ * and the manifest to <code>mydocs.manifest.properties</code>. The manifest maps the key of each type, which is the
+ * prefix of the keys of its fields, to the file name of its shard.
+ * </p>
+ * <p>
+ * The entries are collected until the writer is committed. Then the shards are written in parallel. A shard file is only
+ * written if its content has changed, shard files of a previous run not used anymore are deleted.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class ShardedPropertiesWriter implements PropertySink {
+
+    private static final String PROPERTIES_SUFFIX = ".properties";
+    private static final String MANIFEST_SUFFIX = ".manifest" + PROPERTIES_SUFFIX;
+    private static final String SHARD_SEPARATOR = "-";
+
+    private final Path directory;
+
+    private final String baseName;
+
+    private final Charset encoding;
+
+    private final Sharding sharding;
+
+    private final Map<String, List<PropertyEntry>> shards = new LinkedHashMap<>();
+
+    private final Map<String, String> manifest = new TreeMap<>();
+
+    private String packageName;
+
+    private List<PropertyEntry> currentShard;
+
+    private int writtenShards;
+
+    /**
+     * Constructor.
+     *
+     * @param output   The output file. Its name without the <code>.properties</code> suffix is the base name of the
+     *                 shard files.
+     * @param encoding The encoding. See {@link PropertiesWriter#getEncoding(String)} for the supported encodings.
+     * @param sharding The sharding.
+     */
+    public ShardedPropertiesWriter(Path output, Charset encoding, Sharding sharding) {
+        Path absoluteOutput = output.toAbsolutePath();
+        this.directory = absoluteOutput.getParent();
+        this.baseName = getBaseName(absoluteOutput);
+        this.encoding = encoding;
+        this.sharding = sharding;
+    }
+
+    /**
+     * Gets the manifest file written for an output file.
+     *
+     * @param output The output file.
+     * @return the manifest file.
+     */
+    public static Path getManifestFile(Path output) {
+        Path absoluteOutput = output.toAbsolutePath();
+        return absoluteOutput.resolveSibling(getBaseName(absoluteOutput) + MANIFEST_SUFFIX);
+    }
+
+    private static String getBaseName(Path output) {
+        String fileName = output.getFileName().toString();
+        return fileName.endsWith(PROPERTIES_SUFFIX)
+                ? fileName.substring(0, fileName.length() - PROPERTIES_SUFFIX.length()) : fileName;
+    }
+
+    @Override
+    public void startType(String packageName) {
+        this.packageName = packageName;
+        this.currentShard = null;
+    }
+
+    @Override
+    public void write(String key, String value) {
+        if (currentShard == null) {
+            // the first entry of a type is the type itself
+            String shardFile = baseName + SHARD_SEPARATOR + sharding.shardOf(packageName != null ? packageName : "", key)
+                    + PROPERTIES_SUFFIX;
+            manifest.put(key, shardFile);
+            currentShard = shards.computeIfAbsent(shardFile, name -> new ArrayList<>());
+        }
+        currentShard.add(new PropertyEntry(key, value));
+    }
+
+    /**
+     * Gets the number of shard files written by {@link #commit()}.
+     *
+     * @return the number of changed shard files.
+     */
+    public int getWrittenShards() {
+        return writtenShards;
+    }
+
+    /**
+     * Gets the shard files and the manifest file of this output.
+     *
+     * @return the files.
+     */
+    public List<Path> getFiles() {
+        List<Path> files = new ArrayList<>(shards.size() + 1);
+        for (String shardFile : shards.keySet()) {
+            files.add(directory.resolve(shardFile));
+        }
+        files.add(directory.resolve(baseName + MANIFEST_SUFFIX));
+        return files;
+    }
+
+    @Override
+    public void commit() throws IOException {
+        Path manifestFile = directory.resolve(baseName + MANIFEST_SUFFIX);
+        Set<String> previousShards = readShardNames(manifestFile);
+        try {
+            writtenShards = shards.entrySet().parallelStream().mapToInt(shard -> {
+                try {
+                    return OutputFiles.writeIfChanged(directory.resolve(shard.getKey()), render(shard.getValue())) ? 1 : 0;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        List<PropertyEntry> manifestEntries = new ArrayList<>(manifest.size());
+        manifest.forEach((key, shardFile) -> manifestEntries.add(new PropertyEntry(key, shardFile)));
+        OutputFiles.writeIfChanged(manifestFile, render(manifestEntries));
+        previousShards.removeAll(shards.keySet());
+        for (String staleShard : previousShards) {
+            Files.deleteIfExists(directory.resolve(staleShard));
+        }
+    }
+
+    /**
+     * Releases the collected entries. The files are only written by {@link #commit()}.
+     */
+    @Override
+    public void close() {
+        shards.clear();
+        manifest.clear();
+    }
+
+    private byte[] render(List<PropertyEntry> entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PropertiesWriter propertiesWriter = new PropertiesWriter(out, encoding)) {
+            for (PropertyEntry entry : entries) {
+                propertiesWriter.write(entry.getKey(), entry.getValue());
+            }
+            propertiesWriter.commit();
+        }
+        return out.toByteArray();
+    }
+
+    private Set<String> readShardNames(Path manifestFile) throws IOException {
+        Set<String> shardNames = new HashSet<>();
+        if (!Files.isRegularFile(manifestFile)) {
+            return shardNames;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(manifestFile)) {
+            if (StandardCharsets.UTF_8.equals(encoding)) {
+                properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            } else {
+                properties.load(in);
+            }
+        }
+        for (String typeKey : properties.stringPropertyNames()) {
+            String shardFile = properties.getProperty(typeKey);
+            // never delete anything else than shards of this output
+            if (shardFile.startsWith(baseName + SHARD_SEPARATOR) && shardFile.endsWith(PROPERTIES_SUFFIX)
+                    && shardFile.indexOf('/') < 0 && shardFile.indexOf('\\') < 0) {
+                shardNames.add(shardFile);
+            }
+        }
+        return shardNames;
+    }
+}
@@ -0,0 +1,85 @@
+package de.ohmesoftware.javadoctoproperties;
+
+/**
+ * Assigns the entries of a type to a shard.
+ * <p>
+ * Supported specifications:
+ * </p>
+ * <ul>
+ * <li><code>package</code>: one shard per package.</li>
+ * <li><code>package:&lt;depth&gt;</code>: one shard per package prefix with the given number of segments, e.g.
+ * <code>com.example</code> for <code>com.example.model.order</code> and a depth of 2.</li>
+ * <li><code>hash:&lt;buckets&gt;</code>: the given number of shards, a type is assigned by the hash of its key.</li>
+ * </ul>
+ * A type is never split over several shards.
+ *
+ * @author Karsten Ohme
+ */
+public final class Sharding {
+
+    private static final String PACKAGE = "package";
+    private static final String HASH = "hash";
+    private static final String DEFAULT_PACKAGE = "_default";
+
+    private final int packageDepth;
+
+    private final int buckets;
+
+    private Sharding(int packageDepth, int buckets) {
+        this.packageDepth = packageDepth;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Parses a sharding specification.
+     *
+     * @param specification The specification.
+     * @return the sharding or <code>null</code> if the specification is invalid.
+     */
+    public static Sharding parse(String specification) {
+        String[] parts = specification.split(":", 2);
+        int number = Integer.MAX_VALUE;
+        if (parts.length == 2) {
+            try {
+                number = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (number < 1) {
+                return null;
+            }
+        }
+        switch (parts[0]) {
+            case PACKAGE:
+                return new Sharding(number, 0);
+            case HASH:
+                return parts.length == 2 ? new Sharding(0, number) : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Gets the shard of a type.
+     *
+     * @param packageName The package name of the type.
+     * @param typeKey     The property key of the type.
+     * @return the shard name, usable as part of a file name.
+     */
+    public String shardOf(String packageName, String typeKey) {
+        if (buckets > 0) {
+            return String.valueOf(Math.floorMod(typeKey.hashCode(), buckets));
+        }
+        if (packageName.isEmpty()) {
+            return DEFAULT_PACKAGE;
+        }
+        int end = -1;
+        for (int i = 0; i < packageDepth; i++) {
+            end = packageName.indexOf('.', end + 1);
+            if (end < 0) {
+                return packageName;
+            }
+        }
+        return packageName.substring(0, end);
+    }
+}
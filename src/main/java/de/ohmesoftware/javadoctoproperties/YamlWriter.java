@@ -0,0 +1,58 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Streams the entries as a flat YAML mapping to a UTF-8 file.
+ * <p>
+ * Keys and values are written as double quoted scalars, so no value can be mistaken for another YAML type.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class YamlWriter implements PropertySink {
+
+    private final OutputFiles.ReplacingOutputStream outputStream;
+
+    private final BufferedWriter writer;
+
+    private boolean empty = true;
+
+    /**
+     * Constructor.
+     *
+     * @param file The file to write to.
+     * @throws IOException if the file cannot be opened.
+     */
+    public YamlWriter(Path file) throws IOException {
+        this.outputStream = OutputFiles.newOutputStream(file);
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void write(String key, String value) throws IOException {
+        empty = false;
+        JsonWriter.writeString(writer, key);
+        writer.write(": ");
+        JsonWriter.writeString(writer, value);
+        writer.write('\n');
+    }
+
+    @Override
+    public void commit() throws IOException {
+        if (empty) {
+            writer.write("{}\n");
+        }
+        writer.flush();
+        outputStream.commit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,285 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticListener;
+import javax.tools.DocumentationTool;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Command line runner executing several doclet jobs in one JVM, e.g. for all model modules of a reactor.
+ * <p>
+ * The jobs file contains one job per line with the options of {@link Converter9} and <code>javadoc</code> separated
+ * by whitespace, empty lines and lines starting with <code>#</code> are ignored. <code>-sourcepath</code> is required,
+ * all source files of the source path are documented, like by the Maven plugin:
+ * </p>
+ * <pre>
+ * -sourcepath module1/src/main/java -prefix rest.description -output module1/target/classes/javadoc.properties -includes *model*
+ * -sourcepath module2/src/main/java -classpath module1/target/classes -output module2/target/classes/javadoc.properties
+ * </pre>
+ * Usage:
+ * <pre>
+ * java -cp javadoctoproperties.jar de.ohmesoftware.javadoctoproperties.BatchConverter -jobs jobs.txt [-concurrency 4]
+ * </pre>
+ * <p>
+ * Up to <code>-concurrency</code> jobs run in parallel, default is the number of processors. The jobs share the warmed
+ * up <code>javadoc</code> tool and the compiled include and exclude patterns, each worker thread reuses its file
+ * manager with the opened archives of the classpath. The messages of each job are prefixed with its output. The time
+ * of each job is reported, a failed job does not abort the others.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class BatchConverter {
+
+    private static final String JOBS_OPTION = "-jobs";
+    private static final String CONCURRENCY_OPTION = "-concurrency";
+    private static final String SOURCE_PATH_OPTION = "-sourcepath";
+    private static final String OUTPUT_OPTION = "-output";
+    private static final String ENCODING_OPTION = "-encoding";
+    private static final String QUIET_OPTION = "-quiet";
+    private static final String COMMENT = "#";
+    private static final String WHITESPACE = "\\s+";
+
+    private Path jobsFile;
+
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+
+    private final DocumentationTool documentationTool = ToolProvider.getSystemDocumentationTool();
+
+    private final ConcurrentLinkedQueue<StandardJavaFileManager> fileManagers = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<StandardJavaFileManager> fileManager = ThreadLocal.withInitial(() -> {
+        StandardJavaFileManager standardJavaFileManager = documentationTool.getStandardFileManager(null, null, null);
+        fileManagers.add(standardJavaFileManager);
+        return standardJavaFileManager;
+    });
+
+    /**
+     * Command line entry point.
+     *
+     * @param args The options.
+     */
+    public static void main(String[] args) {
+        System.exit(new BatchConverter().run(args) ? 0 : 1);
+    }
+
+    /**
+     * Runs all jobs.
+     *
+     * @param args The options.
+     * @return <code>true</code> if all jobs were successful.
+     */
+    public boolean run(String... args) {
+        if (!load(args)) {
+            return false;
+        }
+        if (documentationTool == null) {
+            report(Diagnostic.Kind.ERROR, "No documentation tool available, the converter must be run with a JDK.");
+            return false;
+        }
+        List<Job> jobs;
+        try {
+            jobs = readJobs(jobsFile);
+        } catch (IOException e) {
+            report(Diagnostic.Kind.ERROR, String.format("Could not read jobs file: %s", e.getMessage()));
+            return false;
+        }
+        long start = System.nanoTime();
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(jobs.size(), 1)));
+        int successfulJobs = 0;
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(jobs.size());
+            for (Job job : jobs) {
+                results.add(executorService.submit(() -> runJob(job)));
+            }
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    successfulJobs++;
+                }
+            }
+        } catch (ExecutionException e) {
+            report(Diagnostic.Kind.ERROR, String.format("Could not run job: %s", e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report(Diagnostic.Kind.ERROR, "Interrupted");
+        } finally {
+            executorService.shutdownNow();
+            closeFileManagers();
+        }
+        report(successfulJobs == jobs.size() ? Diagnostic.Kind.NOTE : Diagnostic.Kind.ERROR,
+                String.format("%d of %d jobs succeeded in %d ms", successfulJobs, jobs.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        return successfulJobs == jobs.size();
+    }
+
+    /**
+     * Runs a job with the file manager of the current thread.
+     *
+     * @return <code>true</code> if the job was successful.
+     */
+    private boolean runJob(Job job) {
+        long start = System.nanoTime();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        DiagnosticListener<JavaFileObject> diagnosticListener = diagnostic -> {
+            String message = diagnostic.getMessage(null);
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.incrementAndGet();
+                firstError.compareAndSet(null, message);
+            }
+            report(diagnostic.getKind(), String.format("[%s] %s", job.name, message));
+        };
+        boolean successful;
+        try {
+            List<Path> sourceFiles = SourceConverter.findSourceFiles(job.sourcePath);
+            StandardJavaFileManager standardJavaFileManager = fileManager.get();
+            // the locations of the previous job must not leak into this job
+            standardJavaFileManager.setLocation(StandardLocation.SOURCE_PATH, null);
+            standardJavaFileManager.setLocation(StandardLocation.CLASS_PATH, null);
+            Boolean result = documentationTool.getTask(null, standardJavaFileManager, diagnosticListener, Converter9.class,
+                    job.options, standardJavaFileManager.getJavaFileObjectsFromPaths(sourceFiles)).call();
+            successful = Boolean.TRUE.equals(result) && errors.get() == 0;
+        } catch (IOException | RuntimeException e) {
+            firstError.compareAndSet(null, e.toString());
+            successful = false;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (successful) {
+            report(Diagnostic.Kind.NOTE, String.format("[%s] succeeded in %d ms", job.name, millis));
+        } else {
+            report(Diagnostic.Kind.ERROR, String.format("[%s] failed in %d ms: %s", job.name, millis, firstError.get()));
+        }
+        return successful;
+    }
+
+    private void closeFileManagers() {
+        StandardJavaFileManager standardJavaFileManager;
+        while ((standardJavaFileManager = fileManagers.poll()) != null) {
+            try {
+                standardJavaFileManager.close();
+            } catch (IOException e) {
+                report(Diagnostic.Kind.WARNING, String.format("Could not close file manager: %s", e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Reads the jobs, one per line.
+     *
+     * @param jobsFile The jobs file.
+     * @return the jobs.
+     * @throws IOException if the file cannot be read or a job has no source path.
+     */
+    static List<Job> readJobs(Path jobsFile) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(jobsFile, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith(COMMENT)) {
+                continue;
+            }
+            List<String> options = new ArrayList<>(Arrays.asList(line.split(WHITESPACE)));
+            String sourcePath = getOption(options, SOURCE_PATH_OPTION);
+            if (sourcePath == null) {
+                throw new IOException(String.format("%s option is required in line %d.", SOURCE_PATH_OPTION, lineNumber));
+            }
+            if (!options.contains(QUIET_OPTION)) {
+                options.add(0, QUIET_OPTION);
+            }
+            if (!options.contains(ENCODING_OPTION)) {
+                // the file manager is reused, the encoding of the previous job must not be kept
+                options.add(ENCODING_OPTION);
+                options.add(Charset.defaultCharset().name());
+            }
+            String output = getOption(options, OUTPUT_OPTION);
+            jobs.add(new Job(output != null ? output : String.format("line %d", lineNumber), options,
+                    Arrays.stream(sourcePath.split(File.pathSeparator)).map(Paths::get).collect(Collectors.toList())));
+        }
+        return jobs;
+    }
+
+    private static String getOption(List<String> options, String option) {
+        int index = options.indexOf(option);
+        return index >= 0 && index + 1 < options.size() ? options.get(index + 1) : null;
+    }
+
+    private boolean load(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                report(Diagnostic.Kind.ERROR, String.format("%s option needs an argument.", option));
+                return false;
+            }
+            String value = args[++i];
+            switch (option) {
+                case JOBS_OPTION:
+                    jobsFile = Paths.get(value);
+                    break;
+                case CONCURRENCY_OPTION:
+                    try {
+                        concurrency = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        concurrency = -1;
+                    }
+                    if (concurrency < 1) {
+                        report(Diagnostic.Kind.ERROR, String.format("%s option must be a positive number.", CONCURRENCY_OPTION));
+                        return false;
+                    }
+                    break;
+                default:
+                    report(Diagnostic.Kind.ERROR, String.format("Unknown option: %s", option));
+                    return false;
+            }
+        }
+        if (jobsFile == null) {
+            report(Diagnostic.Kind.ERROR, String.format("%s option is required.", JOBS_OPTION));
+            return false;
+        }
+        return true;
+    }
+
+    private static synchronized void report(Diagnostic.Kind kind, String message) {
+        System.err.println(kind.name().toLowerCase() + ": " + message);
+    }
+
+    /**
+     * A doclet run.
+     */
+    static class Job {
+
+        private final String name;
+
+        private final List<String> options;
+
+        private final List<Path> sourcePath;
+
+        private Job(String name, List<String> options, List<Path> sourcePath) {
+            this.name = name;
+            this.options = options;
+            this.sourcePath = sourcePath;
+        }
+    }
+}
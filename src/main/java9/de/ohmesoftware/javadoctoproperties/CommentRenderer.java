@@ -0,0 +1,167 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import com.sun.source.doctree.*;
+import com.sun.source.util.SimpleDocTreeVisitor;
+
+import java.util.List;
+
+/**
+ * Renders the body of a doc comment into plain text by walking the <code>DocTree</code> nodes.
+ * <p>
+ * The rendering follows {@link CommentNormalizer}: whitespace is collapsed, HTML elements are removed with block
+ * elements rendered as whitespace, entities are decoded and inline tags are replaced by their text.
+ * </p>
+ * The builder is reused between invocations, so instances must not be shared between threads.
+ *
+ * @author Karsten Ohme
+ */
+public class CommentRenderer extends SimpleDocTreeVisitor<Void, Void> {
+
+    private final CommentNormalizer text = new CommentNormalizer();
+
+    private String inheritedComment;
+
+    /**
+     * Renders the doc comment body.
+     *
+     * @param body The body, e.g. from {@link DocCommentTree#getFullBody()}.
+     * @return the plain text.
+     */
+    public String render(List<? extends DocTree> body) {
+        return render(body, null);
+    }
+
+    /**
+     * Renders the doc comment body and replaces <code>{@literal {@inheritDoc}}</code> by the inherited comment.
+     *
+     * @param body             The body, e.g. from {@link DocCommentTree#getFullBody()}.
+     * @param inheritedComment The rendered comment of the overridden method or <code>null</code>.
+     * @return the plain text.
+     */
+    public String render(List<? extends DocTree> body, String inheritedComment) {
+        text.reset();
+        this.inheritedComment = inheritedComment;
+        visit(body, null);
+        return text.result();
+    }
+
+    /**
+     * Checks if a doc comment body inherits the comment of the overridden method.
+     *
+     * @param body The body.
+     * @return <code>true</code> if the body contains <code>{@literal {@inheritDoc}}</code>.
+     */
+    public static boolean containsInheritDoc(List<? extends DocTree> body) {
+        for (DocTree docTree : body) {
+            if (docTree.getKind() == DocTree.Kind.INHERIT_DOC) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Void visitText(TextTree node, Void unused) {
+        text.appendText(node.getBody(), 0, node.getBody().length());
+        return null;
+    }
+
+    @Override
+    public Void visitStartElement(StartElementTree node, Void unused) {
+        if (CommentNormalizer.isBlockElement(node.getName())) {
+            text.appendSpace();
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitEndElement(EndElementTree node, Void unused) {
+        if (CommentNormalizer.isBlockElement(node.getName())) {
+            text.appendSpace();
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitEntity(EntityTree node, Void unused) {
+        CharSequence name = node.getName();
+        int decoded = CommentNormalizer.decodeEntity(name, 0, name.length());
+        if (decoded >= 0) {
+            text.appendChar((char) decoded);
+        }
+        else {
+            String entity = node.toString();
+            text.appendText(entity, 0, entity.length());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitLink(LinkTree node, Void unused) {
+        if (!node.getLabel().isEmpty()) {
+            visit(node.getLabel(), null);
+        }
+        else if (node.getReference() != null) {
+            String signature = node.getReference().getSignature();
+            text.appendReference(signature, 0, signature.length());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitLiteral(LiteralTree node, Void unused) {
+        String body = node.getBody().getBody();
+        text.appendText(body, 0, body.length());
+        return null;
+    }
+
+    @Override
+    public Void visitValue(ValueTree node, Void unused) {
+        if (node.getReference() != null) {
+            String signature = node.getReference().getSignature();
+            text.appendReference(signature, 0, signature.length());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitIndex(IndexTree node, Void unused) {
+        return node.getSearchTerm().accept(this, null);
+    }
+
+    @Override
+    public Void visitUnknownInlineTag(UnknownInlineTagTree node, Void unused) {
+        return visit(node.getContent(), null);
+    }
+
+    @Override
+    public Void visitErroneous(ErroneousTree node, Void unused) {
+        text.appendText(node.getBody(), 0, node.getBody().length());
+        return null;
+    }
+
+    @Override
+    public Void visitComment(CommentTree node, Void unused) {
+        return null;
+    }
+
+    @Override
+    public Void visitInheritDoc(InheritDocTree node, Void unused) {
+        if (inheritedComment != null) {
+            text.appendText(inheritedComment, 0, inheritedComment.length());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitDocRoot(DocRootTree node, Void unused) {
+        return null;
+    }
+
+    @Override
+    protected Void defaultAction(DocTree node, Void unused) {
+        String rendered = node.toString();
+        text.appendText(rendered, 0, rendered.length());
+        return null;
+    }
+}
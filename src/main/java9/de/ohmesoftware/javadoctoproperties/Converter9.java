@@ -1,19 +1,28 @@
 package de.ohmesoftware.javadoctoproperties;
 
 
-import com.sun.source.util.DocTrees;
 import jdk.javadoc.doclet.Doclet;
 import jdk.javadoc.doclet.DocletEnvironment;
 import jdk.javadoc.doclet.Reporter;
 
 import javax.lang.model.SourceVersion;
-import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
-import javax.lang.model.element.VariableElement;
 import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic;
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 
 /**
@@ -23,17 +32,43 @@ import java.util.*;
  */
 public class Converter9 implements Doclet {
 
-    private static final String EQUALS = "=";
-    private static final String SPACE = " ";
-    private static final String PROPERTY_SEPARATOR = ".";
     private static final String NAME = "JavaDoc to Properties";
 
     private static final String PREFIX_OPTION = "-prefix";
     private static final String OUTPUT_OPTION = "-output";
     private static final String INCLUDE_OPTION = "-includes";
     private static final String EXCLUDE_OPTION = "-excludes";
+    private static final String OUTPUT_ENCODING_OPTION = "-outputencoding";
+    private static final String CACHE_OPTION = "-cache";
+    private static final String THREADS_OPTION = "-threads";
+    private static final String JSON_OPTION = "-json";
+    private static final String YAML_OPTION = "-yaml";
+    private static final String INDEX_OPTION = "-index";
+    private static final String SHARDS_OPTION = "-shards";
+    private static final String BUNDLE_CLASS_OPTION = "-bundleclass";
+    private static final String BUNDLE_DIRECTORY_OPTION = "-bundledir";
+    private static final String METRICS_OPTION = "-metrics";
+    private static final String MERGE_OPTION = "-merge";
+    private static final String MERGE_POLICY_OPTION = "-mergepolicy";
+    private static final String VERBOSITY_OPTION = "-verbosity";
+    private static final String DIAGNOSTICS_OPTION = "-diagnostics";
+    private static final String TYPE_SELECTION_OPTION = "-typeselection";
+    private static final String MEMBER_SELECTION_OPTION = "-memberselection";
+    private static final String CURRENT_DIRECTORY = ".";
     private static final String EMPTY = "";
     private static final String DEFAULT_OUTPUT = "javadoc.properties";
+    private static final int CHUNK_SIZE = 512;
+
+    /**
+     * The compiled includes and excludes by option value, shared by the runs in the same JVM, e.g. by the
+     * {@link BatchConverter}.
+     */
+    private static final Map<String, GlobMatcher> GLOB_MATCHERS = new ConcurrentHashMap<>();
+
+    /**
+     * The compiled selection rules by option value, invalid rules are not cached.
+     */
+    private static final Map<String, SelectionRules> SELECTION_RULES = new ConcurrentHashMap<>();
 
     private Reporter reporter;
 
@@ -41,148 +76,251 @@ public class Converter9 implements Doclet {
 
     private String propertiesPrefix = EMPTY;
 
-    private List<String> includes;
+    private String cacheFile;
 
-    private List<String> excludes;
+    private String jsonOutput;
 
-    @Override
-    public void init(Locale locale, Reporter reporter) {
-        this.reporter = reporter;
-    }
+    private String yamlOutput;
 
-    @Override
-    public Set<? extends Option> getSupportedOptions() {
-        return Set.of(new Option() {
-                          @Override
-                          public int getArgumentCount() {
-                              return 1;
-                          }
-
-                          @Override
-                          public String getDescription() {
-                              return String.format("The output file name including the path. Default: %s", DEFAULT_OUTPUT);
-                          }
-
-                          @Override
-                          public Kind getKind() {
-                              return Kind.STANDARD;
-                          }
-
-                          @Override
-                          public List<String> getNames() {
-                              return List.of(OUTPUT_OPTION, "-o");
-                          }
-
-                          @Override
-                          public String getParameters() {
-                              return output != null ? output : DEFAULT_OUTPUT;
-                          }
-
-                          @Override
-                          public boolean process(String s, List<String> list) {
-                              output = list.get(0);
-                              return true;
-                          }
-                      },
-                new Option() {
-
-                    @Override
-                    public int getArgumentCount() {
-                        return 1;
-                    }
+    private String indexOutput;
 
-                    @Override
-                    public String getDescription() {
-                        return String.format("The property prefix used for all keys. Default: %s", EMPTY);
-                    }
+    private String shards;
 
-                    @Override
-                    public Kind getKind() {
-                        return Kind.STANDARD;
-                    }
+    private Sharding sharding;
 
-                    @Override
-                    public List<String> getNames() {
-                        return List.of(PREFIX_OPTION, "-p");
-                    }
+    private String bundleClass;
 
-                    @Override
-                    public String getParameters() {
-                        return propertiesPrefix != null ? propertiesPrefix : EMPTY;
-                    }
+    private String bundleDirectory = CURRENT_DIRECTORY;
 
-                    @Override
-                    public boolean process(String s, List<String> list) {
-                        propertiesPrefix = list.get(0);
-                        return true;
-                    }
-                },
-                new Option() {
+    private String metricsOutput;
 
-                    @Override
-                    public int getArgumentCount() {
-                        return 1;
-                    }
+    private String mergeFile;
 
-                    @Override
-                    public String getDescription() {
-                        return String.format("The includes classes separated by a colon (:). Default: %s", EMPTY);
-                    }
+    private MergingPropertiesWriter.Policy mergePolicy = MergingPropertiesWriter.Policy.MANUAL;
 
-                    @Override
-                    public Kind getKind() {
-                        return Kind.STANDARD;
-                    }
+    private Diagnostics.Verbosity verbosity = Diagnostics.Verbosity.NORMAL;
 
-                    @Override
-                    public List<String> getNames() {
-                        return List.of(INCLUDE_OPTION, "-i");
-                    }
+    private String diagnosticsFile;
 
-                    @Override
-                    public String getParameters() {
-                        return includes != null ? String.join(":", includes) : EMPTY;
-                    }
+    private Diagnostics diagnostics;
 
-                    @Override
-                    public boolean process(String s, List<String> list) {
-                        includes = Arrays.asList(list.get(0).split(":"));
-                        return true;
-                    }
-                },
-                new Option() {
+    private int threads = 1;
 
-                    @Override
-                    public int getArgumentCount() {
-                        return 1;
-                    }
+    private Charset outputEncoding = PropertiesWriter.DEFAULT_ENCODING;
 
-                    @Override
-                    public String getDescription() {
-                        return String.format("The excludes classes separated by a colon (:). Default: %s", EMPTY);
-                    }
+    private List<String> includes;
 
-                    @Override
-                    public Kind getKind() {
-                        return Kind.STANDARD;
-                    }
+    private List<String> excludes;
 
-                    @Override
-                    public List<String> getNames() {
-                        return List.of(EXCLUDE_OPTION, "-e");
-                    }
+    private GlobMatcher includeMatcher;
 
-                    @Override
-                    public String getParameters() {
-                        return excludes != null ? String.join(":", excludes) : EMPTY;
-                    }
+    private GlobMatcher excludeMatcher;
 
-                    @Override
-                    public boolean process(String s, List<String> list) {
-                        excludes = Arrays.asList(list.get(0).split(":"));
-                        return true;
-                    }
-                }
+    private SelectionRules typeSelection;
+
+    private SelectionRules memberSelection;
+
+    @Override
+    public void init(Locale locale, Reporter reporter) {
+        this.reporter = reporter;
+    }
+
+    @Override
+    public Set<? extends Option> getSupportedOptions() {
+        return Set.of(
+                new DocletOption(List.of(OUTPUT_OPTION, "-o"),
+                        String.format("The output file name including the path. Default: %s", DEFAULT_OUTPUT),
+                        () -> output != null ? output : DEFAULT_OUTPUT,
+                        value -> {
+                            output = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(JSON_OPTION),
+                        String.format("Writes the entries additionally as JSON object to this file. Default: %s", EMPTY),
+                        () -> jsonOutput != null ? jsonOutput : EMPTY,
+                        value -> {
+                            jsonOutput = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(YAML_OPTION),
+                        String.format("Writes the entries additionally as YAML mapping to this file. Default: %s", EMPTY),
+                        () -> yamlOutput != null ? yamlOutput : EMPTY,
+                        value -> {
+                            yamlOutput = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(INDEX_OPTION),
+                        String.format("Writes the entries additionally as binary index to this file. Default: %s", EMPTY),
+                        () -> indexOutput != null ? indexOutput : EMPTY,
+                        value -> {
+                            indexOutput = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(SHARDS_OPTION),
+                        String.format("Splits the properties file by package, package:<depth> or hash:<buckets>. Default: %s", EMPTY),
+                        () -> shards != null ? shards : EMPTY,
+                        value -> {
+                            sharding = Sharding.parse(value);
+                            if (sharding == null) {
+                                reporter.print(Diagnostic.Kind.ERROR, String.format("%s option only supports package, package:<depth> and hash:<buckets>.",
+                                        SHARDS_OPTION));
+                                return false;
+                            }
+                            shards = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(BUNDLE_CLASS_OPTION),
+                        String.format("Generates the source of a ListResourceBundle with this qualified class name. Default: %s", EMPTY),
+                        () -> bundleClass != null ? bundleClass : EMPTY,
+                        value -> {
+                            if (!SourceVersion.isName(value)) {
+                                reporter.print(Diagnostic.Kind.ERROR, String.format("%s option must be a qualified class name.",
+                                        BUNDLE_CLASS_OPTION));
+                                return false;
+                            }
+                            bundleClass = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(BUNDLE_DIRECTORY_OPTION),
+                        String.format("The source directory of the generated resource bundle. Default: %s", CURRENT_DIRECTORY),
+                        () -> bundleDirectory,
+                        value -> {
+                            bundleDirectory = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(METRICS_OPTION),
+                        String.format("Writes the run metrics as JSON to this file. Default: %s", EMPTY),
+                        () -> metricsOutput != null ? metricsOutput : EMPTY,
+                        value -> {
+                            metricsOutput = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(MERGE_OPTION),
+                        String.format("Merges the entries into this hand-maintained properties file and writes the result sorted to the output. Default: %s", EMPTY),
+                        () -> mergeFile != null ? mergeFile : EMPTY,
+                        value -> {
+                            mergeFile = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(MERGE_POLICY_OPTION),
+                        String.format("The value kept for keys contained in the merged file, generated or manual. Default: %s",
+                                MergingPropertiesWriter.Policy.MANUAL.name().toLowerCase(Locale.ROOT)),
+                        () -> mergePolicy.name().toLowerCase(Locale.ROOT),
+                        value -> {
+                            mergePolicy = MergingPropertiesWriter.Policy.parse(value);
+                            if (mergePolicy == null) {
+                                reporter.print(Diagnostic.Kind.ERROR, String.format("%s option only supports generated and manual.",
+                                        MERGE_POLICY_OPTION));
+                                return false;
+                            }
+                            return true;
+                        }),
+                new DocletOption(List.of(VERBOSITY_OPTION),
+                        String.format("The amount of output, quiet, normal or verbose. Default: %s",
+                                Diagnostics.Verbosity.NORMAL.name().toLowerCase(Locale.ROOT)),
+                        () -> verbosity.name().toLowerCase(Locale.ROOT),
+                        value -> {
+                            verbosity = Diagnostics.Verbosity.parse(value);
+                            if (verbosity == null) {
+                                reporter.print(Diagnostic.Kind.ERROR, String.format("%s option only supports quiet, normal and verbose.",
+                                        VERBOSITY_OPTION));
+                                return false;
+                            }
+                            return true;
+                        }),
+                new DocletOption(List.of(DIAGNOSTICS_OPTION),
+                        String.format("Writes each included class and missing comment to this file. Default: %s", EMPTY),
+                        () -> diagnosticsFile != null ? diagnosticsFile : EMPTY,
+                        value -> {
+                            diagnosticsFile = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(CACHE_OPTION),
+                        String.format("Enables the incremental mode and keeps the fingerprints of all types in this file. Default: %s", EMPTY),
+                        () -> cacheFile != null ? cacheFile : EMPTY,
+                        value -> {
+                            cacheFile = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(THREADS_OPTION),
+                        "The number of threads rendering the comments, 0 uses all processors. Default: 1",
+                        () -> String.valueOf(threads),
+                        value -> {
+                            try {
+                                threads = Integer.parseInt(value);
+                            } catch (NumberFormatException e) {
+                                threads = -1;
+                            }
+                            if (threads < 0) {
+                                reporter.print(Diagnostic.Kind.ERROR, String.format("%s option must be zero or a positive number.", THREADS_OPTION));
+                                return false;
+                            }
+                            if (threads == 0) {
+                                threads = Runtime.getRuntime().availableProcessors();
+                            }
+                            return true;
+                        }),
+                new DocletOption(List.of(PREFIX_OPTION, "-p"),
+                        String.format("The property prefix used for all keys. Default: %s", EMPTY),
+                        () -> propertiesPrefix != null ? propertiesPrefix : EMPTY,
+                        value -> {
+                            propertiesPrefix = value;
+                            return true;
+                        }),
+                new DocletOption(List.of(INCLUDE_OPTION, "-i"),
+                        String.format("The includes classes separated by a colon (:). Default: %s", EMPTY),
+                        () -> includes != null ? String.join(":", includes) : EMPTY,
+                        value -> {
+                            includes = Arrays.asList(value.split(":"));
+                            includeMatcher = GLOB_MATCHERS.computeIfAbsent(value, key -> GlobMatcher.compile(includes));
+                            return true;
+                        }),
+                new DocletOption(List.of(EXCLUDE_OPTION, "-e"),
+                        String.format("The excludes classes separated by a colon (:). Default: %s", EMPTY),
+                        () -> excludes != null ? String.join(":", excludes) : EMPTY,
+                        value -> {
+                            excludes = Arrays.asList(value.split(":"));
+                            excludeMatcher = GLOB_MATCHERS.computeIfAbsent(value, key -> GlobMatcher.compile(excludes));
+                            return true;
+                        }),
+                new DocletOption(List.of(TYPE_SELECTION_OPTION),
+                        String.format("The rules selecting the classes by annotations and modifiers separated by a colon (:), e.g. @Entity:public. Default: %s", EMPTY),
+                        () -> typeSelection != null ? typeSelection.toString() : EMPTY,
+                        value -> {
+                            typeSelection = SELECTION_RULES.computeIfAbsent(value, SelectionRules::parse);
+                            if (typeSelection == null) {
+                                reporter.print(Diagnostic.Kind.ERROR, String.format("%s option only supports annotations and modifiers.",
+                                        TYPE_SELECTION_OPTION));
+                                return false;
+                            }
+                            return true;
+                        }),
+                new DocletOption(List.of(MEMBER_SELECTION_OPTION),
+                        String.format("The rules selecting the fields and getters by annotations and modifiers separated by a colon (:), e.g. !@JsonIgnore:!transient. Default: %s", EMPTY),
+                        () -> memberSelection != null ? memberSelection.toString() : EMPTY,
+                        value -> {
+                            memberSelection = SELECTION_RULES.computeIfAbsent(value, SelectionRules::parse);
+                            if (memberSelection == null) {
+                                reporter.print(Diagnostic.Kind.ERROR, String.format("%s option only supports annotations and modifiers.",
+                                        MEMBER_SELECTION_OPTION));
+                                return false;
+                            }
+                            return true;
+                        }),
+                new DocletOption(List.of(OUTPUT_ENCODING_OPTION),
+                        String.format("The encoding of the output file, ISO-8859-1 or UTF-8. Default: %s",
+                                PropertiesWriter.DEFAULT_ENCODING.name()),
+                        () -> outputEncoding.name(),
+                        value -> {
+                            Charset encoding = PropertiesWriter.getEncoding(value);
+                            if (encoding == null) {
+                                reporter.print(Diagnostic.Kind.ERROR, String.format("%s option only supports ISO-8859-1 and UTF-8.",
+                                        OUTPUT_ENCODING_OPTION));
+                                return false;
+                            }
+                            outputEncoding = encoding;
+                            return true;
+                        })
         );
 
     }
@@ -195,87 +333,282 @@ public class Converter9 implements Doclet {
      */
     @Override
     public boolean run(DocletEnvironment docletEnvironment) {
-        DocTrees docTrees = docletEnvironment.getDocTrees();
-        StringWriter stringWriter = new StringWriter();
-        PrintWriter printWriter = new PrintWriter(stringWriter);
-        String propertyPrefix = buildPrefix(propertiesPrefix);
-        Set<TypeElement> typeElements = ElementFilter.typesIn(docletEnvironment.getSpecifiedElements());
-        typeElements.stream().filter(this::matchFilter).forEach(
-                t -> {
-                    printProperty(printWriter, propertyPrefix, t, docTrees);
-                    for (VariableElement fieldDoc : ElementFilter.fieldsIn(t.getEnclosedElements())) {
-                        printProperty(printWriter, propertyPrefix + buildPropertyName(t), fieldDoc, docTrees);
+        if (sharding != null && mergeFile != null) {
+            reporter.print(Diagnostic.Kind.ERROR, String.format("%s option cannot be combined with %s.", MERGE_OPTION, SHARDS_OPTION));
+            return false;
+        }
+        try (Diagnostics diagnostics = new Diagnostics(reporter::print, verbosity,
+                diagnosticsFile != null ? Paths.get(diagnosticsFile) : null)) {
+            this.diagnostics = diagnostics;
+            boolean successful = convert(docletEnvironment);
+            diagnostics.summarize();
+            return successful;
+        } catch (IOException e) {
+            reporter.print(Diagnostic.Kind.ERROR, String.format("Could not write diagnostics file: %s", e.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * Writes the entries of the specified types.
+     */
+    private boolean convert(DocletEnvironment docletEnvironment) {
+        RunMetrics metrics = new RunMetrics(Converter9.class.getSimpleName());
+        metrics.startPhase("filter");
+        PropertiesExtractor extractor = new PropertiesExtractor(propertiesPrefix, includeMatcher, excludeMatcher,
+                typeSelection, memberSelection, docletEnvironment.getDocTrees(), docletEnvironment.getElementUtils(), diagnostics);
+        List<TypeElement> specifiedTypes = new ArrayList<>(ElementFilter.typesIn(docletEnvironment.getSpecifiedElements()));
+        for (PackageElement packageElement : ElementFilter.packagesIn(docletEnvironment.getSpecifiedElements())) {
+            specifiedTypes.addAll(ElementFilter.typesIn(packageElement.getEnclosedElements()));
+        }
+        List<TypeElement> typeElements = PropertiesExtractor.addNestedTypes(specifiedTypes);
+        FingerprintCache cache = null;
+        FingerprintCache updatedCache = null;
+        if (cacheFile != null) {
+            try {
+                cache = FingerprintCache.load(Paths.get(cacheFile));
+            } catch (IOException e) {
+                diagnostics.print(Diagnostic.Kind.WARNING, String.format("Could not read cache file, regenerating all entries: %s", e.getMessage()));
+                cache = new FingerprintCache();
+            }
+            updatedCache = new FingerprintCache();
+        }
+        // the set of the specified elements has no stable order
+        List<TypeElement> matchedTypes = typeElements.stream().filter(extractor::matchFilter)
+                .sorted(Comparator.comparing(typeElement -> typeElement.getQualifiedName().toString()))
+                .collect(Collectors.toList());
+        int renderedTypes = 0;
+        ForkJoinPool forkJoinPool = threads > 1 ? new ForkJoinPool(threads) : null;
+        metrics.startPhase("open");
+        try (PropertySink propertySink = openSinks(metrics)) {
+            // render chunk by chunk to keep the per-type buffers bounded
+            for (int start = 0; start < matchedTypes.size(); start += CHUNK_SIZE) {
+                List<TypeElement> chunk = matchedTypes.subList(start, Math.min(start + CHUNK_SIZE, matchedTypes.size()));
+                List<List<PropertyEntry>> chunkEntries = new ArrayList<>(chunk.size());
+                List<List<String>> missingComments = new ArrayList<>();
+                String[] fingerprints = new String[chunk.size()];
+                List<TypeElement> changedTypes = new ArrayList<>();
+                metrics.startPhase("render");
+                for (int i = 0; i < chunk.size(); i++) {
+                    List<PropertyEntry> entries = null;
+                    if (cache != null) {
+                        fingerprints[i] = extractor.fingerprint(chunk.get(i));
+                        entries = cache.get(chunk.get(i).getQualifiedName().toString(), fingerprints[i]);
                     }
+                    if (entries == null) {
+                        changedTypes.add(chunk.get(i));
+                    }
+                    chunkEntries.add(entries);
                 }
-        );
-        try (OutputStreamWriter outputStreamWriter = new OutputStreamWriter(new FileOutputStream(output))) {
-            reporter.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(output).getAbsolutePath()));
-            outputStreamWriter.write(stringWriter.toString());
+                renderedTypes += changedTypes.size();
+                Iterator<List<PropertyEntry>> renderedEntries = renderTypes(forkJoinPool, changedTypes, extractor, metrics,
+                        missingComments).iterator();
+                Iterator<List<String>> renderedMissingComments = missingComments.iterator();
+                metrics.startPhase("write");
+                for (int i = 0; i < chunk.size(); i++) {
+                    String qualifiedName = chunk.get(i).getQualifiedName().toString();
+                    List<PropertyEntry> entries = chunkEntries.get(i);
+                    List<String> typeMissingComments;
+                    if (entries == null) {
+                        entries = renderedEntries.next();
+                        typeMissingComments = renderedMissingComments.next();
+                    } else {
+                        // the type is not rendered, its missing comments are reported from the cache
+                        typeMissingComments = cache.getMissingComments(qualifiedName);
+                        for (String missingComment : typeMissingComments) {
+                            diagnostics.report(Diagnostic.Kind.WARNING, Diagnostics.MISSING_COMMENT, missingComment);
+                        }
+                    }
+                    if (updatedCache != null) {
+                        updatedCache.put(qualifiedName, fingerprints[i], entries, typeMissingComments);
+                    }
+                    propertySink.startType(docletEnvironment.getElementUtils().getPackageOf(chunk.get(i)).getQualifiedName().toString());
+                    metrics.addType();
+                    for (PropertyEntry entry : entries) {
+                        metrics.addEntry(entry.getValue());
+                        propertySink.write(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            metrics.startPhase("close");
+            propertySink.commit();
         } catch (IOException e) {
-            reporter.print(Diagnostic.Kind.ERROR, String.format("Could not write to properties file: %s", e.getMessage()));
+            diagnostics.print(Diagnostic.Kind.ERROR, String.format("Could not write to properties file: %s", e.getMessage()));
             return false;
+        } finally {
+            if (forkJoinPool != null) {
+                forkJoinPool.shutdown();
+            }
         }
-        return true;
+        if (updatedCache != null) {
+            metrics.startPhase("cache");
+            diagnostics.print(Diagnostic.Kind.NOTE, String.format("Rendered %d changed types", renderedTypes));
+            try {
+                updatedCache.save(Paths.get(cacheFile));
+            } catch (IOException e) {
+                diagnostics.print(Diagnostic.Kind.ERROR, String.format("Could not write cache file: %s", e.getMessage()));
+                return false;
+            }
+        }
+        metrics.endPhase();
+        return reportMetrics(metrics);
     }
 
-    private static String getRegEx(String pattern) {
-        String _pattern = pattern.replace(".", "\\.");
-        _pattern = _pattern.replace("**", ".*");
-        _pattern = _pattern.replace("*", ".*");
-        _pattern = _pattern.replace("?", ".");
-        return _pattern;
+    /**
+     * Prints the metrics summary and writes the metrics file if requested.
+     */
+    private boolean reportMetrics(RunMetrics metrics) {
+        diagnostics.print(Diagnostic.Kind.NOTE, metrics.getSummary());
+        if (metricsOutput != null) {
+            try {
+                metrics.writeJson(Paths.get(metricsOutput));
+            } catch (IOException e) {
+                diagnostics.print(Diagnostic.Kind.ERROR, String.format("Could not write metrics file: %s", e.getMessage()));
+                return false;
+            }
+        }
+        return true;
     }
 
-    private boolean matchFilter(TypeElement typeElement) {
-        return (includes == null || includes.stream().anyMatch(
-                include -> {
-                            boolean matches = typeElement.getQualifiedName().toString().matches(getRegEx(include));
-                            if (matches) {
-                                reporter.print(Diagnostic.Kind.NOTE, String.format("Including class: '%s'", typeElement.getQualifiedName().toString()));
-                            }
-                            return matches;
-                        }
-                )
-        )
-                && (excludes == null ||
-                excludes.stream().noneMatch(
-                        exclude -> {
-                            boolean matches = typeElement.getQualifiedName().toString().matches(getRegEx(exclude));
-                            if (matches) {
-                                reporter.print(Diagnostic.Kind.NOTE, String.format("Excluding class: '%s'", typeElement.getQualifiedName().toString()));
-                            }
-                            return matches;
-                        })
-        );
+    /**
+     * Opens the properties file and the additionally requested formats. All are written from the same entries.
+     */
+    private PropertySink openSinks(RunMetrics metrics) throws IOException {
+        List<PropertySink> sinks = new ArrayList<>();
+        try {
+            if (sharding != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing shards of %s", new File(output).getAbsolutePath()));
+                ShardedPropertiesWriter shardedWriter = new ShardedPropertiesWriter(Paths.get(output), outputEncoding, sharding);
+                sinks.add(shardedWriter);
+                metrics.addOutputFiles(shardedWriter::getFiles);
+            } else if (mergeFile != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Merging %s into %s", mergeFile, new File(output).getAbsolutePath()));
+                sinks.add(new MergingPropertiesWriter(Paths.get(output), outputEncoding, Paths.get(mergeFile), mergePolicy));
+                metrics.addOutputFile(Paths.get(output));
+            } else {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(output).getAbsolutePath()));
+                sinks.add(new PropertiesWriter(Paths.get(output), outputEncoding));
+                metrics.addOutputFile(Paths.get(output));
+            }
+            if (jsonOutput != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(jsonOutput).getAbsolutePath()));
+                sinks.add(new JsonWriter(Paths.get(jsonOutput)));
+                metrics.addOutputFile(Paths.get(jsonOutput));
+            }
+            if (yamlOutput != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(yamlOutput).getAbsolutePath()));
+                sinks.add(new YamlWriter(Paths.get(yamlOutput)));
+                metrics.addOutputFile(Paths.get(yamlOutput));
+            }
+            if (indexOutput != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(indexOutput).getAbsolutePath()));
+                sinks.add(new IndexWriter(Paths.get(indexOutput)));
+                metrics.addOutputFile(Paths.get(indexOutput));
+            }
+            if (bundleClass != null) {
+                diagnostics.print(Diagnostic.Kind.NOTE, String.format("Generating %s in %s", bundleClass, new File(bundleDirectory).getAbsolutePath()));
+                sinks.add(new ResourceBundleWriter(Paths.get(bundleDirectory), bundleClass));
+                metrics.addOutputFile(Paths.get(bundleDirectory).resolve(bundleClass.replace('.', '/') + ".java"));
+            }
+        } catch (IOException e) {
+            ConcurrentSinks.closeAll(sinks, e);
+            throw e;
+        }
+        return ConcurrentSinks.of(sinks);
     }
 
-    private static String buildPropertyName(Element memberDoc) {
-        return memberDoc.getSimpleName().toString().substring(0, 1).toLowerCase() + memberDoc.getSimpleName().toString().substring(1);
+    /**
+     * Renders the types in parallel if enabled. The result has the same order as the passed types.
+     * <p>
+     * The <code>DocTrees</code> lookups are serialized, only the rendering of the comments runs concurrently. If the
+     * parallel rendering fails nevertheless, the types are rendered sequentially and the parallel mode is disabled.
+     * </p>
+     */
+    private List<List<PropertyEntry>> renderTypes(ForkJoinPool forkJoinPool, List<TypeElement> typeElements,
+                                                  PropertiesExtractor extractor, RunMetrics metrics,
+                                                  List<List<String>> missingComments) {
+        // javac completes the symbols lazily and is not thread safe, only the collected doc trees are rendered in parallel
+        List<PropertiesExtractor.TypeComments> types = new ArrayList<>(typeElements.size());
+        long[] collectNanos = new long[typeElements.size()];
+        for (TypeElement typeElement : typeElements) {
+            long start = System.nanoTime();
+            types.add(extractor.collect(typeElement));
+            collectNanos[types.size() - 1] = System.nanoTime() - start;
+        }
+        for (PropertiesExtractor.TypeComments type : types) {
+            missingComments.add(type.getMissingComments());
+        }
+        IntFunction<List<PropertyEntry>> renderer = index -> {
+            long start = System.nanoTime();
+            PropertiesExtractor.TypeComments type = types.get(index);
+            List<PropertyEntry> entries = extractor.render(type);
+            metrics.addRenderedType(type.getQualifiedName(), collectNanos[index] + System.nanoTime() - start);
+            return entries;
+        };
+        if (forkJoinPool != null && threads > 1 && types.size() > 1) {
+            try {
+                return forkJoinPool.submit(() -> IntStream.range(0, types.size()).parallel()
+                        .mapToObj(renderer)
+                        .collect(Collectors.toList())).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                threads = 1;
+                diagnostics.print(Diagnostic.Kind.WARNING, "Parallel rendering interrupted, falling back to sequential rendering.");
+            } catch (ExecutionException e) {
+                threads = 1;
+                diagnostics.print(Diagnostic.Kind.WARNING, String.format("Parallel rendering failed, falling back to sequential rendering: %s",
+                        e.getCause()));
+            }
+        }
+        return IntStream.range(0, types.size()).mapToObj(renderer).collect(Collectors.toList());
     }
 
-    private static String buildPrefix(String propertiesPrefix) {
-        if (!propertiesPrefix.endsWith(PROPERTY_SEPARATOR) && !propertiesPrefix.equals(EMPTY)) {
-            propertiesPrefix += PROPERTY_SEPARATOR;
+    /**
+     * Doclet option taking a single argument.
+     */
+    private static class DocletOption implements Option {
+
+        private final List<String> names;
+        private final String description;
+        private final Supplier<String> parameters;
+        private final Predicate<String> processor;
+
+        DocletOption(List<String> names, String description, Supplier<String> parameters, Predicate<String> processor) {
+            this.names = names;
+            this.description = description;
+            this.parameters = parameters;
+            this.processor = processor;
         }
-        return propertiesPrefix;
-    }
 
-    private void printProperty(PrintWriter printWriter, String propertiesPrefix, Element memberDoc, DocTrees docTrees) {
-        printWriter.print(buildPrefix(propertiesPrefix));
-        printWriter.print(buildPropertyName(memberDoc));
-        printWriter.print(EQUALS);
-        if (docTrees.getDocCommentTree(memberDoc) == null) {
-            reporter.print(Diagnostic.Kind.WARNING, String.format("Missing comment on property '%s.%s'",
-                    memberDoc.getEnclosingElement().getSimpleName().toString(), memberDoc.getSimpleName().toString()));
-            printWriter.println();
+        @Override
+        public int getArgumentCount() {
+            return 1;
         }
-        else {
-            printWriter.println(cleanComment(docTrees.getDocCommentTree(memberDoc).getFullBody().toString()));
+
+        @Override
+        public String getDescription() {
+            return description;
         }
-    }
 
-    private static String cleanComment(String comment) {
-        return comment.replaceAll("\\n", SPACE).replaceAll("\\s+", SPACE).replaceAll(",<", "<").replaceAll(">,", ">");
+        @Override
+        public Kind getKind() {
+            return Kind.STANDARD;
+        }
+
+        @Override
+        public List<String> getNames() {
+            return names;
+        }
+
+        @Override
+        public String getParameters() {
+            return parameters.get();
+        }
+
+        @Override
+        public boolean process(String option, List<String> arguments) {
+            return processor.test(arguments.get(0));
+        }
     }
 
     @Override
@@ -0,0 +1,169 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementScanner9;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the members of a type stored as properties in one pass over its enclosed elements: the fields, the enum
+ * constants, the record components and the getters.
+ * <p>
+ * Nested types are collected but not entered, they are stored as separate types. Record components are only known
+ * since Java 16, they are detected by the name of their kind. Fields, record components and getters not matching the
+ * member selection rules are skipped.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+class MemberScanner extends ElementScanner9<Void, Void> {
+
+    private static final String RECORD_KIND = "RECORD";
+    private static final String RECORD_COMPONENT_KIND = "RECORD_COMPONENT";
+
+    private final List<VariableElement> fields = new ArrayList<>();
+
+    private final List<Element> recordComponents = new ArrayList<>();
+
+    private final List<ExecutableElement> getters = new ArrayList<>();
+
+    private final List<TypeElement> nestedTypes = new ArrayList<>();
+
+    private final SelectionRules memberSelection;
+
+    /**
+     * Constructor collecting all members.
+     */
+    MemberScanner() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param memberSelection The rules selecting the members or <code>null</code> to select all members.
+     */
+    MemberScanner(SelectionRules memberSelection) {
+        this.memberSelection = memberSelection;
+    }
+
+    /**
+     * Scans the enclosed elements of a type.
+     *
+     * @param typeElement The type.
+     * @return this scanner.
+     */
+    MemberScanner scanMembers(TypeElement typeElement) {
+        scan(typeElement.getEnclosedElements(), null);
+        return this;
+    }
+
+    /**
+     * Checks if a type is a record.
+     *
+     * @param typeElement The type.
+     * @return <code>true</code> for records.
+     */
+    static boolean isRecord(TypeElement typeElement) {
+        return typeElement.getKind().name().equals(RECORD_KIND);
+    }
+
+    /**
+     * Checks if a method is a getter.
+     *
+     * @param method The method.
+     * @return <code>true</code> for instance methods without parameters named like a getter and returning a value.
+     */
+    static boolean isGetter(ExecutableElement method) {
+        TypeKind returnKind = method.getReturnType().getKind();
+        return method.getKind() == ElementKind.METHOD && method.getParameters().isEmpty()
+                && !method.getModifiers().contains(Modifier.STATIC) && returnKind != TypeKind.VOID
+                && PropertyKeys.getGetterPropertyName(method.getSimpleName(), returnKind == TypeKind.BOOLEAN) != null;
+    }
+
+    /**
+     * Gets the property name of a getter.
+     *
+     * @param getter The getter.
+     * @return the property name.
+     */
+    static String getPropertyName(ExecutableElement getter) {
+        return PropertyKeys.getGetterPropertyName(getter.getSimpleName(), getter.getReturnType().getKind() == TypeKind.BOOLEAN);
+    }
+
+    @Override
+    public Void visitVariable(VariableElement e, Void unused) {
+        if ((e.getKind() == ElementKind.FIELD || e.getKind() == ElementKind.ENUM_CONSTANT) && isSelected(e)) {
+            fields.add(e);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitExecutable(ExecutableElement e, Void unused) {
+        if (isGetter(e) && isSelected(e)) {
+            getters.add(e);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitType(TypeElement e, Void unused) {
+        nestedTypes.add(e);
+        return null;
+    }
+
+    @Override
+    public Void visitUnknown(Element e, Void unused) {
+        if (e.getKind().name().equals(RECORD_COMPONENT_KIND) && isSelected(e)) {
+            recordComponents.add(e);
+        }
+        return null;
+    }
+
+    private boolean isSelected(Element e) {
+        return memberSelection == null || memberSelection.matches(e);
+    }
+
+    /**
+     * Gets the fields and enum constants in declaration order.
+     *
+     * @return the fields.
+     */
+    List<VariableElement> getFields() {
+        return fields;
+    }
+
+    /**
+     * Gets the record components in declaration order.
+     *
+     * @return the record components, empty if the type is not a record.
+     */
+    List<Element> getRecordComponents() {
+        return recordComponents;
+    }
+
+    /**
+     * Gets the getters in declaration order.
+     *
+     * @return the getters.
+     */
+    List<ExecutableElement> getGetters() {
+        return getters;
+    }
+
+    /**
+     * Gets the directly nested types.
+     *
+     * @return the nested types.
+     */
+    List<TypeElement> getNestedTypes() {
+        return nestedTypes;
+    }
+}
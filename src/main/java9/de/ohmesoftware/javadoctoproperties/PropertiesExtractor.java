@@ -0,0 +1,580 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import com.sun.source.doctree.DocCommentTree;
+import com.sun.source.doctree.DocTree;
+import com.sun.source.doctree.ParamTree;
+import com.sun.source.util.DocTrees;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extracts the properties of types from their doc comments.
+ * <p>
+ * Used by the doclet {@link Converter9} and the annotation processor {@link PropertiesProcessor}. The javac elements
+ * and doc trees are not thread safe, so a type is processed in two steps: {@link #collect(TypeElement)} accesses the
+ * elements and looks up the doc comments on the calling thread, {@link #render(TypeComments)} only visits the collected
+ * doc trees and can be called concurrently.
+ * </p>
+ * <p>
+ * The members of a type are collected by the {@link MemberScanner}: fields, enum constants, record components and
+ * getters. A getter is only stored if there is no documented field of the same property. Inherited fields and getters
+ * of the superclasses are stored under the key of the type if they are documented. A getter without comment or with
+ * <code>{@literal {@inheritDoc}}</code> gets the comment of the overridden method. The members of the superclasses and
+ * the comments of the overridden methods are rendered once and memoized, so the rendering cost does not grow with the
+ * number of subclasses.
+ * </p>
+ * <p>
+ * The type and member selection rules are checked on the modifiers and annotations of the elements before their doc
+ * comments are looked up, unselected elements are almost free.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class PropertiesExtractor {
+
+    private static final String EMPTY = "";
+
+    private final String propertiesPrefix;
+
+    private final String propertyPrefix;
+
+    private final GlobMatcher includeMatcher;
+
+    private final GlobMatcher excludeMatcher;
+
+    private final SelectionRules typeSelection;
+
+    private final SelectionRules memberSelection;
+
+    private final DocTrees docTrees;
+
+    private final Elements elements;
+
+    private final Diagnostics diagnostics;
+
+    private final ThreadLocal<CommentRenderer> commentRenderer = ThreadLocal.withInitial(CommentRenderer::new);
+
+    /**
+     * The collected members of the superclasses, only accessed by the collecting thread.
+     */
+    private final Map<TypeElement, DeclaredMembers> declaredMembers = new HashMap<>();
+
+    /**
+     * The collected comments of the overridden methods, only accessed by the collecting thread.
+     */
+    private final Map<ExecutableElement, CommentSource> inheritedComments = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param propertiesPrefix The property prefix used for all keys.
+     * @param includeMatcher   The includes or <code>null</code> to include all types.
+     * @param excludeMatcher   The excludes or <code>null</code> to exclude no type.
+     * @param typeSelection    The rules selecting the types or <code>null</code> to select all types.
+     * @param memberSelection  The rules selecting the members or <code>null</code> to select all members.
+     * @param docTrees         The doc trees.
+     * @param elements         The element utilities.
+     * @param diagnostics      The diagnostics counting the included and excluded classes and the missing comments.
+     */
+    public PropertiesExtractor(String propertiesPrefix, GlobMatcher includeMatcher, GlobMatcher excludeMatcher,
+                               SelectionRules typeSelection, SelectionRules memberSelection,
+                               DocTrees docTrees, Elements elements, Diagnostics diagnostics) {
+        this.propertiesPrefix = propertiesPrefix;
+        this.propertyPrefix = PropertyKeys.buildPrefix(propertiesPrefix);
+        this.includeMatcher = includeMatcher;
+        this.excludeMatcher = excludeMatcher;
+        this.typeSelection = typeSelection;
+        this.memberSelection = memberSelection;
+        this.docTrees = docTrees;
+        this.elements = elements;
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Adds the nested types. Each nested type follows its enclosing type. Nested types contained in the passed types
+     * are only added once.
+     *
+     * @param typeElements The types.
+     * @return the types and their nested types.
+     */
+    public static List<TypeElement> addNestedTypes(Collection<? extends TypeElement> typeElements) {
+        Set<TypeElement> allTypes = new LinkedHashSet<>(typeElements.size());
+        Deque<TypeElement> pending = new ArrayDeque<>();
+        for (TypeElement typeElement : typeElements) {
+            pending.push(typeElement);
+            while (!pending.isEmpty()) {
+                TypeElement next = pending.pop();
+                if (!allTypes.add(next)) {
+                    continue;
+                }
+                List<TypeElement> nestedTypes = new MemberScanner().scanMembers(next).getNestedTypes();
+                for (int i = nestedTypes.size() - 1; i >= 0; i--) {
+                    pending.push(nestedTypes.get(i));
+                }
+            }
+        }
+        return new ArrayList<>(allTypes);
+    }
+
+    /**
+     * Checks the includes, the excludes and the type selection rules.
+     *
+     * @param typeElement The type.
+     * @return <code>true</code> if the type is included, not excluded and selected.
+     */
+    public boolean matchFilter(TypeElement typeElement) {
+        String qualifiedName = typeElement.getQualifiedName().toString();
+        if (includeMatcher != null) {
+            if (!includeMatcher.matches(qualifiedName)) {
+                return false;
+            }
+            diagnostics.report(Diagnostic.Kind.NOTE, Diagnostics.INCLUDED, qualifiedName);
+        }
+        if ((excludeMatcher != null && excludeMatcher.matches(qualifiedName))
+                || (typeSelection != null && !typeSelection.matches(typeElement))) {
+            diagnostics.report(Diagnostic.Kind.NOTE, Diagnostics.EXCLUDED, qualifiedName);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks the name of a type against the includes and excludes without reporting it.
+     *
+     * @param qualifiedName The qualified name of the type.
+     * @return <code>true</code> if the name is included and not excluded.
+     */
+    boolean matchName(String qualifiedName) {
+        return (includeMatcher == null || includeMatcher.matches(qualifiedName))
+                && (excludeMatcher == null || !excludeMatcher.matches(qualifiedName));
+    }
+
+    /**
+     * Builds the fingerprint of a type from the raw doc comments without rendering them. The comments of the
+     * supertypes are included, they can be inherited. The signature of each member is included, it decides if a method
+     * is a getter. With member selection rules the selection of each member is included.
+     *
+     * @param typeElement The type.
+     * @return the fingerprint.
+     */
+    public String fingerprint(TypeElement typeElement) {
+        FingerprintCache.Fingerprint fingerprint = new FingerprintCache.Fingerprint()
+                .add(propertiesPrefix)
+                .add(memberSelection != null ? memberSelection.toString() : null)
+                .add(typeElement.getSimpleName());
+        for (TypeElement type : getTypeAndSupertypes(typeElement)) {
+            fingerprint.add(type.getQualifiedName()).add(type.getKind().name()).add(elements.getDocComment(type));
+            for (Element member : type.getEnclosedElements()) {
+                if (!(member instanceof TypeElement)) {
+                    fingerprint.add(member.getSimpleName()).add(getSignature(member)).add(elements.getDocComment(member));
+                    if (memberSelection != null) {
+                        // the annotations and modifiers are not part of the comments
+                        fingerprint.add(String.valueOf(memberSelection.matches(member)));
+                    }
+                }
+            }
+        }
+        return fingerprint.build();
+    }
+
+    /**
+     * Builds the signature of a member as far as it decides about the rendered entries: the kind, the modifiers, the
+     * number of parameters and the kind of the type, e.g. <code>BOOLEAN</code> for <code>boolean</code> and
+     * <code>DECLARED</code> for <code>Boolean</code>.
+     */
+    private static String getSignature(Element member) {
+        StringBuilder signature = new StringBuilder(member.getKind().name());
+        List<String> modifiers = new ArrayList<>();
+        for (Modifier modifier : member.getModifiers()) {
+            modifiers.add(modifier.name());
+        }
+        Collections.sort(modifiers);
+        signature.append(' ').append(String.join(" ", modifiers));
+        if (member instanceof ExecutableElement) {
+            ExecutableElement method = (ExecutableElement) member;
+            signature.append(' ').append(method.getParameters().size()).append(' ').append(method.getReturnType().getKind().name());
+        } else {
+            signature.append(' ').append(member.asType().getKind().name());
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Renders the entries of a type and its members. Nested types are not rendered.
+     *
+     * @param typeElement The type.
+     * @return the entries.
+     */
+    public List<PropertyEntry> renderType(TypeElement typeElement) {
+        return render(collect(typeElement));
+    }
+
+    /**
+     * Collects the doc comments of a type and its members. The elements and the doc trees are accessed here, so this
+     * must be called by the thread running the doclet or the processor.
+     *
+     * @param typeElement The type.
+     * @return the collected comments to pass to {@link #render(TypeComments)}.
+     */
+    TypeComments collect(TypeElement typeElement) {
+        DocCommentTree typeComment = docTrees.getDocCommentTree(typeElement);
+        DeclaredMembers members = declaredMembers.get(typeElement);
+        if (members == null) {
+            members = collectMembers(typeElement, typeComment);
+        }
+        List<DeclaredMembers> superclassMembers = new ArrayList<>();
+        TypeElement superclass = asTypeElement(typeElement.getSuperclass());
+        while (superclass != null) {
+            superclassMembers.add(getDeclaredMembers(superclass));
+            superclass = asTypeElement(superclass.getSuperclass());
+        }
+        return new TypeComments(typeElement.getQualifiedName().toString(), typeElement.getSimpleName().toString(),
+                typeComment != null ? typeComment.getFullBody() : null, members, superclassMembers);
+    }
+
+    /**
+     * Renders the collected comments of a type. Only the collected doc trees are visited, so types can be rendered
+     * concurrently.
+     *
+     * @param type The comments collected by {@link #collect(TypeElement)}.
+     * @return the entries.
+     */
+    List<PropertyEntry> render(TypeComments type) {
+        String memberPrefix = propertyPrefix + PropertyKeys.buildPropertyName(type.name) + PropertyKeys.PROPERTY_SEPARATOR;
+        List<PropertyEntry> entries = new ArrayList<>();
+        if (type.body == null) {
+            reportMissingComment(type, type.qualifiedName);
+        }
+        entries.add(new PropertyEntry(propertyPrefix + PropertyKeys.buildPropertyName(type.name),
+                type.body != null ? commentRenderer.get().render(type.body) : EMPTY));
+        Set<String> names = new HashSet<>();
+        for (Member member : renderMembers(type.members)) {
+            names.add(member.name);
+            if (!member.documented) {
+                reportMissingComment(type, type.name + PropertyKeys.PROPERTY_SEPARATOR + member.name);
+            }
+            entries.add(new PropertyEntry(memberPrefix + PropertyKeys.buildPropertyName(member.name), member.value));
+        }
+        for (DeclaredMembers superclassMembers : type.superclassMembers) {
+            for (Member member : renderMembers(superclassMembers)) {
+                // hidden and overridden members are stored from the subclass
+                if (member.documented && member.inheritable && names.add(member.name)) {
+                    entries.add(new PropertyEntry(memberPrefix + PropertyKeys.buildPropertyName(member.name), member.value));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private void reportMissingComment(TypeComments type, String name) {
+        type.missingComments.add(name);
+        diagnostics.report(Diagnostic.Kind.WARNING, Diagnostics.MISSING_COMMENT, name);
+    }
+
+    private DeclaredMembers getDeclaredMembers(TypeElement superclass) {
+        DeclaredMembers members = declaredMembers.get(superclass);
+        if (members == null) {
+            members = collectMembers(superclass, docTrees.getDocCommentTree(superclass));
+            declaredMembers.put(superclass, members);
+        }
+        return members;
+    }
+
+    /**
+     * Collects the comments of the members declared by a type.
+     */
+    private DeclaredMembers collectMembers(TypeElement typeElement, DocCommentTree typeComment) {
+        MemberScanner scanner = new MemberScanner(memberSelection).scanMembers(typeElement);
+        Map<String, MemberComment> members = new LinkedHashMap<>();
+        boolean record = MemberScanner.isRecord(typeElement);
+        for (Element recordComponent : scanner.getRecordComponents()) {
+            String name = recordComponent.getSimpleName().toString();
+            List<? extends DocTree> description = typeComment != null ? findParam(typeComment, name) : null;
+            members.put(name, new MemberComment(name, description != null ? new CommentSource(description, null) : null, false));
+        }
+        for (VariableElement field : scanner.getFields()) {
+            boolean staticField = field.getModifiers().contains(Modifier.STATIC);
+            if (record && !staticField) {
+                // the fields of the record components
+                continue;
+            }
+            String name = field.getSimpleName().toString();
+            DocCommentTree fieldComment = docTrees.getDocCommentTree(field);
+            members.putIfAbsent(name, new MemberComment(name,
+                    fieldComment != null ? new CommentSource(fieldComment.getFullBody(), null) : null,
+                    !staticField && field.getKind() == ElementKind.FIELD));
+        }
+        for (ExecutableElement getter : scanner.getGetters()) {
+            String name = MemberScanner.getPropertyName(getter);
+            MemberComment field = members.get(name);
+            if (field == null || field.comment == null) {
+                CommentSource comment = collectMethodComment(getter, typeElement);
+                if (field == null || comment != null) {
+                    members.put(name, new MemberComment(name, comment, true));
+                }
+            }
+        }
+        return new DeclaredMembers(new ArrayList<>(members.values()));
+    }
+
+    private static List<? extends DocTree> findParam(DocCommentTree typeComment, String name) {
+        for (DocTree blockTag : typeComment.getBlockTags()) {
+            if (blockTag.getKind() == DocTree.Kind.PARAM && !((ParamTree) blockTag).isTypeParameter()
+                    && ((ParamTree) blockTag).getName().getName().contentEquals(name)) {
+                return ((ParamTree) blockTag).getDescription();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Collects the comment of a method. A missing comment and <code>{@literal {@inheritDoc}}</code> are replaced by the
+     * comment of the overridden method when rendered.
+     *
+     * @return the comment or <code>null</code> if neither the method nor an overridden method is documented.
+     */
+    private CommentSource collectMethodComment(ExecutableElement method, TypeElement typeElement) {
+        DocCommentTree methodComment = docTrees.getDocCommentTree(method);
+        CommentSource inheritedComment = null;
+        if (methodComment == null || CommentRenderer.containsInheritDoc(methodComment.getFullBody())) {
+            ExecutableElement overridden = findOverriddenMethod(method, typeElement);
+            if (overridden != null) {
+                inheritedComment = getInheritedComment(overridden);
+            }
+        }
+        if (methodComment == null) {
+            return inheritedComment;
+        }
+        return new CommentSource(methodComment.getFullBody(), inheritedComment);
+    }
+
+    private CommentSource getInheritedComment(ExecutableElement method) {
+        if (!inheritedComments.containsKey(method)) {
+            inheritedComments.put(method, collectMethodComment(method, (TypeElement) method.getEnclosingElement()));
+        }
+        return inheritedComments.get(method);
+    }
+
+    private ExecutableElement findOverriddenMethod(ExecutableElement method, TypeElement typeElement) {
+        Set<TypeElement> supertypes = getTypeAndSupertypes(typeElement);
+        supertypes.remove(typeElement);
+        for (TypeElement supertype : supertypes) {
+            for (ExecutableElement candidate : ElementFilter.methodsIn(supertype.getEnclosedElements())) {
+                if (candidate.getSimpleName().contentEquals(method.getSimpleName())
+                        && elements.overrides(method, candidate, typeElement)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Renders the members declared by a type once, they are shared by the subclasses.
+     */
+    private List<Member> renderMembers(DeclaredMembers declaredMembers) {
+        List<Member> members = declaredMembers.rendered;
+        if (members == null) {
+            members = new ArrayList<>(declaredMembers.comments.size());
+            for (MemberComment comment : declaredMembers.comments) {
+                members.add(new Member(comment.name, comment.comment != null ? render(comment.comment) : null,
+                        comment.inheritable));
+            }
+            // rendered twice at most if requested concurrently
+            declaredMembers.rendered = members;
+        }
+        return members;
+    }
+
+    private String render(CommentSource comment) {
+        String inheritedComment = comment.inherited != null ? renderInherited(comment.inherited) : null;
+        if (comment.body == null) {
+            return inheritedComment;
+        }
+        // the inherited comment is rendered before, the renderer is reused
+        return commentRenderer.get().render(comment.body, inheritedComment);
+    }
+
+    private String renderInherited(CommentSource comment) {
+        String rendered = comment.rendered;
+        if (rendered == null) {
+            rendered = render(comment);
+            comment.rendered = rendered;
+        }
+        return rendered;
+    }
+
+    /**
+     * Gets the type, its superclasses and all interfaces, the nearest first.
+     */
+    private static Set<TypeElement> getTypeAndSupertypes(TypeElement typeElement) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        Deque<TypeElement> pending = new ArrayDeque<>();
+        pending.add(typeElement);
+        while (!pending.isEmpty()) {
+            TypeElement type = pending.poll();
+            if (types.add(type)) {
+                TypeElement superclass = asTypeElement(type.getSuperclass());
+                if (superclass != null) {
+                    pending.add(superclass);
+                }
+                for (TypeMirror superinterface : type.getInterfaces()) {
+                    TypeElement superinterfaceElement = asTypeElement(superinterface);
+                    if (superinterfaceElement != null) {
+                        pending.add(superinterfaceElement);
+                    }
+                }
+            }
+        }
+        return types;
+    }
+
+    private static TypeElement asTypeElement(TypeMirror typeMirror) {
+        return typeMirror.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) typeMirror).asElement() : null;
+    }
+
+    /**
+     * The doc comments of a type collected from its elements.
+     */
+    static final class TypeComments {
+
+        private final String qualifiedName;
+
+        private final String name;
+
+        private final List<? extends DocTree> body;
+
+        private final DeclaredMembers members;
+
+        private final List<DeclaredMembers> superclassMembers;
+
+        /**
+         * Filled by the thread rendering the type.
+         */
+        private final List<String> missingComments = new ArrayList<>();
+
+        private TypeComments(String qualifiedName, String name, List<? extends DocTree> body,
+                             DeclaredMembers members, List<DeclaredMembers> superclassMembers) {
+            this.qualifiedName = qualifiedName;
+            this.name = name;
+            this.body = body;
+            this.members = members;
+            this.superclassMembers = superclassMembers;
+        }
+
+        /**
+         * Gets the qualified name of the type.
+         *
+         * @return the qualified name.
+         */
+        String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        /**
+         * Gets the elements reported without comment when the type was rendered.
+         *
+         * @return the element names.
+         */
+        List<String> getMissingComments() {
+            return missingComments;
+        }
+    }
+
+    /**
+     * The comments of the members declared by a type and their rendering, once rendered.
+     */
+    private static class DeclaredMembers {
+
+        private final List<MemberComment> comments;
+
+        private volatile List<Member> rendered;
+
+        private DeclaredMembers(List<MemberComment> comments) {
+            this.comments = comments;
+        }
+    }
+
+    /**
+     * The comment of a member, <code>null</code> if not documented.
+     */
+    private static class MemberComment {
+
+        private final String name;
+
+        private final CommentSource comment;
+
+        private final boolean inheritable;
+
+        private MemberComment(String name, CommentSource comment, boolean inheritable) {
+            this.name = name;
+            this.comment = comment;
+            this.inheritable = inheritable;
+        }
+    }
+
+    /**
+     * A comment body and the comment of the overridden method replacing a missing body or
+     * <code>{@literal {@inheritDoc}}</code>.
+     */
+    private static class CommentSource {
+
+        private final List<? extends DocTree> body;
+
+        private final CommentSource inherited;
+
+        /**
+         * The rendering if inherited by another method.
+         */
+        private volatile String rendered;
+
+        private CommentSource(List<? extends DocTree> body, CommentSource inherited) {
+            this.body = body;
+            this.inherited = inherited;
+        }
+    }
+
+    /**
+     * A rendered member.
+     */
+    private static class Member {
+
+        private final String name;
+
+        private final String value;
+
+        private final boolean documented;
+
+        private final boolean inheritable;
+
+        private Member(String name, String comment, boolean inheritable) {
+            this.name = name;
+            this.value = comment != null ? comment : EMPTY;
+            this.documented = comment != null;
+            this.inheritable = inheritable;
+        }
+    }
+}
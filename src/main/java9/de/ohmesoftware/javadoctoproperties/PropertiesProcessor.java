@@ -0,0 +1,232 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import com.sun.source.util.DocTrees;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor storing the Javadocs as properties during the regular compilation.
+ * <p>
+ * The processor does not claim any annotations. It reads the doc comments of all compiled types and writes the
+ * properties file through the <code>Filer</code> to the class output, so it ends up on the classpath of the
+ * application. It must be enabled explicitly, e.g. with
+ * <code>-processor de.ohmesoftware.javadoctoproperties.PropertiesProcessor</code>.
+ * </p>
+ * <p>
+ * The properties file is rewritten by each compilation and only contains the types compiled by it. An incremental
+ * compilation only passes the changed source files, the properties of all other types are lost. The processor
+ * warns if the packages of the compiled types contain further included types, e.g. from a previous compilation in
+ * the class output. A full compilation must be used to get a complete properties file.
+ * </p>
+ * Options, passed with <code>-A</code>:
+ * <ul>
+ * <li><code>javadoctoproperties.prefix</code>: The property prefix used for all keys.</li>
+ * <li><code>javadoctoproperties.output</code>: The resource name of the properties file. Default:
+ * <code>javadoc.properties</code></li>
+ * <li><code>javadoctoproperties.includes</code>: The includes classes separated by a colon (:).</li>
+ * <li><code>javadoctoproperties.excludes</code>: The excludes classes separated by a colon (:).</li>
+ * <li><code>javadoctoproperties.outputencoding</code>: The encoding of the output file, ISO-8859-1 or UTF-8.</li>
+ * <li><code>javadoctoproperties.verbosity</code>: The amount of output, quiet, normal or verbose. Default:
+ * <code>normal</code></li>
+ * <li><code>javadoctoproperties.diagnostics</code>: The file receiving each included class and missing comment.</li>
+ * <li><code>javadoctoproperties.typeselection</code>: The rules selecting the classes by annotations and modifiers,
+ * see {@link SelectionRules}.</li>
+ * <li><code>javadoctoproperties.memberselection</code>: The rules selecting the fields and getters by annotations and
+ * modifiers.</li>
+ * </ul>
+ *
+ * @author Karsten Ohme
+ */
+public class PropertiesProcessor extends AbstractProcessor {
+
+    private static final String OPTION_PREFIX = "javadoctoproperties.";
+    private static final String PREFIX_OPTION = OPTION_PREFIX + "prefix";
+    private static final String OUTPUT_OPTION = OPTION_PREFIX + "output";
+    private static final String INCLUDE_OPTION = OPTION_PREFIX + "includes";
+    private static final String EXCLUDE_OPTION = OPTION_PREFIX + "excludes";
+    private static final String OUTPUT_ENCODING_OPTION = OPTION_PREFIX + "outputencoding";
+    private static final String VERBOSITY_OPTION = OPTION_PREFIX + "verbosity";
+    private static final String DIAGNOSTICS_OPTION = OPTION_PREFIX + "diagnostics";
+    private static final String TYPE_SELECTION_OPTION = OPTION_PREFIX + "typeselection";
+    private static final String MEMBER_SELECTION_OPTION = OPTION_PREFIX + "memberselection";
+    private static final String EMPTY = "";
+    private static final String DEFAULT_OUTPUT = "javadoc.properties";
+
+    private PropertiesExtractor extractor;
+
+    private String output = DEFAULT_OUTPUT;
+
+    private Charset outputEncoding = PropertiesWriter.DEFAULT_ENCODING;
+
+    private PropertiesWriter propertiesWriter;
+
+    private Diagnostics diagnostics;
+
+    private boolean failed;
+
+    private final Set<String> processedTypes = new HashSet<>();
+
+    private final Set<PackageElement> processedPackages = new HashSet<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        Map<String, String> options = processingEnv.getOptions();
+        if (options.containsKey(OUTPUT_OPTION)) {
+            output = options.get(OUTPUT_OPTION);
+        }
+        if (options.containsKey(OUTPUT_ENCODING_OPTION)) {
+            outputEncoding = PropertiesWriter.getEncoding(options.get(OUTPUT_ENCODING_OPTION));
+            if (outputEncoding == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        String.format("%s option only supports ISO-8859-1 and UTF-8.", OUTPUT_ENCODING_OPTION));
+                failed = true;
+            }
+        }
+        diagnostics = openDiagnostics(options);
+        String includes = options.get(INCLUDE_OPTION);
+        String excludes = options.get(EXCLUDE_OPTION);
+        extractor = new PropertiesExtractor(options.getOrDefault(PREFIX_OPTION, EMPTY),
+                includes != null ? GlobMatcher.compile(Arrays.asList(includes.split(":"))) : null,
+                excludes != null ? GlobMatcher.compile(Arrays.asList(excludes.split(":"))) : null,
+                parseSelection(options, TYPE_SELECTION_OPTION), parseSelection(options, MEMBER_SELECTION_OPTION),
+                DocTrees.instance(processingEnv), processingEnv.getElementUtils(),
+                diagnostics);
+    }
+
+    private SelectionRules parseSelection(Map<String, String> options, String option) {
+        if (!options.containsKey(option)) {
+            return null;
+        }
+        SelectionRules selectionRules = SelectionRules.parse(options.get(option));
+        if (selectionRules == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    String.format("%s option only supports annotations and modifiers.", option));
+            failed = true;
+        }
+        return selectionRules;
+    }
+
+    private Diagnostics openDiagnostics(Map<String, String> options) {
+        Diagnostics.Verbosity verbosity = Diagnostics.Verbosity.NORMAL;
+        if (options.containsKey(VERBOSITY_OPTION)) {
+            verbosity = Diagnostics.Verbosity.parse(options.get(VERBOSITY_OPTION));
+            if (verbosity == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        String.format("%s option only supports quiet, normal and verbose.", VERBOSITY_OPTION));
+                failed = true;
+                verbosity = Diagnostics.Verbosity.NORMAL;
+            }
+        }
+        if (options.containsKey(DIAGNOSTICS_OPTION)) {
+            try {
+                return new Diagnostics(processingEnv.getMessager()::printMessage, verbosity, Paths.get(options.get(DIAGNOSTICS_OPTION)));
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        String.format("Could not write diagnostics file: %s", e.getMessage()));
+                failed = true;
+            }
+        }
+        return new Diagnostics(processingEnv.getMessager()::printMessage, verbosity);
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (failed) {
+            return false;
+        }
+        try {
+            List<TypeElement> typeElements = PropertiesExtractor.addNestedTypes(ElementFilter.typesIn(roundEnv.getRootElements()));
+            // the root elements have no stable order
+            typeElements.sort(Comparator.comparing(typeElement -> typeElement.getQualifiedName().toString()));
+            for (TypeElement typeElement : typeElements) {
+                processedTypes.add(typeElement.getQualifiedName().toString());
+                processedPackages.add(processingEnv.getElementUtils().getPackageOf(typeElement));
+                if (extractor.matchFilter(typeElement)) {
+                    for (PropertyEntry entry : extractor.renderType(typeElement)) {
+                        getPropertiesWriter().write(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            if (roundEnv.processingOver()) {
+                warnMissingTypes();
+                // also creates an empty file if no types were processed
+                getPropertiesWriter().commit();
+                getPropertiesWriter().close();
+                diagnostics.summarize();
+                diagnostics.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    String.format("Could not write to properties file: %s", e.getMessage()));
+            failed = true;
+        }
+        return false;
+    }
+
+    /**
+     * Warns if the packages of the compiled types contain included types which were not compiled. This is the case
+     * for an incremental compilation, the properties of these types are missing.
+     */
+    private void warnMissingTypes() {
+        List<String> missingTypes = new ArrayList<>();
+        for (PackageElement packageElement : processedPackages) {
+            for (TypeElement typeElement : ElementFilter.typesIn(packageElement.getEnclosedElements())) {
+                String qualifiedName = typeElement.getQualifiedName().toString();
+                if (!processedTypes.contains(qualifiedName) && extractor.matchName(qualifiedName)) {
+                    missingTypes.add(qualifiedName);
+                }
+            }
+        }
+        if (!missingTypes.isEmpty()) {
+            missingTypes.sort(Comparator.naturalOrder());
+            diagnostics.print(Diagnostic.Kind.WARNING, String.format(
+                    "%d types of the compiled packages are not part of this compilation, e.g. '%s'. Their properties " +
+                            "are missing from %s, use a full compilation.", missingTypes.size(), missingTypes.get(0), output));
+        }
+    }
+
+    private PropertiesWriter getPropertiesWriter() throws IOException {
+        if (propertiesWriter == null) {
+            FileObject fileObject = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, EMPTY, output);
+            diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", fileObject.toUri()));
+            propertiesWriter = new PropertiesWriter(fileObject.openOutputStream(), outputEncoding);
+        }
+        return propertiesWriter;
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of("*");
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Set.of(PREFIX_OPTION, OUTPUT_OPTION, INCLUDE_OPTION, EXCLUDE_OPTION, OUTPUT_ENCODING_OPTION, VERBOSITY_OPTION,
+                DIAGNOSTICS_OPTION, TYPE_SELECTION_OPTION, MEMBER_SELECTION_OPTION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latest();
+    }
+}
@@ -0,0 +1,323 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import javax.tools.Diagnostic;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command line converter storing the Javadocs of source files as properties without running <code>javadoc</code>.
+ * <p>
+ * The source files are only parsed by the {@link SourceExtractor}. They are processed in batches by several threads,
+ * only a bounded number of batches is kept in memory. The entries are written in the order of the source file paths.
+ * </p>
+ * Usage:
+ * <pre>
+ * java -cp javadoctoproperties.jar de.ohmesoftware.javadoctoproperties.SourceConverter -sourcepath src/main/java
+ *     -prefix rest.description -output mydocs.properties [-includes *model*] [-excludes *Bar] [-threads 4]
+ *     [-encoding UTF-8] [-outputencoding ISO-8859-1] [-watch 50] [-verbosity quiet] [-diagnostics diagnostics.txt]
+ *     [-typeselection @Entity] [-memberselection !@JsonIgnore:!transient:!static]
+ * </pre>
+ * <p>
+ * With <code>-watch &lt;debounce milliseconds&gt;</code> the converter keeps running and regenerates the output on each
+ * change of the sources, see {@link SourceWatcher}.
+ * </p>
+ * <p>
+ * The included classes and the missing comments are summarized at the end, see {@link Diagnostics}.
+ * <code>-verbosity</code> selects quiet, normal or verbose output, <code>-diagnostics</code> writes each element to
+ * a separate file.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class SourceConverter {
+
+    private static final String SOURCE_PATH_OPTION = "-sourcepath";
+    private static final String PREFIX_OPTION = "-prefix";
+    private static final String OUTPUT_OPTION = "-output";
+    private static final String INCLUDE_OPTION = "-includes";
+    private static final String EXCLUDE_OPTION = "-excludes";
+    private static final String THREADS_OPTION = "-threads";
+    private static final String ENCODING_OPTION = "-encoding";
+    private static final String OUTPUT_ENCODING_OPTION = "-outputencoding";
+    private static final String WATCH_OPTION = "-watch";
+    private static final String VERBOSITY_OPTION = "-verbosity";
+    private static final String DIAGNOSTICS_OPTION = "-diagnostics";
+    private static final String TYPE_SELECTION_OPTION = "-typeselection";
+    private static final String MEMBER_SELECTION_OPTION = "-memberselection";
+    private static final String EMPTY = "";
+    private static final String DEFAULT_OUTPUT = "javadoc.properties";
+    private static final String JAVA_SUFFIX = ".java";
+    private static final int BATCH_SIZE = 100;
+
+    private List<Path> sourcePath;
+
+    private String propertiesPrefix = EMPTY;
+
+    private String output = DEFAULT_OUTPUT;
+
+    private GlobMatcher includeMatcher;
+
+    private GlobMatcher excludeMatcher;
+
+    private SelectionRules typeSelection;
+
+    private SelectionRules memberSelection;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private Charset encoding = StandardCharsets.UTF_8;
+
+    private Charset outputEncoding = PropertiesWriter.DEFAULT_ENCODING;
+
+    private long watchDebounceMillis = -1;
+
+    private Diagnostics.Verbosity verbosity = Diagnostics.Verbosity.NORMAL;
+
+    private Path diagnosticsFile;
+
+    /**
+     * Command line entry point.
+     *
+     * @param args The options.
+     */
+    public static void main(String[] args) {
+        System.exit(new SourceConverter().run(args) ? 0 : 1);
+    }
+
+    /**
+     * Runs the converter.
+     *
+     * @param args The options.
+     * @return <code>true</code> if the execution was successful.
+     */
+    public boolean run(String... args) {
+        if (!load(args)) {
+            return false;
+        }
+        try (Diagnostics diagnostics = new Diagnostics(SourceConverter::report, verbosity, diagnosticsFile)) {
+            boolean successful = watchDebounceMillis >= 0 ? watch(diagnostics) : convert(diagnostics);
+            diagnostics.summarize();
+            return successful;
+        } catch (IOException e) {
+            report(Diagnostic.Kind.ERROR, String.format("Could not write diagnostics file: %s", e.getMessage()));
+            return false;
+        }
+    }
+
+    private boolean convert(Diagnostics diagnostics) {
+        List<Path> sourceFiles;
+        try {
+            sourceFiles = findSourceFiles(sourcePath);
+        } catch (IOException e) {
+            report(Diagnostic.Kind.ERROR, String.format("Could not read source path: %s", e.getMessage()));
+            return false;
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try (SourceExtractor extractor = new SourceExtractor(propertiesPrefix, includeMatcher, excludeMatcher, typeSelection,
+                memberSelection, encoding, diagnostics);
+             PropertiesWriter propertiesWriter = new PropertiesWriter(Paths.get(output), outputEncoding)) {
+            diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(output).getAbsolutePath()));
+            // keep only a bounded number of parsed batches in memory
+            Deque<Future<List<List<PropertyEntry>>>> batches = new ArrayDeque<>();
+            int maxBatches = threads * 2;
+            int next = 0;
+            while (next < sourceFiles.size() || !batches.isEmpty()) {
+                while (next < sourceFiles.size() && batches.size() < maxBatches) {
+                    List<Path> batch = sourceFiles.subList(next, Math.min(next + BATCH_SIZE, sourceFiles.size()));
+                    batches.add(executorService.submit(() -> extractor.extract(batch)));
+                    next += BATCH_SIZE;
+                }
+                for (List<PropertyEntry> entries : batches.poll().get()) {
+                    for (PropertyEntry entry : entries) {
+                        propertiesWriter.write(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            propertiesWriter.commit();
+        } catch (IOException e) {
+            report(Diagnostic.Kind.ERROR, String.format("Could not write to properties file: %s", e.getMessage()));
+            return false;
+        } catch (ExecutionException e) {
+            report(Diagnostic.Kind.ERROR, String.format("Could not extract properties: %s", e.getCause()));
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report(Diagnostic.Kind.ERROR, "Interrupted");
+            return false;
+        } finally {
+            executorService.shutdownNow();
+        }
+        return true;
+    }
+
+    /**
+     * Writes the output and regenerates it on each change of the sources until the process is stopped.
+     */
+    private boolean watch(Diagnostics diagnostics) {
+        try (SourceExtractor extractor = new SourceExtractor(propertiesPrefix, includeMatcher, excludeMatcher, typeSelection,
+                memberSelection, encoding, diagnostics);
+             SourceWatcher sourceWatcher = new SourceWatcher(sourcePath, Paths.get(output), outputEncoding, extractor,
+                     watchDebounceMillis, diagnostics)) {
+            diagnostics.print(Diagnostic.Kind.NOTE, String.format("Writing to %s", new File(output).getAbsolutePath()));
+            sourceWatcher.start();
+            diagnostics.print(Diagnostic.Kind.NOTE, String.format("Watching %s for changes", sourcePath.stream()
+                    .map(Path::toString).collect(Collectors.joining(File.pathSeparator))));
+            sourceWatcher.run();
+        } catch (IOException e) {
+            report(Diagnostic.Kind.ERROR, String.format("Could not write to properties file: %s", e.getMessage()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds all source files sorted by their path.
+     *
+     * @param sourcePath The source directories.
+     * @return the source files.
+     * @throws IOException if a directory cannot be read.
+     */
+    static List<Path> findSourceFiles(List<Path> sourcePath) throws IOException {
+        List<Path> sourceFiles = new ArrayList<>();
+        for (Path sourceDirectory : sourcePath) {
+            try (Stream<Path> paths = Files.walk(sourceDirectory)) {
+                sourceFiles.addAll(paths.filter(p -> isSourceFile(p) && Files.isRegularFile(p))
+                        .sorted()
+                        .collect(Collectors.toList()));
+            }
+        }
+        return sourceFiles;
+    }
+
+    /**
+     * Checks by the file name if a path is a source file containing types.
+     *
+     * @param path The path.
+     * @return <code>true</code> for Java source files except <code>package-info.java</code> and
+     * <code>module-info.java</code>.
+     */
+    static boolean isSourceFile(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.endsWith(JAVA_SUFFIX) && !fileName.contains("-");
+    }
+
+    private boolean load(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                report(Diagnostic.Kind.ERROR, String.format("%s option needs an argument.", option));
+                return false;
+            }
+            String value = args[++i];
+            switch (option) {
+                case SOURCE_PATH_OPTION:
+                    sourcePath = Arrays.stream(value.split(File.pathSeparator)).map(Paths::get).collect(Collectors.toList());
+                    break;
+                case PREFIX_OPTION:
+                    propertiesPrefix = value;
+                    break;
+                case OUTPUT_OPTION:
+                    output = value;
+                    break;
+                case INCLUDE_OPTION:
+                    includeMatcher = GlobMatcher.compile(Arrays.asList(value.split(":")));
+                    break;
+                case EXCLUDE_OPTION:
+                    excludeMatcher = GlobMatcher.compile(Arrays.asList(value.split(":")));
+                    break;
+                case THREADS_OPTION:
+                    try {
+                        threads = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        threads = -1;
+                    }
+                    if (threads < 0) {
+                        report(Diagnostic.Kind.ERROR, String.format("%s option must be zero or a positive number.", THREADS_OPTION));
+                        return false;
+                    }
+                    if (threads == 0) {
+                        threads = Runtime.getRuntime().availableProcessors();
+                    }
+                    break;
+                case ENCODING_OPTION:
+                    try {
+                        encoding = Charset.forName(value);
+                    } catch (IllegalArgumentException e) {
+                        report(Diagnostic.Kind.ERROR, String.format("%s option has an unsupported encoding: %s", ENCODING_OPTION, value));
+                        return false;
+                    }
+                    break;
+                case OUTPUT_ENCODING_OPTION:
+                    outputEncoding = PropertiesWriter.getEncoding(value);
+                    if (outputEncoding == null) {
+                        report(Diagnostic.Kind.ERROR, String.format("%s option only supports ISO-8859-1 and UTF-8.", OUTPUT_ENCODING_OPTION));
+                        return false;
+                    }
+                    break;
+                case WATCH_OPTION:
+                    try {
+                        watchDebounceMillis = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        watchDebounceMillis = -1;
+                    }
+                    if (watchDebounceMillis < 0) {
+                        report(Diagnostic.Kind.ERROR, String.format("%s option must be the debounce delay in milliseconds.", WATCH_OPTION));
+                        return false;
+                    }
+                    break;
+                case VERBOSITY_OPTION:
+                    verbosity = Diagnostics.Verbosity.parse(value);
+                    if (verbosity == null) {
+                        report(Diagnostic.Kind.ERROR, String.format("%s option only supports quiet, normal and verbose.", VERBOSITY_OPTION));
+                        return false;
+                    }
+                    break;
+                case DIAGNOSTICS_OPTION:
+                    diagnosticsFile = Paths.get(value);
+                    break;
+                case TYPE_SELECTION_OPTION:
+                    typeSelection = SelectionRules.parse(value);
+                    if (typeSelection == null) {
+                        report(Diagnostic.Kind.ERROR, String.format("%s option only supports annotations and modifiers.", TYPE_SELECTION_OPTION));
+                        return false;
+                    }
+                    break;
+                case MEMBER_SELECTION_OPTION:
+                    memberSelection = SelectionRules.parse(value);
+                    if (memberSelection == null) {
+                        report(Diagnostic.Kind.ERROR, String.format("%s option only supports annotations and modifiers.", MEMBER_SELECTION_OPTION));
+                        return false;
+                    }
+                    break;
+                default:
+                    report(Diagnostic.Kind.ERROR, String.format("Unknown option: %s", option));
+                    return false;
+            }
+        }
+        if (sourcePath == null) {
+            report(Diagnostic.Kind.ERROR, String.format("%s option is required.", SOURCE_PATH_OPTION));
+            return false;
+        }
+        return true;
+    }
+
+    private static synchronized void report(Diagnostic.Kind kind, String message) {
+        System.err.println(kind.name().toLowerCase() + ": " + message);
+    }
+}
@@ -0,0 +1,326 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import com.sun.source.doctree.DocCommentTree;
+import com.sun.source.doctree.DocTree;
+import com.sun.source.doctree.ParamTree;
+import com.sun.source.tree.AnnotationTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.ModifiersTree;
+import com.sun.source.tree.PrimitiveTypeTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.DocTrees;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TreePath;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Extracts the properties from source files by only parsing them.
+ * <p>
+ * In contrast to the doclet no symbols are entered and nothing is attributed, the classpath is not needed. The keys
+ * are the same as generated by {@link Converter9}, but without symbols the inherited members and the comments of
+ * overridden getters cannot be resolved. Each invocation uses its own compiler task, so different threads can extract
+ * different files concurrently.
+ * </p>
+ * <p>
+ * The selection rules are checked on the modifiers and annotations as written in the source, the implicit modifiers
+ * of interface members are added. Annotation names are qualified by the single type imports of the file.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class SourceExtractor implements Closeable {
+
+    private static final String EMPTY = "";
+    private static final List<String> COMPILER_OPTIONS = List.of("-proc:none");
+    private static final String RECORD_KIND = "RECORD";
+    private static final String WILDCARD_IMPORT = ".*";
+    private static final char PACKAGE_SEPARATOR = '.';
+    private static final int INTERFACE_FIELD_MODIFIERS = java.lang.reflect.Modifier.PUBLIC | java.lang.reflect.Modifier.STATIC
+            | java.lang.reflect.Modifier.FINAL;
+
+    private final String propertyPrefix;
+
+    private final GlobMatcher includeMatcher;
+
+    private final GlobMatcher excludeMatcher;
+
+    private final SelectionRules typeSelection;
+
+    private final SelectionRules memberSelection;
+
+    private final Diagnostics diagnostics;
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+    private final ConcurrentLinkedQueue<StandardJavaFileManager> fileManagers = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<StandardJavaFileManager> fileManager;
+
+    private final ThreadLocal<CommentRenderer> commentRenderer = ThreadLocal.withInitial(CommentRenderer::new);
+
+    /**
+     * Constructor.
+     *
+     * @param propertiesPrefix The property prefix used for all keys.
+     * @param includeMatcher   The includes or <code>null</code> to include all types.
+     * @param excludeMatcher   The excludes or <code>null</code> to exclude no type.
+     * @param typeSelection    The rules selecting the types or <code>null</code> to select all types.
+     * @param memberSelection  The rules selecting the members or <code>null</code> to select all members.
+     * @param sourceEncoding   The encoding of the source files.
+     * @param diagnostics      The diagnostics counting the included and excluded classes and the missing comments.
+     */
+    public SourceExtractor(String propertiesPrefix, GlobMatcher includeMatcher, GlobMatcher excludeMatcher,
+                           SelectionRules typeSelection, SelectionRules memberSelection,
+                           Charset sourceEncoding, Diagnostics diagnostics) {
+        this.propertyPrefix = PropertyKeys.buildPrefix(propertiesPrefix);
+        this.includeMatcher = includeMatcher;
+        this.excludeMatcher = excludeMatcher;
+        this.typeSelection = typeSelection;
+        this.memberSelection = memberSelection;
+        this.diagnostics = diagnostics;
+        this.fileManager = ThreadLocal.withInitial(() -> {
+            StandardJavaFileManager standardJavaFileManager = compiler.getStandardFileManager(null, null, sourceEncoding);
+            fileManagers.add(standardJavaFileManager);
+            return standardJavaFileManager;
+        });
+    }
+
+    /**
+     * Extracts the properties of source files.
+     *
+     * @param sourceFiles The source files.
+     * @return the entries of each source file in the order of the passed files.
+     * @throws IOException if a source file cannot be read.
+     */
+    public List<List<PropertyEntry>> extract(List<Path> sourceFiles) throws IOException {
+        List<JavaFileObject> fileObjects = new ArrayList<>(sourceFiles.size());
+        for (JavaFileObject fileObject : fileManager.get().getJavaFileObjectsFromPaths(sourceFiles)) {
+            fileObjects.add(fileObject);
+        }
+        return extractFileObjects(fileObjects);
+    }
+
+    /**
+     * Extracts the properties of source file objects, e.g. of sources read from an archive.
+     *
+     * @param fileObjects The source file objects.
+     * @return the entries of each source file in the order of the passed files.
+     * @throws IOException if a source file cannot be read.
+     */
+    public List<List<PropertyEntry>> extractFileObjects(List<? extends JavaFileObject> fileObjects) throws IOException {
+        JavacTask javacTask = (JavacTask) compiler.getTask(null, fileManager.get(), diagnostic -> {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                diagnostics.print(Diagnostic.Kind.WARNING, diagnostic.toString());
+            }
+        }, COMPILER_OPTIONS, null, fileObjects);
+        DocTrees docTrees = DocTrees.instance(javacTask);
+        Map<JavaFileObject, List<PropertyEntry>> entriesByFile = new HashMap<>();
+        for (CompilationUnitTree compilationUnit : javacTask.parse()) {
+            entriesByFile.put(compilationUnit.getSourceFile(), extract(compilationUnit, docTrees));
+        }
+        List<List<PropertyEntry>> entries = new ArrayList<>(fileObjects.size());
+        for (JavaFileObject fileObject : fileObjects) {
+            entries.add(entriesByFile.getOrDefault(fileObject, List.of()));
+        }
+        return entries;
+    }
+
+    private List<PropertyEntry> extract(CompilationUnitTree compilationUnit, DocTrees docTrees) {
+        List<PropertyEntry> entries = new ArrayList<>();
+        String packageName = compilationUnit.getPackageName() != null ? compilationUnit.getPackageName().toString() : EMPTY;
+        TreePath compilationUnitPath = new TreePath(compilationUnit);
+        Map<String, String> imports = getImports(compilationUnit);
+        for (Tree typeDeclaration : compilationUnit.getTypeDecls()) {
+            if (typeDeclaration instanceof ClassTree) {
+                extractType(packageName, 0, new TreePath(compilationUnitPath, typeDeclaration), imports, docTrees, entries);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Gets the qualified names of the single type imports by their simple names, only needed for the annotation rules.
+     */
+    private Map<String, String> getImports(CompilationUnitTree compilationUnit) {
+        if ((typeSelection == null || !typeSelection.needsAnnotations())
+                && (memberSelection == null || !memberSelection.needsAnnotations())) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> imports = new HashMap<>();
+        for (ImportTree importTree : compilationUnit.getImports()) {
+            String qualifiedName = importTree.getQualifiedIdentifier().toString();
+            if (!importTree.isStatic() && !qualifiedName.endsWith(WILDCARD_IMPORT)) {
+                imports.put(qualifiedName.substring(qualifiedName.lastIndexOf(PACKAGE_SEPARATOR) + 1), qualifiedName);
+            }
+        }
+        return imports;
+    }
+
+    /**
+     * Extracts a type and its members in one pass over the members, nested types are extracted afterwards.
+     */
+    private void extractType(String enclosingName, int implicitModifiers, TreePath classPath, Map<String, String> imports,
+                             DocTrees docTrees, List<PropertyEntry> entries) {
+        ClassTree classTree = (ClassTree) classPath.getLeaf();
+        String simpleName = classTree.getSimpleName().toString();
+        String qualifiedName = enclosingName.isEmpty() ? simpleName : enclosingName + PropertyKeys.PROPERTY_SEPARATOR + simpleName;
+        boolean interfaceType = classTree.getKind() == Tree.Kind.INTERFACE || classTree.getKind() == Tree.Kind.ANNOTATION_TYPE;
+        List<TreePath> nestedTypes = new ArrayList<>();
+        if (matchFilter(qualifiedName, classTree.getModifiers(), implicitModifiers, imports)) {
+            DocCommentTree typeComment = docTrees.getDocCommentTree(classPath);
+            if (typeComment == null) {
+                diagnostics.report(Diagnostic.Kind.WARNING, Diagnostics.MISSING_COMMENT, qualifiedName);
+            }
+            entries.add(new PropertyEntry(propertyPrefix + PropertyKeys.buildPropertyName(simpleName),
+                    typeComment != null ? render(typeComment) : EMPTY));
+            boolean record = classTree.getKind().name().equals(RECORD_KIND);
+            // the comments of the properties, null if undocumented
+            Map<String, String> members = new LinkedHashMap<>();
+            for (Tree member : classTree.getMembers()) {
+                TreePath memberPath = new TreePath(classPath, member);
+                if (member instanceof VariableTree) {
+                    VariableTree variableTree = (VariableTree) member;
+                    String name = variableTree.getName().toString();
+                    if (!selects(memberSelection, variableTree.getModifiers(), interfaceType ? INTERFACE_FIELD_MODIFIERS : 0, imports)) {
+                        continue;
+                    }
+                    if (record && !variableTree.getModifiers().getFlags().contains(Modifier.STATIC)) {
+                        // a record component documented by the record
+                        members.putIfAbsent(name, typeComment != null ? renderParam(typeComment, name) : null);
+                    } else {
+                        members.putIfAbsent(name, render(docTrees.getDocCommentTree(memberPath)));
+                    }
+                } else if (member instanceof MethodTree) {
+                    String name = getGetterPropertyName((MethodTree) member);
+                    if (name != null && members.get(name) == null && selects(memberSelection, ((MethodTree) member).getModifiers(),
+                            interfaceType ? getImplicitInterfaceModifiers(((MethodTree) member).getModifiers()) : 0, imports)) {
+                        String comment = render(docTrees.getDocCommentTree(memberPath));
+                        if (comment != null || !members.containsKey(name)) {
+                            members.put(name, comment);
+                        }
+                    }
+                } else if (member instanceof ClassTree) {
+                    nestedTypes.add(memberPath);
+                }
+            }
+            String memberPrefix = propertyPrefix + PropertyKeys.buildPropertyName(simpleName) + PropertyKeys.PROPERTY_SEPARATOR;
+            for (Map.Entry<String, String> member : members.entrySet()) {
+                if (member.getValue() == null) {
+                    diagnostics.report(Diagnostic.Kind.WARNING, Diagnostics.MISSING_COMMENT,
+                            simpleName + PropertyKeys.PROPERTY_SEPARATOR + member.getKey());
+                }
+                entries.add(new PropertyEntry(memberPrefix + PropertyKeys.buildPropertyName(member.getKey()),
+                        member.getValue() != null ? member.getValue() : EMPTY));
+            }
+        } else {
+            for (Tree member : classTree.getMembers()) {
+                if (member instanceof ClassTree) {
+                    nestedTypes.add(new TreePath(classPath, member));
+                }
+            }
+        }
+        for (TreePath nestedType : nestedTypes) {
+            // nested types of interfaces are implicitly public and static
+            extractType(qualifiedName, interfaceType ? java.lang.reflect.Modifier.PUBLIC | java.lang.reflect.Modifier.STATIC : 0,
+                    nestedType, imports, docTrees, entries);
+        }
+    }
+
+    private static int getImplicitInterfaceModifiers(ModifiersTree modifiersTree) {
+        return modifiersTree.getFlags().contains(Modifier.PRIVATE) ? 0 : java.lang.reflect.Modifier.PUBLIC;
+    }
+
+    /**
+     * Checks the selection rules against the modifiers and annotations as written.
+     */
+    private static boolean selects(SelectionRules selection, ModifiersTree modifiersTree, int implicitModifiers,
+                                   Map<String, String> imports) {
+        if (selection == null) {
+            return true;
+        }
+        List<String> annotationNames = Collections.emptyList();
+        if (selection.needsAnnotations()) {
+            annotationNames = new ArrayList<>();
+            for (AnnotationTree annotationTree : modifiersTree.getAnnotations()) {
+                String annotationName = annotationTree.getAnnotationType().toString();
+                annotationNames.add(imports.getOrDefault(annotationName, annotationName));
+            }
+        }
+        return selection.matches(SelectionRules.toModifiers(modifiersTree.getFlags()) | implicitModifiers, annotationNames);
+    }
+
+    /**
+     * Gets the property name if a method is a getter.
+     */
+    private static String getGetterPropertyName(MethodTree methodTree) {
+        Tree returnType = methodTree.getReturnType();
+        if (returnType == null || !methodTree.getParameters().isEmpty()
+                || methodTree.getModifiers().getFlags().contains(Modifier.STATIC)
+                || returnType.getKind() == Tree.Kind.PRIMITIVE_TYPE
+                && ((PrimitiveTypeTree) returnType).getPrimitiveTypeKind() == TypeKind.VOID) {
+            return null;
+        }
+        boolean booleanResult = returnType.getKind() == Tree.Kind.PRIMITIVE_TYPE
+                && ((PrimitiveTypeTree) returnType).getPrimitiveTypeKind() == TypeKind.BOOLEAN;
+        return PropertyKeys.getGetterPropertyName(methodTree.getName(), booleanResult);
+    }
+
+    private String renderParam(DocCommentTree typeComment, String name) {
+        for (DocTree blockTag : typeComment.getBlockTags()) {
+            if (blockTag.getKind() == DocTree.Kind.PARAM && !((ParamTree) blockTag).isTypeParameter()
+                    && ((ParamTree) blockTag).getName().getName().contentEquals(name)) {
+                return commentRenderer.get().render(((ParamTree) blockTag).getDescription());
+            }
+        }
+        return null;
+    }
+
+    private String render(DocCommentTree docCommentTree) {
+        return docCommentTree != null ? commentRenderer.get().render(docCommentTree.getFullBody()) : null;
+    }
+
+    private boolean matchFilter(String qualifiedName, ModifiersTree modifiersTree, int implicitModifiers, Map<String, String> imports) {
+        if (includeMatcher != null) {
+            if (!includeMatcher.matches(qualifiedName)) {
+                return false;
+            }
+            diagnostics.report(Diagnostic.Kind.NOTE, Diagnostics.INCLUDED, qualifiedName);
+        }
+        if ((excludeMatcher != null && excludeMatcher.matches(qualifiedName))
+                || !selects(typeSelection, modifiersTree, implicitModifiers, imports)) {
+            diagnostics.report(Diagnostic.Kind.NOTE, Diagnostics.EXCLUDED, qualifiedName);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        StandardJavaFileManager standardJavaFileManager;
+        while ((standardJavaFileManager = fileManagers.poll()) != null) {
+            standardJavaFileManager.close();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import javax.tools.Diagnostic;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the source path and regenerates the properties file on changes.
+ * <p>
+ * The entries of all source files are kept in memory. After a change only the changed source files are parsed again
+ * by the {@link SourceExtractor}, whose file managers stay open between the regenerations. Changes are collected until
+ * no further change arrives within the debounce delay, so saving several files at once regenerates the output once.
+ * The output is written to a temporary file which is moved over the output, readers never see a partial file. It is
+ * only written if its content has changed.
+ * </p>
+ * <p>
+ * The entries are written in the same order as by the {@link SourceConverter}: by source directory and then by path.
+ * </p>
+ *
+ * @author Karsten Ohme
+ */
+public class SourceWatcher implements Closeable {
+
+    private final List<Path> sourcePath;
+
+    private final Path output;
+
+    private final Charset outputEncoding;
+
+    private final SourceExtractor extractor;
+
+    private final Diagnostics diagnostics;
+
+    private final long debounceMillis;
+
+    private final WatchService watchService;
+
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
+    /**
+     * The entries of each source file, per source directory sorted by path.
+     */
+    private final List<TreeMap<Path, List<PropertyEntry>>> entries = new ArrayList<>();
+
+    private byte[] lastContent;
+
+    private volatile int regenerations;
+
+    /**
+     * Constructor. Nothing is watched before {@link #start()}.
+     *
+     * @param sourcePath     The source directories.
+     * @param output         The output file.
+     * @param outputEncoding The output encoding. See {@link PropertiesWriter#getEncoding(String)}.
+     * @param extractor      The extractor. It is not closed by this watcher.
+     * @param debounceMillis The time to wait for further changes before regenerating.
+     * @param diagnostics    The diagnostics for notes, warnings and errors. They are summarized after each extraction.
+     * @throws IOException if the watch service cannot be created.
+     */
+    public SourceWatcher(List<Path> sourcePath, Path output, Charset outputEncoding, SourceExtractor extractor,
+                         long debounceMillis, Diagnostics diagnostics) throws IOException {
+        this.sourcePath = new ArrayList<>(sourcePath.size());
+        for (Path sourceDirectory : sourcePath) {
+            this.sourcePath.add(sourceDirectory.toAbsolutePath().normalize());
+            entries.add(new TreeMap<>());
+        }
+        this.output = output.toAbsolutePath();
+        this.outputEncoding = outputEncoding;
+        this.extractor = extractor;
+        this.debounceMillis = debounceMillis;
+        this.diagnostics = diagnostics;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Registers the source directories, extracts all source files and writes the output.
+     *
+     * @throws IOException if a source file cannot be read or the output cannot be written.
+     */
+    public void start() throws IOException {
+        Set<Path> sourceFiles = new TreeSet<>();
+        for (Path sourceDirectory : sourcePath) {
+            register(sourceDirectory, sourceFiles);
+        }
+        update(sourceFiles);
+    }
+
+    /**
+     * Processes the changes until the watcher is closed or the thread is interrupted. Failed regenerations are reported
+     * and retried with the next change.
+     */
+    public void run() {
+        try {
+            while (true) {
+                Set<Path> changedFiles = new TreeSet<>();
+                WatchKey watchKey = watchService.take();
+                // collect the changes until the files are quiet
+                while (watchKey != null) {
+                    processEvents(watchKey, changedFiles);
+                    watchKey = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                if (!changedFiles.isEmpty()) {
+                    try {
+                        update(changedFiles);
+                    } catch (IOException e) {
+                        diagnostics.print(Diagnostic.Kind.ERROR, String.format("Could not regenerate properties file: %s", e.getMessage()));
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of times the output has been written.
+     *
+     * @return the number of writes.
+     */
+    public int getRegenerations() {
+        return regenerations;
+    }
+
+    private void processEvents(WatchKey watchKey, Set<Path> changedFiles) {
+        Path directory = watchedDirectories.get(watchKey);
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                diagnostics.print(Diagnostic.Kind.WARNING, "Missed file system events, extracting all source files.");
+                for (Path sourceDirectory : sourcePath) {
+                    register(sourceDirectory, changedFiles);
+                }
+                changedFiles.addAll(getKnownFiles());
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                register(path, changedFiles);
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                // a deleted directory removes all files below
+                for (Path knownFile : getKnownFiles()) {
+                    if (knownFile.startsWith(path)) {
+                        changedFiles.add(knownFile);
+                    }
+                }
+            }
+            if (SourceConverter.isSourceFile(path)) {
+                changedFiles.add(path);
+            }
+        }
+        if (!watchKey.reset()) {
+            watchedDirectories.remove(watchKey);
+        }
+    }
+
+    private List<Path> getKnownFiles() {
+        List<Path> knownFiles = new ArrayList<>();
+        for (TreeMap<Path, List<PropertyEntry>> sourceDirectoryEntries : entries) {
+            knownFiles.addAll(sourceDirectoryEntries.keySet());
+        }
+        return knownFiles;
+    }
+
+    /**
+     * Registers a directory and its sub directories and adds the contained source files.
+     */
+    private void register(Path directory, Set<Path> sourceFiles) {
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    watchedDirectories.put(dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (SourceConverter.isSourceFile(file)) {
+                        sourceFiles.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (NoSuchFileException e) {
+            // deleted again in the meantime
+        } catch (IOException e) {
+            diagnostics.print(Diagnostic.Kind.WARNING, String.format("Could not watch directory %s: %s", directory, e.getMessage()));
+        }
+    }
+
+    private int getSourceDirectoryIndex(Path path) {
+        for (int i = 0; i < sourcePath.size(); i++) {
+            if (path.startsWith(sourcePath.get(i))) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Not in the source path: %s", path));
+    }
+
+    /**
+     * Extracts the changed files again, removes deleted files and writes the output.
+     */
+    private void update(Set<Path> changedFiles) throws IOException {
+        long start = System.nanoTime();
+        List<Path> existingFiles = new ArrayList<>(changedFiles.size());
+        for (Path changedFile : changedFiles) {
+            if (Files.isRegularFile(changedFile)) {
+                existingFiles.add(changedFile);
+            } else {
+                entries.get(getSourceDirectoryIndex(changedFile)).remove(changedFile);
+            }
+        }
+        if (!existingFiles.isEmpty()) {
+            List<List<PropertyEntry>> extractedEntries = extractor.extract(existingFiles);
+            for (int i = 0; i < existingFiles.size(); i++) {
+                entries.get(getSourceDirectoryIndex(existingFiles.get(i))).put(existingFiles.get(i), extractedEntries.get(i));
+            }
+            diagnostics.summarize();
+        }
+        byte[] content = render();
+        if (!Arrays.equals(content, lastContent)) {
+            OutputFiles.writeIfChanged(output, content);
+            lastContent = content;
+            regenerations++;
+            diagnostics.print(Diagnostic.Kind.NOTE, String.format("Regenerated %s from %d changed files in %d ms", output,
+                    changedFiles.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
+    }
+
+    private byte[] render() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(lastContent != null ? lastContent.length : 8192);
+        try (PropertiesWriter propertiesWriter = new PropertiesWriter(out, outputEncoding)) {
+            for (TreeMap<Path, List<PropertyEntry>> sourceDirectoryEntries : entries) {
+                for (List<PropertyEntry> fileEntries : sourceDirectoryEntries.values()) {
+                    for (PropertyEntry entry : fileEntries) {
+                        propertiesWriter.write(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            propertiesWriter.commit();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Stops watching. A running {@link #run()} returns.
+     *
+     * @throws IOException if the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
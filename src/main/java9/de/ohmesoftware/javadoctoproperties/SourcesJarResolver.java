@@ -0,0 +1,274 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Resolves the properties of types at runtime from <code>-sources.jar</code> archives, e.g. of third-party DTOs
+ * without generated properties file.
+ * <p>
+ * The keys are the same as generated by the doclet. The archives are opened as zip file systems on the first lookup
+ * and only the compilation unit containing the requested type is parsed by the {@link SourceExtractor}. The entries
+ * of the parsed compilation units are kept in a cache evicting the least recently used one. Concurrent lookups of the
+ * same compilation unit are coalesced, it is parsed only once.
+ * </p>
+ * <p>
+ * By key the top level types are found by their file name. Nested types and types declared in a file of another
+ * name are found by their class with {@link #get(Class, String)}. Inherited members are not resolved, see
+ * {@link SourceExtractor}.
+ * </p>
+ * <pre>
+ * try (SourcesJarResolver resolver = new SourcesJarResolver("rest.description", 100,
+ *         List.of(SourcesJarResolver.findSourcesJar(Person.class)))) {
+ *     String description = resolver.get("rest.description.person.name");
+ * }
+ * </pre>
+ * Instances can be shared between threads.
+ *
+ * @author Karsten Ohme
+ */
+public class SourcesJarResolver implements Closeable {
+
+    private static final String JAR_SUFFIX = ".jar";
+    private static final String SOURCES_JAR_SUFFIX = "-sources.jar";
+    private static final String JAVA_SUFFIX = ".java";
+    private static final char NESTED_CLASS_SEPARATOR = '$';
+
+    private final String propertyPrefix;
+
+    private final List<Path> sourcesJars;
+
+    private final SourceExtractor extractor;
+
+    private final Map<Path, Map<String, String>> compilationUnits;
+
+    private final ConcurrentHashMap<Path, CompletableFuture<Map<String, String>>> pendingCompilationUnits = new ConcurrentHashMap<>();
+
+    private List<FileSystem> fileSystems;
+
+    /**
+     * The source files by the key of their top level type.
+     */
+    private Map<String, Path> sourceFiles;
+
+    /**
+     * Constructor. The archives are not opened before the first lookup.
+     *
+     * @param propertiesPrefix        The property prefix used for all keys.
+     * @param maximumCompilationUnits The maximum number of parsed compilation units kept in the cache.
+     * @param sourcesJars             The source archives, searched in this order.
+     */
+    public SourcesJarResolver(String propertiesPrefix, int maximumCompilationUnits, List<Path> sourcesJars) {
+        this.propertyPrefix = PropertyKeys.buildPrefix(propertiesPrefix);
+        this.sourcesJars = new ArrayList<>(sourcesJars);
+        this.extractor = new SourceExtractor(propertiesPrefix, null, null, null, null, StandardCharsets.UTF_8,
+                new Diagnostics((kind, message) -> {
+                }, Diagnostics.Verbosity.QUIET));
+        this.compilationUnits = new LinkedHashMap<Path, Map<String, String>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Map<String, String>> eldest) {
+                return size() > maximumCompilationUnits;
+            }
+        };
+    }
+
+    /**
+     * Finds the sources archive next to the archive of a class, like in a Maven repository:
+     * <code>name-1.0-sources.jar</code> for <code>name-1.0.jar</code>.
+     *
+     * @param type The class.
+     * @return the sources archive or <code>null</code> if the class is not loaded from an archive or there is no sources
+     * archive.
+     */
+    public static Path findSourcesJar(Class<?> type) {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return null;
+        }
+        Path jar;
+        try {
+            jar = Paths.get(codeSource.getLocation().toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+        String fileName = jar.getFileName().toString();
+        if (!fileName.endsWith(JAR_SUFFIX)) {
+            return null;
+        }
+        Path sourcesJar = jar.resolveSibling(fileName.substring(0, fileName.length() - JAR_SUFFIX.length()) + SOURCES_JAR_SUFFIX);
+        return Files.isRegularFile(sourcesJar) ? sourcesJar : null;
+    }
+
+    /**
+     * Gets the value of a key. Only the top level types are found by key.
+     *
+     * @param key The key, e.g. <code>prefix.type.field</code>.
+     * @return the value or <code>null</code> if the key is not found.
+     * @throws IOException if an archive cannot be read.
+     */
+    public String get(CharSequence key) throws IOException {
+        String keyString = key.toString();
+        if (!keyString.startsWith(propertyPrefix)) {
+            return null;
+        }
+        String typeKey = keyString.substring(propertyPrefix.length());
+        int separator = typeKey.indexOf(PropertyKeys.PROPERTY_SEPARATOR);
+        if (separator >= 0) {
+            typeKey = typeKey.substring(0, separator);
+        }
+        Path sourceFile = getSourceFiles().get(typeKey);
+        return sourceFile != null ? getCompilationUnit(sourceFile).get(keyString) : null;
+    }
+
+    /**
+     * Gets the value of a class or one of its members.
+     *
+     * @param type     The class, may be nested.
+     * @param property The field or getter property name or <code>null</code> for the class itself.
+     * @return the value or <code>null</code> if not documented or not found.
+     * @throws IOException if an archive cannot be read.
+     */
+    public String get(Class<?> type, String property) throws IOException {
+        String key = propertyPrefix + PropertyKeys.buildPropertyName(type.getSimpleName());
+        if (property != null) {
+            key += PropertyKeys.PROPERTY_SEPARATOR + PropertyKeys.buildPropertyName(property);
+        }
+        String topLevelName = type.getName();
+        int nestedSeparator = topLevelName.indexOf(NESTED_CLASS_SEPARATOR);
+        if (nestedSeparator >= 0) {
+            topLevelName = topLevelName.substring(0, nestedSeparator);
+        }
+        String fileName = topLevelName.replace('.', '/') + JAVA_SUFFIX;
+        for (FileSystem fileSystem : getFileSystems()) {
+            Path sourceFile = fileSystem.getPath(fileName);
+            if (Files.isRegularFile(sourceFile)) {
+                return getCompilationUnit(sourceFile).get(key);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the entries of a compilation unit from the cache or parses it. Concurrent calls for the same compilation
+     * unit wait for the first one.
+     */
+    private Map<String, String> getCompilationUnit(Path sourceFile) throws IOException {
+        Map<String, String> cachedEntries = getCachedCompilationUnit(sourceFile);
+        if (cachedEntries != null) {
+            return cachedEntries;
+        }
+        CompletableFuture<Map<String, String>> pending = new CompletableFuture<>();
+        CompletableFuture<Map<String, String>> existing = pendingCompilationUnits.putIfAbsent(sourceFile, pending);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof UncheckedIOException ? ((UncheckedIOException) e.getCause()).getCause()
+                        : new IOException(e.getCause());
+            }
+        }
+        try {
+            // the first call may have completed between the cache lookup and putIfAbsent, it is cached before it is removed
+            Map<String, String> entries = getCachedCompilationUnit(sourceFile);
+            if (entries != null) {
+                pending.complete(entries);
+                return entries;
+            }
+            entries = new HashMap<>();
+            for (List<PropertyEntry> fileEntries : extractor.extract(Collections.singletonList(sourceFile))) {
+                for (PropertyEntry entry : fileEntries) {
+                    entries.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+            synchronized (compilationUnits) {
+                compilationUnits.put(sourceFile, entries);
+            }
+            pending.complete(entries);
+            return entries;
+        } catch (IOException e) {
+            pending.completeExceptionally(new UncheckedIOException(e));
+            throw e;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingCompilationUnits.remove(sourceFile, pending);
+        }
+    }
+
+    private Map<String, String> getCachedCompilationUnit(Path sourceFile) {
+        synchronized (compilationUnits) {
+            return compilationUnits.get(sourceFile);
+        }
+    }
+
+    /**
+     * Indexes the top level source files of all archives on the first call, only the directories are read.
+     */
+    private synchronized Map<String, Path> getSourceFiles() throws IOException {
+        if (sourceFiles == null) {
+            Map<String, Path> files = new HashMap<>();
+            for (FileSystem fileSystem : getFileSystems()) {
+                for (Path root : fileSystem.getRootDirectories()) {
+                    try (Stream<Path> paths = Files.walk(root)) {
+                        paths.filter(path -> Files.isRegularFile(path) && SourceConverter.isSourceFile(path)).forEach(path -> {
+                            String fileName = path.getFileName().toString();
+                            files.putIfAbsent(PropertyKeys.buildPropertyName(
+                                    fileName.substring(0, fileName.length() - JAVA_SUFFIX.length())), path);
+                        });
+                    }
+                }
+            }
+            sourceFiles = files;
+        }
+        return sourceFiles;
+    }
+
+    private synchronized List<FileSystem> getFileSystems() throws IOException {
+        if (fileSystems == null) {
+            List<FileSystem> openedFileSystems = new ArrayList<>();
+            try {
+                for (Path sourcesJar : sourcesJars) {
+                    openedFileSystems.add(FileSystems.newFileSystem(sourcesJar, (ClassLoader) null));
+                }
+            } catch (IOException e) {
+                for (FileSystem fileSystem : openedFileSystems) {
+                    fileSystem.close();
+                }
+                throw e;
+            }
+            fileSystems = openedFileSystems;
+        }
+        return fileSystems;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        extractor.close();
+        if (fileSystems != null) {
+            for (FileSystem fileSystem : fileSystems) {
+                fileSystem.close();
+            }
+            fileSystems = null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Saves and loads the cache, also from damaged files.
+ *
+ * @author Karsten Ohme
+ */
+public class FingerprintCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() throws IOException {
+        Path file = save();
+        FingerprintCache cache = FingerprintCache.load(file);
+        List<PropertyEntry> entries = cache.get("de.foo.Person", "f1");
+        assertEquals(entries().size(), entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(entries().get(i).getKey(), entries.get(i).getKey());
+            assertEquals(entries().get(i).getValue(), entries.get(i).getValue());
+        }
+        assertEquals(0, cache.get("de.foo.Empty", "f2").size());
+        assertEquals(Arrays.asList("de.foo.Person", "Person.age"), cache.getMissingComments("de.foo.Person"));
+        assertEquals(0, cache.getMissingComments("de.foo.Empty").size());
+        assertEquals(0, cache.getMissingComments("de.foo.Missing").size());
+        assertNull(cache.get("de.foo.Person", "changed"));
+        assertNull(cache.get("de.foo.Missing", "f1"));
+    }
+
+    @Test
+    public void missingAndForeignFiles() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("missing.cache");
+        assertNull(FingerprintCache.load(file).get("de.foo.Person", "f1"));
+        Files.write(file, new byte[0]);
+        assertNull(FingerprintCache.load(file).get("de.foo.Person", "f1"));
+        Files.write(file, "not a cache file".getBytes());
+        assertNull(FingerprintCache.load(file).get("de.foo.Person", "f1"));
+    }
+
+    @Test
+    public void truncatedFiles() throws IOException {
+        byte[] content = Files.readAllBytes(save());
+        Path file = temporaryFolder.getRoot().toPath().resolve("truncated.cache");
+        // the header alone is an empty cache of another version or too short
+        for (int length = 9; length < content.length; length++) {
+            Files.write(file, Arrays.copyOf(content, length));
+            assertDamaged(file);
+        }
+    }
+
+    @Test
+    public void invalidCounts() throws IOException {
+        byte[] content = Files.readAllBytes(save());
+        Path file = temporaryFolder.getRoot().toPath().resolve("damaged.cache");
+        // the type count, the length of the first name and every other count in the file
+        for (int offset = 8; offset + 4 <= content.length; offset += 4) {
+            for (int value : new int[]{-1, Integer.MIN_VALUE, Integer.MAX_VALUE, content.length}) {
+                byte[] damaged = content.clone();
+                ByteBuffer.wrap(damaged).putInt(offset, value);
+                Files.write(file, damaged);
+                try {
+                    FingerprintCache.load(file);
+                } catch (IOException e) {
+                    // expected for most offsets, never a runtime exception or an error
+                }
+            }
+        }
+        byte[] damaged = content.clone();
+        ByteBuffer.wrap(damaged).putInt(8, Integer.MAX_VALUE);
+        Files.write(file, damaged);
+        assertDamaged(file);
+        damaged = content.clone();
+        ByteBuffer.wrap(damaged).putInt(12, -1);
+        Files.write(file, damaged);
+        assertDamaged(file);
+    }
+
+    private static void assertDamaged(Path file) {
+        try {
+            FingerprintCache.load(file);
+            fail("Damaged file loaded.");
+        } catch (IOException e) {
+            // continued with an empty cache by the doclet
+        }
+    }
+
+    private Path save() throws IOException {
+        FingerprintCache cache = new FingerprintCache();
+        cache.put("de.foo.Person", "f1", entries(), Arrays.asList("de.foo.Person", "Person.age"));
+        cache.put("de.foo.Empty", "f2", Arrays.<PropertyEntry>asList(), Arrays.<String>asList());
+        Path file = temporaryFolder.newFile().toPath();
+        cache.save(file);
+        return file;
+    }
+
+    private static List<PropertyEntry> entries() {
+        return Arrays.asList(new PropertyEntry("person", "A person."), new PropertyEntry("person.name", "Gr\u00fc\u00dfe \ud83d\ude00"));
+    }
+}
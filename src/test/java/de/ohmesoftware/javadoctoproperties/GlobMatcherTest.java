@@ -0,0 +1,143 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import com.sun.javadoc.DocErrorReporter;
+import com.sun.javadoc.SourcePosition;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the glob matching against the former regular expression translation.
+ *
+ * @author Karsten Ohme
+ */
+public class GlobMatcherTest {
+
+    private static final List<String> PATTERNS = Arrays.asList(
+            "*", "**", "?", "*model*", "**model**", "de.*", "de.**", "*.Person", "**.Person", "de.?o*.model.*",
+            "de.foo.model.Person", "de.foo.model", "*Person*Dto", "**.*Dto", "?*", "??", "*.*.*", "de.**.model.**", "");
+
+    private static final List<String> NAMES = Arrays.asList(
+            "", "P", "Person", "de", "de.", "de.foo", "de.foo.model", "de.foo.model.Person", "de.foo.model.PersonDto",
+            "de.foo.modelPerson", "de.foo.model.sub.Person", "model", "xmodel", "demo.model.Person", "deXfoo.model.Person",
+            "de.model", "de.foo.model.Person$Inner", ".Person", "PersonDto", "de.bar.model.Address");
+
+    @Test
+    public void matchesLikeTheRegularExpressions() {
+        for (String pattern : PATTERNS) {
+            GlobMatcher matcher = GlobMatcher.compile(Collections.singletonList(pattern));
+            for (String name : NAMES) {
+                assertEquals(String.format("'%s' on '%s'", pattern, name), name.matches(getRegEx(pattern)), matcher.matches(name));
+            }
+        }
+    }
+
+    @Test
+    public void doubleStarMatchesOneOrMoreCharacters() {
+        GlobMatcher matcher = GlobMatcher.compile(Collections.singletonList("de.**"));
+        assertFalse(matcher.matches("de."));
+        assertTrue(matcher.matches("de.f"));
+        assertTrue(matcher.matches("de.foo.model.Person"));
+        matcher = GlobMatcher.compile(Collections.singletonList("de.*"));
+        assertTrue(matcher.matches("de."));
+        assertTrue(matcher.matches("de.foo.model.Person"));
+        assertFalse(matcher.matches("dex"));
+    }
+
+    @Test
+    public void anyPatternOfTheListMatches() {
+        List<String> patterns = Arrays.asList("*.model.*:de.bar.**:Person".split(":"));
+        GlobMatcher matcher = GlobMatcher.compile(patterns);
+        for (String name : NAMES) {
+            boolean expected = false;
+            for (String pattern : patterns) {
+                expected |= name.matches(getRegEx(pattern));
+            }
+            assertEquals(name, expected, matcher.matches(name));
+        }
+        assertTrue(matcher.matches("Person"));
+        assertTrue(matcher.matches("de.bar.model.Address"));
+        assertFalse(matcher.matches("de.foo.modelPerson"));
+    }
+
+    @Test
+    public void manyPatterns() {
+        // more than 64 states
+        StringBuilder patterns = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            patterns.append("de.pkg").append(i).append(".**.Type").append(i).append(':');
+        }
+        GlobMatcher matcher = GlobMatcher.compile(Arrays.asList(patterns.toString().split(":")));
+        assertTrue(matcher.matches("de.pkg0.a.Type0"));
+        assertTrue(matcher.matches("de.pkg49.a.b.Type49"));
+        assertFalse(matcher.matches("de.pkg49.a.b.Type48"));
+        assertFalse(matcher.matches("de.pkg49..Type49"));
+    }
+
+    @Test
+    public void optionsSplitTheLists() {
+        Options options = new Options();
+        assertTrue(options.load(new String[][]{{Options.INCLUDE_OPTION, "*.model.*:Person"},
+                {Options.EXCLUDE_OPTION, "**Dto"}}, new FailingReporter()));
+        assertTrue(options.getIncludeMatcher().matches("de.foo.model.Person"));
+        assertTrue(options.getIncludeMatcher().matches("Person"));
+        assertFalse(options.getIncludeMatcher().matches("de.foo.Person"));
+        assertTrue(options.getExcludeMatcher().matches("de.foo.model.PersonDto"));
+        assertFalse(options.getExcludeMatcher().matches("Dto"));
+    }
+
+    @Test
+    public void noPatterns() {
+        assertNull(GlobMatcher.compile(null));
+        GlobMatcher matcher = GlobMatcher.compile(Collections.<String>emptyList());
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches("Person"));
+    }
+
+    /**
+     * The former translation into a regular expression.
+     */
+    private static String getRegEx(String pattern) {
+        String _pattern = pattern.replace(".", "\\.");
+        _pattern = _pattern.replace("**", ".*");
+        _pattern = _pattern.replace("*", ".*");
+        _pattern = _pattern.replace("?", ".");
+        return _pattern;
+    }
+
+    private static class FailingReporter implements DocErrorReporter {
+
+        @Override
+        public void printError(String msg) {
+            throw new AssertionError(msg);
+        }
+
+        @Override
+        public void printError(SourcePosition pos, String msg) {
+            throw new AssertionError(msg);
+        }
+
+        @Override
+        public void printWarning(String msg) {
+        }
+
+        @Override
+        public void printWarning(SourcePosition pos, String msg) {
+        }
+
+        @Override
+        public void printNotice(String msg) {
+        }
+
+        @Override
+        public void printNotice(SourcePosition pos, String msg) {
+        }
+    }
+}
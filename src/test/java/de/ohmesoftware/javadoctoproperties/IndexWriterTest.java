@@ -0,0 +1,147 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Writes indexes and reads them back with the {@link IndexReader}.
+ *
+ * @author Karsten Ohme
+ */
+public class IndexWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            // equal values are shared
+            entries.put("de.foo.model.Type" + i / 10 + ".field" + i % 10, i % 3 == 0 ? "Shared." : "Value " + i + ".");
+        }
+        entries.put("", "The empty key.");
+        entries.put("empty", "");
+        IndexReader reader = IndexReader.open(write(entries));
+        assertEquals(entries.size(), reader.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue(), reader.get(entry.getKey()));
+            assertEquals(entry.getValue(), reader.getValue(reader.indexOf(entry.getKey())));
+        }
+    }
+
+    @Test
+    public void missingKeys() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put("key" + i, "value" + i);
+        }
+        IndexReader reader = IndexReader.open(write(entries));
+        for (String key : Arrays.asList("", "key", "key1000", "key0 ", "key00", "Key1", "ke1", "key\u00e4", "key\ud83d\ude00")) {
+            assertEquals(key, -1, reader.indexOf(key));
+            assertFalse(key, reader.containsKey(key));
+            assertNull(key, reader.get(key));
+        }
+        assertTrue(reader.containsKey("key999"));
+    }
+
+    @Test
+    public void duplicateKeys() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("duplicates.idx");
+        try (IndexWriter writer = new IndexWriter(file)) {
+            writer.write("a", "first");
+            writer.write("b", "b");
+            writer.write("a", "second");
+            writer.commit();
+        }
+        IndexReader reader = IndexReader.open(file);
+        assertEquals(2, reader.size());
+        assertEquals("second", reader.get("a"));
+        assertEquals("b", reader.get("b"));
+    }
+
+    @Test
+    public void nonAsciiAndSurrogatePairs() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("K\u00e4se", "Gr\u00fc\u00dfe \u20ac");
+        entries.put("emoji\ud83d\ude00", "\ud83d\ude00\ud834\udd1e");
+        entries.put("\u4e2d\u6587", "\u0800\u07ff\u0080\u007f");
+        entries.put("\ud834\udd1e", "clef");
+        IndexReader reader = IndexReader.open(write(entries));
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue(), reader.get(entry.getKey()));
+        }
+        // an unpaired surrogate is encoded as '?'
+        assertNull(reader.get("emoji\ud83d"));
+        assertNull(reader.get("emoji\ude00"));
+        assertNull(reader.get("K\u00e4s"));
+        entries.clear();
+        entries.put("lone\ud83d", "lone");
+        reader = IndexReader.open(write(entries));
+        assertEquals("lone", reader.get("lone\ud83d"));
+    }
+
+    @Test
+    public void emptyIndex() throws IOException {
+        IndexReader reader = IndexReader.open(write(new LinkedHashMap<String, String>()));
+        assertEquals(0, reader.size());
+        assertEquals(-1, reader.indexOf(""));
+        assertNull(reader.get("key"));
+    }
+
+    @Test
+    public void wrappedBuffer() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("a", "A");
+        entries.put("b", "B");
+        IndexReader reader = IndexReader.wrap(ByteBuffer.wrap(Files.readAllBytes(write(entries))));
+        assertEquals("A", reader.get("a"));
+        assertEquals("B", reader.get("b"));
+    }
+
+    @Test
+    public void invalidFiles() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("a", "A");
+        byte[] content = Files.readAllBytes(write(entries));
+        assertInvalid(Arrays.copyOf(content, content.length - 1), "Truncated index file.");
+        assertInvalid(Arrays.copyOf(content, 8), "Not an index file.");
+        content[0] = 'X';
+        assertInvalid(content, "Not an index file.");
+    }
+
+    private static void assertInvalid(byte[] content, String message) {
+        try {
+            IndexReader.wrap(ByteBuffer.wrap(content));
+            fail(message);
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private Path write(Map<String, String> entries) throws IOException {
+        Path file = temporaryFolder.newFile().toPath();
+        try (IndexWriter writer = new IndexWriter(file)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                writer.write(entry.getKey(), entry.getValue());
+            }
+            writer.commit();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,192 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Merges generated entries into manual files.
+ *
+ * @author Karsten Ohme
+ */
+public class MergingPropertiesWriterTest {
+
+    private static final String NL = System.lineSeparator();
+
+    private static final String MANUAL = "# Header of the file\n"
+            + "# second line\n"
+            + "\n"
+            + "# about a\n"
+            + "a=manual A\n"
+            + "b=manual B\n"
+            + "! about c, only manual\n"
+            + "c = manual \\\n"
+            + "    C\n"
+            + "\n"
+            + "# trailing comment\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void generatedPolicy() throws IOException {
+        Path manual = write("manual.properties", MANUAL);
+        Path output = merge(manual, MergingPropertiesWriter.Policy.GENERATED, "d", "D", "a", "generated A", "b", "generated B");
+        assertEquals("# Header of the file\n"
+                + "# second line\n"
+                + "\n"
+                + "# about a\n"
+                + "a=generated A" + NL
+                + "b=generated B" + NL
+                + "! about c, only manual\n"
+                + "c = manual \\\n"
+                + "    C\n"
+                + "d=D" + NL
+                + "\n"
+                + "# trailing comment\n", read(output));
+    }
+
+    @Test
+    public void manualPolicy() throws IOException {
+        Path manual = write("manual.properties", MANUAL);
+        Path output = merge(manual, MergingPropertiesWriter.Policy.MANUAL, "d", "D", "a", "generated A", "b", "generated B");
+        assertEquals("# Header of the file\n"
+                + "# second line\n"
+                + "\n"
+                + "# about a\n"
+                + "a=manual A\n"
+                + "b=manual B\n"
+                + "! about c, only manual\n"
+                + "c = manual \\\n"
+                + "    C\n"
+                + "d=D" + NL
+                + "\n"
+                + "# trailing comment\n", read(output));
+    }
+
+    @Test
+    public void unsortedManualFile() throws IOException {
+        Path manual = write("manual.properties", "# Header\n"
+                + "\n"
+                + "# about z\n"
+                + "z=manual Z\n"
+                + "# about m\n"
+                + "m=manual M\n"
+                + "b=manual B");
+        Path output = merge(manual, MergingPropertiesWriter.Policy.MANUAL, "a", "A", "n", "N", "z", "Z");
+        assertEquals("# Header\n"
+                + "\n"
+                + "a=A" + NL
+                + "b=manual B" + NL
+                + "# about m\n"
+                + "m=manual M\n"
+                + "n=N" + NL
+                + "# about z\n"
+                + "z=manual Z\n", read(output));
+    }
+
+    @Test
+    public void missingLineTerminatorAtTheEnd() throws IOException {
+        Path manual = write("manual.properties", "a=manual A\nb=manual B");
+        Path output = merge(manual, MergingPropertiesWriter.Policy.MANUAL, "c", "C");
+        assertEquals("a=manual A\nb=manual B" + NL + "c=C" + NL, read(output));
+    }
+
+    @Test
+    public void outputAsManualFile() throws IOException {
+        Path output = write("all.properties", MANUAL);
+        merge(output, output, MergingPropertiesWriter.Policy.GENERATED, "a", "generated A", "d", "D");
+        String merged = read(output);
+        merge(output, output, MergingPropertiesWriter.Policy.GENERATED, "a", "generated A", "d", "D");
+        assertEquals(merged, read(output));
+        Properties properties = load(output);
+        assertEquals("generated A", properties.getProperty("a"));
+        assertEquals("manual B", properties.getProperty("b"));
+        assertEquals("manual C", properties.getProperty("c"));
+        assertEquals("D", properties.getProperty("d"));
+    }
+
+    @Test
+    public void withoutManualFile() throws IOException {
+        Path output = merge(temporaryFolder.getRoot().toPath().resolve("missing.properties"),
+                MergingPropertiesWriter.Policy.MANUAL, "b", "B", "a", "A", "b", "last B");
+        assertEquals("a=A" + NL + "b=last B" + NL, read(output));
+    }
+
+    @Test
+    public void spilledRuns() throws IOException {
+        Path manual = write("manual.properties", "# Header\n\nkey000100=manual\n");
+        Path output = temporaryFolder.getRoot().toPath().resolve("runs.properties");
+        try (MergingPropertiesWriter writer = new MergingPropertiesWriter(output, StandardCharsets.ISO_8859_1, manual,
+                MergingPropertiesWriter.Policy.GENERATED)) {
+            for (int i = 0; i < 250_000; i++) {
+                writer.write(String.format("key%06d", i % 150_000), "value " + i);
+            }
+            writer.commit();
+        }
+        Properties properties = load(output);
+        assertEquals(150_000, properties.size());
+        // the newest of duplicate keys in several runs wins
+        assertEquals("value 150100", properties.getProperty("key000100"));
+        assertEquals("value 149999", properties.getProperty("key149999"));
+        assertEquals("value 200000", properties.getProperty("key050000"));
+        // the runs are deleted
+        try (Stream<Path> files = Files.list(temporaryFolder.getRoot().toPath())) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void closeWithoutCommit() throws IOException {
+        Path output = write("all.properties", MANUAL);
+        try (MergingPropertiesWriter writer = new MergingPropertiesWriter(output, StandardCharsets.ISO_8859_1, output,
+                MergingPropertiesWriter.Policy.GENERATED)) {
+            writer.write("a", "generated A");
+        }
+        assertEquals(MANUAL, read(output));
+        try (Stream<Path> files = Files.list(temporaryFolder.getRoot().toPath())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    private Path merge(Path manual, MergingPropertiesWriter.Policy policy, String... entries) throws IOException {
+        Path output = temporaryFolder.getRoot().toPath().resolve("merged.properties");
+        merge(output, manual, policy, entries);
+        return output;
+    }
+
+    private static void merge(Path output, Path manual, MergingPropertiesWriter.Policy policy, String... entries) throws IOException {
+        try (MergingPropertiesWriter writer = new MergingPropertiesWriter(output, StandardCharsets.ISO_8859_1, manual, policy)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                writer.write(entries[i], entries[i + 1]);
+            }
+            writer.commit();
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(temporaryFolder.getRoot().toPath().resolve(name), content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+    }
+
+    private static Properties load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+}
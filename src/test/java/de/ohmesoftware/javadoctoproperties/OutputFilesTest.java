@@ -0,0 +1,77 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Replaces output files and checks their content and permissions.
+ *
+ * @author Karsten Ohme
+ */
+public class OutputFilesTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void newOutputHasDefaultPermissions() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        assumeTrue(Files.getFileStore(directory).supportsFileAttributeView(PosixFileAttributeView.class));
+        // a file created without explicit permissions gets the umask-derived defaults
+        Path reference = Files.createFile(directory.resolve("reference"));
+        Path output = directory.resolve("out.properties");
+        write(output, "a=b\n");
+        assertEquals(Files.getPosixFilePermissions(reference), Files.getPosixFilePermissions(output));
+        Path written = directory.resolve("written.properties");
+        OutputFiles.writeIfChanged(written, "a=b\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Files.getPosixFilePermissions(reference), Files.getPosixFilePermissions(written));
+    }
+
+    @Test
+    public void replacedOutputKeepsPermissions() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        assumeTrue(Files.getFileStore(directory).supportsFileAttributeView(PosixFileAttributeView.class));
+        Path output = directory.resolve("out.properties");
+        write(output, "a=b\n");
+        Files.setPosixFilePermissions(output, PosixFilePermissions.fromString("rw-r-----"));
+        write(output, "a=c\n");
+        assertArrayEquals("a=c\n".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(output));
+        assertEquals(PosixFilePermissions.fromString("rw-r-----"), Files.getPosixFilePermissions(output));
+        OutputFiles.writeIfChanged(output, "a=d\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(PosixFilePermissions.fromString("rw-r-----"), Files.getPosixFilePermissions(output));
+    }
+
+    @Test
+    public void uncommittedOutputIsKept() throws IOException {
+        Path output = temporaryFolder.getRoot().toPath().resolve("out.properties");
+        write(output, "a=b\n");
+        try (OutputFiles.ReplacingOutputStream out = OutputFiles.newOutputStream(output)) {
+            out.write("a=c\n".getBytes(StandardCharsets.UTF_8));
+        }
+        assertArrayEquals("a=b\n".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(output));
+        try (Stream<Path> files = Files.list(temporaryFolder.getRoot().toPath())) {
+            assertFalse(files.anyMatch(file -> file.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    private static void write(Path output, String content) throws IOException {
+        try (OutputFiles.ReplacingOutputStream out = OutputFiles.newOutputStream(output)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.commit();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Compares the parsed entries with <code>java.util.Properties.load</code>.
+ *
+ * @author Karsten Ohme
+ */
+public class PropertiesReaderTest {
+
+    @Test
+    public void separatorsAndWhitespace() throws IOException {
+        assertLikeProperties("a=A\n"
+                + "b:B\n"
+                + "c C\n"
+                + "d\tD\n"
+                + "  e = E  \n"
+                + "f  =  = F\n"
+                + "g  :  G\n"
+                + "h\n"
+                + "i=\n"
+                + "\f j \f= \f J\n"
+                + "k=a=b:c d\n");
+    }
+
+    @Test
+    public void continuations() throws IOException {
+        assertLikeProperties("a=first \\\n"
+                + "    second \\\n"
+                + "\t\tthird\n"
+                + "b=not continued \\\\\n"
+                + "c=continued \\\\\\\n"
+                + "  # not a comment\n"
+                + "d=empty continuation \\\n"
+                + "\n"
+                + "e=E\n"
+                + "key\\\n"
+                + "  continued=value\n"
+                + "f=end of file \\");
+    }
+
+    @Test
+    public void escapes() throws IOException {
+        assertLikeProperties("a=\\t\\n\\r\\f\\\\\n"
+                + "b=\\u0041\\u00e4\\u20AC\\ud83d\\ude00\n"
+                + "c=\\a\\b\\ \\z\n"
+                + "key\\ with\\ spaces\\=and\\:separators=value\n"
+                + "\\#not\\!comment=x\n"
+                + "\\ leading=y\n"
+                + "d=\\ leading space\n"
+                + "e=trailing backslash \\\\");
+    }
+
+    @Test
+    public void commentsAndLineTerminators() throws IOException {
+        assertLikeProperties("# comment\n"
+                + "! comment\n"
+                + "   # indented comment\n"
+                + "\n"
+                + "   \n"
+                + "a=A\r\n"
+                + "b=B\r"
+                + "c=C\\\r\n"
+                + "  continued\r"
+                + "#trailing\n"
+                + "\n");
+    }
+
+    @Test
+    public void duplicateKeys() throws IOException {
+        assertLikeProperties("a=first\nb=B\na=second\n");
+    }
+
+    @Test
+    public void preservesTheText() throws IOException {
+        String text = "# header\n"
+                + "\n"
+                + "! about a\n"
+                + "a = first \\\n"
+                + "    second\n"
+                + "b:B\r\n"
+                + "\n"
+                + "# trailing\n";
+        try (PropertiesReader reader = new PropertiesReader(new StringReader(text))) {
+            PropertiesReader.Record record = reader.read();
+            assertEquals("# header\n\n! about a\n", record.getComments());
+            assertEquals("a = first \\\n    second\n", record.getText());
+            assertEquals("a", record.getKey());
+            assertEquals("first second", record.getValue());
+            record = reader.read();
+            assertEquals("", record.getComments());
+            assertEquals("b:B\r\n", record.getText());
+            record = reader.read();
+            assertEquals("\n# trailing\n", record.getComments());
+            assertNull(record.getText());
+            assertNull(record.getKey());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void malformedUnicodeEscape() throws IOException {
+        try (PropertiesReader reader = new PropertiesReader(new StringReader("a=\\u12"))) {
+            reader.read();
+            fail();
+        } catch (IOException e) {
+            assertEquals("Malformed unicode escape in 'a=\\u12'.", e.getMessage());
+        }
+    }
+
+    private static void assertLikeProperties(String text) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(text));
+        Map<String, String> entries = new LinkedHashMap<>();
+        StringBuilder original = new StringBuilder();
+        try (PropertiesReader reader = new PropertiesReader(new StringReader(text))) {
+            PropertiesReader.Record record;
+            while ((record = reader.read()) != null) {
+                original.append(record.getComments());
+                if (record.getKey() != null) {
+                    original.append(record.getText());
+                    entries.put(record.getKey(), record.getValue());
+                }
+            }
+        }
+        assertEquals(properties.size(), entries.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            assertEquals(entry.getKey(), properties.getProperty(entry.getKey()), entry.getValue());
+        }
+        assertEquals(text, original.toString());
+    }
+}
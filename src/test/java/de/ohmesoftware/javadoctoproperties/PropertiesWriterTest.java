@@ -0,0 +1,97 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Writes entries and reads them back with <code>java.util.Properties</code>.
+ *
+ * @author Karsten Ohme
+ */
+public class PropertiesWriterTest {
+
+    @Test
+    public void isoLatin1RoundTrip() throws IOException {
+        byte[] output = write(entries(), StandardCharsets.ISO_8859_1);
+        for (byte b : output) {
+            assertTrue("not ASCII: " + b, b > 0 && b < 0x7f);
+        }
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(output));
+        assertEntries(entries(), properties);
+    }
+
+    @Test
+    public void utf8RoundTrip() throws IOException {
+        byte[] output = write(entries(), StandardCharsets.UTF_8);
+        String text = new String(output, StandardCharsets.UTF_8);
+        assertTrue(text, text.contains("nonAscii=Gr\u00fc\u00dfe \u20ac \ud83d\ude00"));
+        Properties properties = new Properties();
+        properties.load(new InputStreamReader(new ByteArrayInputStream(output), StandardCharsets.UTF_8));
+        assertEntries(entries(), properties);
+    }
+
+    @Test
+    public void escapedCharacters() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("a b", " c");
+        entries.put("k=:#!", "v=:#!");
+        String text = new String(write(entries, StandardCharsets.ISO_8859_1), StandardCharsets.ISO_8859_1);
+        String lineSeparator = System.lineSeparator();
+        assertEquals("a\\ b=\\ c" + lineSeparator + "k\\=\\:\\#\\!=v=:#!" + lineSeparator, text);
+    }
+
+    @Test
+    public void encodings() {
+        assertEquals(StandardCharsets.ISO_8859_1, PropertiesWriter.getEncoding("iso-8859-1"));
+        assertEquals(StandardCharsets.UTF_8, PropertiesWriter.getEncoding("utf-8"));
+        assertEquals(null, PropertiesWriter.getEncoding("UTF-16"));
+    }
+
+    private static Map<String, String> entries() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("plain", "The plain text.");
+        entries.put("empty", "");
+        entries.put("leading", "  \t two spaces and a tab, trailing  ");
+        entries.put("lines", "first\nsecond\r\nthird\fend");
+        entries.put("backslashes", "C:\\temp\\new \\u0041 \\");
+        entries.put("separators", "a=b: c # d ! e");
+        entries.put("#comment", "!not a comment");
+        entries.put("key with spaces = and : separators", "value");
+        entries.put("nonAscii", "Gr\u00fc\u00dfe \u20ac \ud83d\ude00 \u007f\u0080\u00ff\u0100");
+        entries.put("K\u00e4se \u20ac", "\u00e4");
+        entries.put("controls", "\u0000\u0001\u001f end");
+        entries.put("surrogates", "lone \ud83d and \ude00 reversed \ude00\ud83d");
+        return entries;
+    }
+
+    private static byte[] write(Map<String, String> entries, Charset encoding) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PropertiesWriter writer = new PropertiesWriter(output, encoding)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                writer.write(entry.getKey(), entry.getValue());
+            }
+            writer.commit();
+        }
+        return output.toByteArray();
+    }
+
+    private static void assertEntries(Map<String, String> entries, Properties properties) {
+        assertEquals(entries.size(), properties.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue(), properties.getProperty(entry.getKey()));
+        }
+    }
+}
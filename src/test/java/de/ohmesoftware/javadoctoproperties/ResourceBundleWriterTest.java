@@ -0,0 +1,108 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compiles the generated bundle and reads the entries back.
+ *
+ * @author Karsten Ohme
+ */
+public class ResourceBundleWriterTest {
+
+    private static final String CLASS_NAME = "test.bundle.Docs";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void controlCharactersFollowedByDigits() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("octal", "a" + (char) 1 + "5b\f7");
+        StringBuilder controls = new StringBuilder();
+        for (char c = 0; c < 0x20; c++) {
+            controls.append(c).append('0').append(c).append("77");
+        }
+        entries.put("controls", controls.toString());
+        assertRoundTrip(entries);
+    }
+
+    @Test
+    public void quotesBackslashesAndNonAscii() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("quotes", "say \"hello\" to 'them'");
+        entries.put("backslashes", "C:\\temp\\new \\u0041 \\\\");
+        entries.put("nonAscii", "Gr\u00fc\u00dfe \u20ac \ud83d\ude00 \u2028 end");
+        entries.put("key with \"quotes\" and \u00e4", "value");
+        entries.put("empty", "");
+        assertRoundTrip(entries);
+    }
+
+    @Test
+    public void longLiterals() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        StringBuilder text = new StringBuilder();
+        // a surrogate pair at the chunk boundary
+        for (int i = 0; i < 16383; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+        text.append("\ud83d\ude00");
+        while (text.length() < 50000) {
+            text.append("\"\\\u00e4").append((char) 1).append('7');
+        }
+        entries.put("long", text.toString());
+        StringBuilder exact = new StringBuilder();
+        for (int i = 0; i < 16384; i++) {
+            exact.append('x');
+        }
+        entries.put("exact", exact.toString());
+        exact.append('y');
+        entries.put("exactPlusOne", exact.toString());
+        assertRoundTrip(entries);
+    }
+
+    @Test
+    public void manyEntries() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            entries.put("key" + i, "value " + i);
+        }
+        assertRoundTrip(entries);
+    }
+
+    private void assertRoundTrip(Map<String, String> entries) throws Exception {
+        Path sourceDirectory = temporaryFolder.newFolder("src").toPath();
+        Path classDirectory = temporaryFolder.newFolder("classes").toPath();
+        try (ResourceBundleWriter writer = new ResourceBundleWriter(sourceDirectory, CLASS_NAME)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                writer.write(entry.getKey(), entry.getValue());
+            }
+            writer.commit();
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int result = compiler.run(null, null, errors, "-d", classDirectory.toString(),
+                sourceDirectory.resolve(CLASS_NAME.replace('.', '/') + ".java").toString());
+        assertEquals(errors.toString(), 0, result);
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classDirectory.toUri().toURL()})) {
+            ResourceBundle bundle = (ResourceBundle) classLoader.loadClass(CLASS_NAME).getDeclaredConstructor().newInstance();
+            assertEquals(entries.size(), bundle.keySet().size());
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                assertEquals(entry.getKey(), entry.getValue(), bundle.getString(entry.getKey()));
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.DocumentationTool;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the doclet sequentially and in parallel on a model with supertypes from the classpath and incrementally.
+ *
+ * @author Karsten Ohme
+ */
+public class Converter9Test {
+
+    private static final int TYPES = 300;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void parallelOutputIsIdentical() throws Exception {
+        Path classpath = compileLibrary();
+        List<Path> sources = writeModel();
+        byte[] sequential = convert(classpath, sources, "1");
+        byte[] parallel = convert(classpath, sources, "4");
+        assertArrayEquals(sequential, parallel);
+        String properties = new String(sequential, StandardCharsets.ISO_8859_1);
+        // the library is compiled without sources, its comments are not available
+        assertTrue(properties, properties.contains("t7.id=Of T5. Of T6. Of T7."));
+        assertTrue(properties, properties.contains("t6.name=The display name."));
+        assertTrue(properties, properties.contains("t7.field5=Field 5."));
+    }
+
+    @Test
+    public void changedSignatureInvalidatesCache() throws Exception {
+        Path source = temporaryFolder.getRoot().toPath().resolve("cached/m/Foo.java");
+        Path cache = temporaryFolder.getRoot().toPath().resolve("cached/cache.bin");
+        Path output = temporaryFolder.getRoot().toPath().resolve("cached/cached.properties");
+        Path freshOutput = temporaryFolder.getRoot().toPath().resolve("cached/fresh.properties");
+        // the comments stay the same, only the signatures decide about the getters
+        String[] getters = {"public String getName() { return null; }", "public void getName() { }",
+                "public static String getName() { return null; }", "public String getName(int i) { return null; }",
+                "public boolean isName() { return false; }", "public Boolean isName() { return false; }"};
+        for (String getter : getters) {
+            write(source, "package m;\n/** Foo type. */\npublic class Foo {\n    /** The name. */\n    " + getter + "\n}\n");
+            run(List.of(source), "-output", output.toString(), "-cache", cache.toString());
+            run(List.of(source), "-output", freshOutput.toString());
+            assertEquals(getter, new String(Files.readAllBytes(freshOutput), StandardCharsets.ISO_8859_1),
+                    new String(Files.readAllBytes(output), StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    @Test
+    public void cachedTypesReportMissingComments() throws Exception {
+        Path source = write(temporaryFolder.getRoot().toPath().resolve("missing/m/Foo.java"),
+                "package m;\npublic class Foo {\n    /** The name. */\n    private String name;\n    private int age;\n}\n");
+        Path cache = temporaryFolder.getRoot().toPath().resolve("missing/cache.bin");
+        Path output = temporaryFolder.getRoot().toPath().resolve("missing/docs.properties");
+        String rendered = run(List.of(source), "-output", output.toString(), "-cache", cache.toString(), "-verbosity", "verbose");
+        String cached = run(List.of(source), "-output", output.toString(), "-cache", cache.toString(), "-verbosity", "verbose");
+        assertTrue(cached, cached.contains("Rendered 0 changed types"));
+        for (String log : new String[]{rendered, cached}) {
+            assertTrue(log, log.contains(Diagnostics.MISSING_COMMENT + ": 2 times"));
+            // the type is reported by its qualified name like by the source converter
+            assertTrue(log, log.contains(Diagnostics.MISSING_COMMENT + ": 'm.Foo'"));
+        }
+    }
+
+    private Path compileLibrary() throws IOException {
+        Path sourceDirectory = temporaryFolder.newFolder("lib-src").toPath();
+        Path classDirectory = temporaryFolder.newFolder("lib").toPath();
+        Path identified = write(sourceDirectory.resolve("lib/Identified.java"),
+                "package lib;\n"
+                        + "/** Something with an identifier. */\n"
+                        + "public interface Identified {\n"
+                        + "    /** The identifier. */\n"
+                        + "    long getId();\n"
+                        + "}\n");
+        Path entity = write(sourceDirectory.resolve("lib/Entity.java"),
+                "package lib;\n"
+                        + "/** An entity. */\n"
+                        + "public abstract class Entity implements Identified {\n"
+                        + "    /** The version. */\n"
+                        + "    protected long version;\n"
+                        + "    public long getVersion() { return version; }\n"
+                        + "}\n");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int result = compiler.run(null, null, errors, "-d", classDirectory.toString(),
+                identified.toString(), entity.toString());
+        assertEquals(errors.toString(), 0, result);
+        return classDirectory;
+    }
+
+    /**
+     * Writes chains of types extending a library class, a JDK class or a source type.
+     */
+    private List<Path> writeModel() throws IOException {
+        Path sourceDirectory = temporaryFolder.newFolder("src").toPath();
+        List<Path> sources = new ArrayList<>();
+        sources.add(write(sourceDirectory.resolve("m/Named.java"),
+                "package m;\n"
+                        + "/** Something with a name. */\n"
+                        + "public interface Named {\n"
+                        + "    /** The display name. */\n"
+                        + "    String getName();\n"
+                        + "}\n"));
+        for (int i = 0; i < TYPES; i++) {
+            String superclass = i % 5 == 0 ? "lib.Entity" : i % 5 == 3 ? "java.util.ArrayList<String>" : "T" + (i - 1);
+            StringBuilder source = new StringBuilder()
+                    .append("package m;\n")
+                    .append("/** Type ").append(i).append(" with a {@link java.util.List}. */\n")
+                    .append("public class T").append(i).append(" extends ").append(superclass).append(" implements Named {\n")
+                    .append("    /** Field ").append(i).append(". */\n")
+                    .append("    private String field").append(i).append(";\n")
+                    .append("    /** {@inheritDoc} Of T").append(i).append(". */\n")
+                    .append("    public long getId() { return 0; }\n")
+                    .append("    public String getName() { return null; }\n")
+                    .append("    public String getField").append(i).append("() { return field").append(i).append("; }\n")
+                    .append("}\n");
+            sources.add(write(sourceDirectory.resolve("m/T" + i + ".java"), source.toString()));
+        }
+        return sources;
+    }
+
+    private byte[] convert(Path classpath, List<Path> sources, String threads) throws IOException {
+        Path output = temporaryFolder.getRoot().toPath().resolve("threads-" + threads + ".properties");
+        run(sources, "-classpath", classpath.toString(), "-output", output.toString(), "-threads", threads);
+        return Files.readAllBytes(output);
+    }
+
+    private static String run(List<Path> sources, String... options) throws IOException {
+        DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+        StringWriter log = new StringWriter();
+        try (StandardJavaFileManager fileManager = tool.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            Boolean result = tool.getTask(new PrintWriter(log), fileManager, null, Converter9.class,
+                    Arrays.asList(options), fileManager.getJavaFileObjectsFromPaths(sources)).call();
+            assertTrue(log.toString(), result);
+        }
+        return log.toString();
+    }
+
+    private static Path write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,92 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the processor on a full and on an incremental compilation.
+ *
+ * @author Karsten Ohme
+ */
+public class PropertiesProcessorTest {
+
+    private static final String WARNING = "types of the compiled packages are not part of this compilation";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void incrementalCompilation() throws IOException {
+        Path sourceDirectory = temporaryFolder.newFolder("src").toPath();
+        Path classDirectory = temporaryFolder.newFolder("classes").toPath();
+        Path foo = write(sourceDirectory.resolve("de/foo/Foo.java"),
+                "package de.foo;\n/** The foo. */\npublic class Foo {\n}\n");
+        Path bar = write(sourceDirectory.resolve("de/foo/Bar.java"),
+                "package de.foo;\n/** The bar. */\npublic class Bar {\n}\n");
+        String output = compile(classDirectory, "", foo, bar);
+        assertFalse(output, output.contains(WARNING));
+        assertEquals("bar=The bar.\nfoo=The foo.\n", read(classDirectory));
+
+        output = compile(classDirectory, "", foo);
+        assertTrue(output, output.contains("1 " + WARNING + ", e.g. 'de.foo.Bar'"));
+        assertEquals("foo=The foo.\n", read(classDirectory));
+
+        // excluded types are not missing
+        output = compile(classDirectory, "-Ajavadoctoproperties.excludes=*Bar", foo);
+        assertFalse(output, output.contains(WARNING));
+    }
+
+    @Test
+    public void missingCommentOfNestedType() throws IOException {
+        Path classDirectory = temporaryFolder.newFolder("nested").toPath();
+        Path outer = write(temporaryFolder.getRoot().toPath().resolve("nested-src/de/foo/Outer.java"),
+                "package de.foo;\n/** The outer. */\npublic class Outer {\n    public static class Inner {\n    }\n}\n");
+        String output = compile(classDirectory, "-Ajavadoctoproperties.verbosity=verbose", outer);
+        assertTrue(output, output.contains(Diagnostics.MISSING_COMMENT + ": 'de.foo.Outer.Inner'"));
+    }
+
+    private String compile(Path classDirectory, String option, Path... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        List<String> arguments = new ArrayList<>(List.of("-d", classDirectory.toString(), "-classpath", classDirectory.toString(),
+                "-processor", PropertiesProcessor.class.getName(), "-processorpath", System.getProperty("java.class.path")));
+        if (!option.isEmpty()) {
+            arguments.add(option);
+        }
+        for (Path source : sources) {
+            arguments.add(source.toString());
+        }
+        assertEquals(messages.toString(), 0, compiler.run(null, messages, messages, arguments.toArray(new String[0])));
+        return messages.toString();
+    }
+
+    private static String read(Path classDirectory) throws IOException {
+        StringBuilder properties = new StringBuilder();
+        for (String line : Files.readAllLines(classDirectory.resolve("javadoc.properties"), StandardCharsets.ISO_8859_1)) {
+            if (!line.startsWith("#")) {
+                properties.append(line).append('\n');
+            }
+        }
+        return properties.toString();
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,43 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the source converter with the thread options.
+ *
+ * @author Karsten Ohme
+ */
+public class SourceConverterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void threads() throws IOException {
+        Path sourcePath = temporaryFolder.newFolder("src").toPath();
+        for (int i = 0; i < 20; i++) {
+            Path source = sourcePath.resolve("de/foo/Foo" + i + ".java");
+            Files.createDirectories(source.getParent());
+            Files.write(source, ("package de.foo;\n/** Foo " + i + ". */\npublic class Foo" + i + " {\n"
+                    + "    /** The name. */\n    private String name;\n}\n").getBytes(StandardCharsets.UTF_8));
+        }
+        Path sequential = temporaryFolder.getRoot().toPath().resolve("sequential.properties");
+        Path allProcessors = temporaryFolder.getRoot().toPath().resolve("all.properties");
+        assertTrue(new SourceConverter().run("-sourcepath", sourcePath.toString(), "-output", sequential.toString(), "-threads", "1"));
+        // 0 uses all processors like the doclet
+        assertTrue(new SourceConverter().run("-sourcepath", sourcePath.toString(), "-output", allProcessors.toString(), "-threads", "0"));
+        assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(allProcessors));
+        assertFalse(new SourceConverter().run("-sourcepath", sourcePath.toString(), "-output", allProcessors.toString(), "-threads", "-1"));
+    }
+}
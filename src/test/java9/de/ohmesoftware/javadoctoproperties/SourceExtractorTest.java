@@ -0,0 +1,56 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Extracts the entries of a source file without attribution.
+ *
+ * @author Karsten Ohme
+ */
+public class SourceExtractorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void missingComments() throws IOException {
+        Path source = temporaryFolder.getRoot().toPath().resolve("de/foo/Foo.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, ("package de.foo;\n"
+                + "public class Foo {\n"
+                + "    /** The x. */\n"
+                + "    private int x;\n"
+                + "    private int y;\n"
+                + "    /** The bar. */\n"
+                + "    public static class Bar {\n"
+                + "        private int z;\n"
+                + "    }\n"
+                + "}\n").getBytes(StandardCharsets.UTF_8));
+        List<String> messages = new ArrayList<>();
+        Diagnostics diagnostics = new Diagnostics((kind, message) -> messages.add(message), Diagnostics.Verbosity.VERBOSE);
+        List<List<PropertyEntry>> entries;
+        try (SourceExtractor extractor = new SourceExtractor("", null, null, null, null, StandardCharsets.UTF_8, diagnostics)) {
+            entries = extractor.extract(List.of(source));
+        }
+        List<String> properties = new ArrayList<>();
+        for (PropertyEntry entry : entries.get(0)) {
+            properties.add(entry.getKey() + "=" + entry.getValue());
+        }
+        assertEquals(Arrays.asList("foo=", "foo.x=The x.", "foo.y=", "bar=The bar.", "bar.z="), properties);
+        // the type is reported by its qualified name, the members with their type
+        assertEquals(Arrays.asList(Diagnostics.MISSING_COMMENT + ": 'de.foo.Foo'", Diagnostics.MISSING_COMMENT + ": 'Foo.y'",
+                Diagnostics.MISSING_COMMENT + ": 'Bar.z'"), messages);
+    }
+}
@@ -0,0 +1,148 @@
+package de.ohmesoftware.javadoctoproperties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Changes the sources in a temporary directory while the watcher is running.
+ *
+ * @author Karsten Ohme
+ */
+public class SourceWatcherTest {
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path sourceDirectory;
+
+    private Path output;
+
+    private SourceExtractor extractor;
+
+    private SourceWatcher sourceWatcher;
+
+    private Thread watcherThread;
+
+    @Before
+    public void setUp() throws IOException {
+        sourceDirectory = temporaryFolder.newFolder("src").toPath();
+        output = temporaryFolder.getRoot().toPath().resolve("docs.properties");
+        Diagnostics diagnostics = new Diagnostics((kind, message) -> {
+        }, Diagnostics.Verbosity.QUIET);
+        extractor = new SourceExtractor("", null, null, null, null, StandardCharsets.UTF_8, diagnostics);
+        sourceWatcher = new SourceWatcher(List.of(sourceDirectory), output, StandardCharsets.ISO_8859_1, extractor,
+                50, diagnostics);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sourceWatcher.close();
+        if (watcherThread != null) {
+            watcherThread.join(TIMEOUT_MILLIS);
+        }
+        extractor.close();
+    }
+
+    @Test
+    public void createModifyAndDelete() throws Exception {
+        writeType("m/A.java", "A", "Type A.");
+        sourceWatcher.start();
+        assertEquals("Type A.", load().getProperty("a"));
+        assertEquals(1, sourceWatcher.getRegenerations());
+        watcherThread = new Thread(sourceWatcher::run);
+        watcherThread.start();
+
+        writeType("m/B.java", "B", "Type B.");
+        awaitOutput(properties -> "Type B.".equals(properties.getProperty("b")));
+        assertEquals("Type A.", load().getProperty("a"));
+
+        writeType("m/A.java", "A", "Type A changed.");
+        awaitOutput(properties -> "Type A changed.".equals(properties.getProperty("a")));
+
+        // a new directory is registered
+        writeType("m/sub/C.java", "C", "Type C.");
+        awaitOutput(properties -> "Type C.".equals(properties.getProperty("c")));
+        writeType("m/sub/C.java", "C", "Type C changed.");
+        awaitOutput(properties -> "Type C changed.".equals(properties.getProperty("c")));
+
+        Files.delete(sourceDirectory.resolve("m/B.java"));
+        awaitOutput(properties -> !properties.containsKey("b"));
+
+        Files.delete(sourceDirectory.resolve("m/sub/C.java"));
+        Files.delete(sourceDirectory.resolve("m/sub"));
+        awaitOutput(properties -> !properties.containsKey("c"));
+        Properties properties = load();
+        assertEquals("Type A changed.", properties.getProperty("a"));
+        assertEquals(1, properties.size());
+    }
+
+    @Test
+    public void unchangedContentIsNotWritten() throws Exception {
+        writeType("m/A.java", "A", "Type A.");
+        sourceWatcher.start();
+        watcherThread = new Thread(sourceWatcher::run);
+        watcherThread.start();
+        // only the code changes
+        Files.write(sourceDirectory.resolve("m/A.java"), ("package m;\n/** Type A. */\npublic class A {\n"
+                + "    int unused() { return 0; }\n}\n").getBytes(StandardCharsets.UTF_8));
+        // longer than the debounce delay, the next change is processed separately
+        Thread.sleep(500);
+        writeType("m/B.java", "B", "Type B.");
+        awaitOutput(properties -> properties.containsKey("b"));
+        // counted after the output is replaced
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (sourceWatcher.getRegenerations() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, sourceWatcher.getRegenerations());
+    }
+
+    private void writeType(String file, String name, String comment) throws IOException {
+        Path path = sourceDirectory.resolve(file);
+        Files.createDirectories(path.getParent());
+        String packageName = sourceDirectory.relativize(path.getParent()).toString().replace(path.getFileSystem().getSeparator(), ".");
+        Files.write(path, String.format("package %s;%n/** %s */%npublic class %s {%n}%n", packageName, comment, name)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void awaitOutput(Predicate<Properties> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            assertTrue("watcher stopped", watcherThread.isAlive());
+            if (condition.test(load())) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("Output not regenerated: " + load());
+    }
+
+    private Properties load() throws IOException {
+        Properties properties = new Properties();
+        assertFalse(Files.isDirectory(output));
+        try (InputStream inputStream = Files.newInputStream(output)) {
+            properties.load(inputStream);
+        }
+        return properties;
+    }
+}